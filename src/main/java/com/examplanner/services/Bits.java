@@ -0,0 +1,51 @@
+package com.examplanner.services;
+
+/**
+ * Helpers for bitsets stored as rows in flat {@code long[]} arrays.
+ * Each method takes the row's word offset so callers can keep many
+ * bitsets in one allocation.
+ */
+final class Bits {
+
+    private Bits() {
+    }
+
+    static int wordCount(int bits) {
+        return Math.max(1, (bits + 63) >>> 6);
+    }
+
+    static boolean test(long[] bits, int offset, int index) {
+        return (bits[offset + (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    static void set(long[] bits, int offset, int index) {
+        bits[offset + (index >>> 6)] |= 1L << index;
+    }
+
+    static void clear(long[] bits, int offset, int index) {
+        bits[offset + (index >>> 6)] &= ~(1L << index);
+    }
+
+    static void or(long[] target, int targetOffset, long[] source, int sourceOffset, int words) {
+        for (int w = 0; w < words; w++) {
+            target[targetOffset + w] |= source[sourceOffset + w];
+        }
+    }
+
+    static boolean intersects(long[] a, int aOffset, long[] b, int bOffset, int words) {
+        for (int w = 0; w < words; w++) {
+            if ((a[aOffset + w] & b[bOffset + w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static int cardinality(long[] bits, int offset, int words) {
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(bits[offset + w]);
+        }
+        return count;
+    }
+}
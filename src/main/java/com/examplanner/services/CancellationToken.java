@@ -0,0 +1,19 @@
+package com.examplanner.services;
+
+/**
+ * Cooperative cancellation for a schedule generation. The search checks the
+ * token at every backtracking step and between attempts, and then returns the
+ * best schedule found so far.
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
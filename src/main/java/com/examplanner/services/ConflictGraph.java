@@ -0,0 +1,167 @@
+package com.examplanner.services;
+
+import java.util.Arrays;
+
+/**
+ * Course conflict graph of a {@link SchedulingProblem}.
+ *
+ * Two courses conflict when they share at least one student. For every course
+ * the graph keeps a bitset of conflicting courses plus the shared-student
+ * count per edge, so clash checks in the search are word-wise ANDs against
+ * the courses already placed on a day instead of walks over enrollments.
+ *
+ * For every edge (a, b) it also keeps a "pair block" bitset: the courses that
+ * share a student with both a and b at once. If a and b sit on the same day,
+ * those students already have two exams there, so every course in the pair
+ * block is ruled out of that day by the daily limit.
+ *
+ * Bitsets are flat {@code long[]} arrays, {@link #getWordCount()} words per
+ * course. Instances are immutable after construction.
+ */
+public final class ConflictGraph {
+
+    private final int courseCount;
+    private final int words;
+
+    // course * words -> bitset of conflicting courses
+    private final long[] neighbourBits;
+
+    // CSR adjacency, neighbours sorted ascending, with shared-student counts
+    private final int[] neighbourOffsets;
+    private final int[] neighbours;
+    private final int[] sharedCounts;
+
+    // edge index * words -> courses sharing a student with both endpoints
+    private final long[] pairBlocks;
+
+    public ConflictGraph(SchedulingProblem problem) {
+        this.courseCount = problem.getCourseCount();
+        this.words = Bits.wordCount(courseCount);
+        this.neighbourBits = new long[courseCount * words];
+
+        int[] courseOffsets = problem.getCourseStudentOffsets();
+        int[] courseStudents = problem.getCourseStudents();
+        int[] studentOffsets = problem.getStudentCourseOffsets();
+        int[] studentCourses = problem.getStudentCourses();
+
+        // Shared-student counts, one course row at a time
+        int[] counts = new int[courseCount];
+        int[] touched = new int[courseCount];
+        int[][] rowIds = new int[courseCount][];
+        int[][] rowCounts = new int[courseCount][];
+        int edges = 0;
+        for (int c = 0; c < courseCount; c++) {
+            int touchedCount = 0;
+            for (int i = courseOffsets[c]; i < courseOffsets[c + 1]; i++) {
+                int student = courseStudents[i];
+                for (int j = studentOffsets[student]; j < studentOffsets[student + 1]; j++) {
+                    int other = studentCourses[j];
+                    if (other == c) {
+                        continue;
+                    }
+                    if (counts[other]++ == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                }
+            }
+            Arrays.sort(touched, 0, touchedCount);
+            rowIds[c] = Arrays.copyOf(touched, touchedCount);
+            rowCounts[c] = new int[touchedCount];
+            for (int i = 0; i < touchedCount; i++) {
+                int other = touched[i];
+                rowCounts[c][i] = counts[other];
+                counts[other] = 0;
+                Bits.set(neighbourBits, c * words, other);
+            }
+            edges += touchedCount;
+        }
+
+        this.neighbourOffsets = new int[courseCount + 1];
+        this.neighbours = new int[edges];
+        this.sharedCounts = new int[edges];
+        for (int c = 0; c < courseCount; c++) {
+            int offset = neighbourOffsets[c];
+            System.arraycopy(rowIds[c], 0, neighbours, offset, rowIds[c].length);
+            System.arraycopy(rowCounts[c], 0, sharedCounts, offset, rowCounts[c].length);
+            neighbourOffsets[c + 1] = offset + rowIds[c].length;
+        }
+
+        // Pair blocks: every student contributes its course set to each pair of its courses
+        this.pairBlocks = new long[edges * words];
+        long[] studentBits = new long[words];
+        for (int s = 0; s < problem.getStudentCount(); s++) {
+            int from = studentOffsets[s];
+            int to = studentOffsets[s + 1];
+            if (to - from < 2) {
+                continue;
+            }
+            Arrays.fill(studentBits, 0L);
+            for (int j = from; j < to; j++) {
+                Bits.set(studentBits, 0, studentCourses[j]);
+            }
+            for (int a = from; a < to; a++) {
+                for (int b = from; b < to; b++) {
+                    if (a == b) {
+                        continue;
+                    }
+                    int edge = edgeIndex(studentCourses[a], studentCourses[b]);
+                    Bits.or(pairBlocks, edge * words, studentBits, 0, words);
+                }
+            }
+        }
+    }
+
+    public int getCourseCount() {
+        return courseCount;
+    }
+
+    /** Number of 64-bit words in each course bitset. */
+    public int getWordCount() {
+        return words;
+    }
+
+    /** Flat neighbour bitsets, {@code course * words} per row. Read-only. */
+    public long[] getNeighbourBits() {
+        return neighbourBits;
+    }
+
+    /** Flat pair-block bitsets, {@code edgeIndex * words} per row. Read-only. */
+    public long[] getPairBlocks() {
+        return pairBlocks;
+    }
+
+    public boolean conflicts(int a, int b) {
+        return Bits.test(neighbourBits, a * words, b);
+    }
+
+    public int getDegree(int course) {
+        return neighbourOffsets[course + 1] - neighbourOffsets[course];
+    }
+
+    /** CSR offsets into {@link #getNeighbours()}; length is course count + 1. Read-only. */
+    public int[] getNeighbourOffsets() {
+        return neighbourOffsets;
+    }
+
+    /** Neighbour ids grouped by course, ascending within a course. Read-only. */
+    public int[] getNeighbours() {
+        return neighbours;
+    }
+
+    /** Shared-student counts aligned with {@link #getNeighbours()}. Read-only. */
+    public int[] getSharedCounts() {
+        return sharedCounts;
+    }
+
+    /** Number of students enrolled in both courses. */
+    public int getSharedStudents(int a, int b) {
+        int edge = edgeIndex(a, b);
+        return edge < 0 ? 0 : sharedCounts[edge];
+    }
+
+    /** Position of edge (a, b) in the CSR arrays, or -1 if they do not conflict. */
+    public int edgeIndex(int a, int b) {
+        int index = Arrays.binarySearch(neighbours, neighbourOffsets[a], neighbourOffsets[a + 1], b);
+        return index < 0 ? -1 : index;
+    }
+}
@@ -10,6 +10,7 @@ import com.examplanner.domain.Student;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -19,10 +20,32 @@ import java.text.MessageFormat;
 
 public class ConstraintChecker {
 
-    private static final LocalTime MIN_START_TIME = LocalTime.of(9, 0);
-    private static final LocalTime MAX_END_TIME = LocalTime.of(18, 30);
-    private long minGapMinutes = 180; // Default 180 mins (3 hours)
-    private int maxExamsPerDay = 2; // Default 2
+    private LocalTime minStartTime = SchedulingPolicy.DEFAULT.getDayStart();
+    private LocalTime maxEndTime = SchedulingPolicy.DEFAULT.getDayEnd();
+    private long minGapMinutes = SchedulingPolicy.DEFAULT.getMinGapMinutes(); // Default 180 mins (3 hours)
+    private int maxExamsPerDay = SchedulingPolicy.DEFAULT.getMaxExamsPerDay(); // Default 2
+
+    public ConstraintChecker() {
+    }
+
+    public ConstraintChecker(SchedulingPolicy policy) {
+        applyPolicy(policy);
+    }
+
+    /** Takes the time window, minimum gap and daily limit from a scheduling policy. */
+    public void setPolicy(SchedulingPolicy policy) {
+        applyPolicy(policy);
+    }
+
+    private void applyPolicy(SchedulingPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Scheduling policy cannot be null");
+        }
+        this.minStartTime = policy.getDayStart();
+        this.maxEndTime = policy.getDayEnd();
+        this.minGapMinutes = policy.getMinGapMinutes();
+        this.maxExamsPerDay = policy.getMaxExamsPerDay();
+    }
 
     public void setMinGapMinutes(long minGapMinutes) {
         this.minGapMinutes = minGapMinutes;
@@ -45,8 +68,8 @@ public class ConstraintChecker {
         if (studentCount > candidateExam.getClassroom().getCapacity())
             return false;
 
-        // Check Classroom availability
-        if (!isClassroomAvailable(candidateExam.getClassroom(), candidateExam.getSlot(), state.getExams()))
+        // Check Classroom availability through the state's room index
+        if (!isClassroomAvailable(candidateExam.getClassroom(), candidateExam.getSlot(), state))
             return false;
 
         // Student constraints
@@ -128,28 +151,71 @@ public class ConstraintChecker {
 
             // Check Gap
             for (Exam existing : studentExamsOnDay) {
-                long gap1 = Duration.between(existing.getSlot().getEndTime(), newExam.getSlot().getStartTime())
-                        .toMinutes();
-                long gap2 = Duration.between(newExam.getSlot().getEndTime(), existing.getSlot().getStartTime())
-                        .toMinutes();
+                // Duration.between(A, B) is positive if A < B; a negative gap means overlap or wrong order
+                String error = checkGap(existing, newExam, s, bundle);
+                if (error != null) {
+                    return error;
+                }
+            }
+        }
+
+        return null; // Valid
+    }
+
+    /**
+     * Indexed variant of {@link #checkManualMove(Exam, List, List, ResourceBundle)}
+     * for interactive edits: the same checks in the same order, with the same
+     * messages, but the room, student and enrollment lookups come from an
+     * index synced with the timetable. Exams of the moved course are ignored,
+     * as the list variant's callers do by filtering them out.
+     */
+    public String checkManualMove(Exam newExam, TimetableIndex index, ResourceBundle bundle) {
+        // 1. Time Window
+        if (!isWithinTimeWindow(newExam.getSlot())) {
+            return bundle.getString("validation.error.timeWindow");
+        }
 
-                // If gap is negative, it means overlap or wrong order.
-                // Duration.between(A, B) is positive if A < B.
+        String courseCode = newExam.getCourse().getCode();
+        LocalDate targetDate = newExam.getSlot().getDate();
 
-                if (existing.getSlot().overlaps(newExam.getSlot())) {
-                    return MessageFormat.format(bundle.getString("validation.error.conflict"),
-                            s.getName(), existing.getCourse().getCode());
-                }
+        // 2. Classroom Conflict: only exams in the same room that day
+        for (Exam other : index.getExamsForClassroomDate(newExam.getClassroom().getId(), targetDate)) {
+            if (other == newExam || other.getCourse().getCode().equals(courseCode))
+                continue;
+            if (other.getSlot().overlaps(newExam.getSlot())) {
+                return MessageFormat.format(bundle.getString("validation.error.occupied"),
+                        newExam.getClassroom().getName(), other.getCourse().getCode());
+            }
+        }
+
+        // 3. Student Constraints
+        List<Student> students = index.getStudentsForCourse(courseCode);
 
-                // if existing ends Before new starts: gap1 > 0
-                if (gap1 >= 0 && gap1 < minGapMinutes) {
-                    return MessageFormat.format(bundle.getString("validation.error.gapAfter"),
-                            gap1, s.getName(), existing.getCourse().getCode());
+        // Capacity
+        if (students.size() > newExam.getClassroom().getCapacity()) {
+            return MessageFormat.format(bundle.getString("validation.error.capacity"),
+                    students.size(), newExam.getClassroom().getCapacity());
+        }
+
+        for (Student s : students) {
+            List<Exam> studentExamsOnDay = new ArrayList<>();
+            for (Exam e : index.getExamsForStudentDate(s.getId(), targetDate)) {
+                if (!e.getCourse().getCode().equals(courseCode)) {
+                    studentExamsOnDay.add(e);
                 }
-                // if existing starts After new ends: gap2 > 0
-                if (gap2 >= 0 && gap2 < minGapMinutes) {
-                    return MessageFormat.format(bundle.getString("validation.error.gapBefore"),
-                            gap2, s.getName(), existing.getCourse().getCode());
+            }
+
+            // Check Max Exams
+            if (studentExamsOnDay.size() >= maxExamsPerDay) {
+                return MessageFormat.format(bundle.getString("validation.error.studentLimit"),
+                        s.getName(), studentExamsOnDay.size(), targetDate);
+            }
+
+            // Check Gap
+            for (Exam existing : studentExamsOnDay) {
+                String error = checkGap(existing, newExam, s, bundle);
+                if (error != null) {
+                    return error;
                 }
             }
         }
@@ -157,8 +223,32 @@ public class ConstraintChecker {
         return null; // Valid
     }
 
+    /** Overlap or too short a gap between a student's two exams on one day, as a message; null if fine. */
+    private String checkGap(Exam existing, Exam newExam, Student s, ResourceBundle bundle) {
+        long gap1 = Duration.between(existing.getSlot().getEndTime(), newExam.getSlot().getStartTime())
+                .toMinutes();
+        long gap2 = Duration.between(newExam.getSlot().getEndTime(), existing.getSlot().getStartTime())
+                .toMinutes();
+
+        if (existing.getSlot().overlaps(newExam.getSlot())) {
+            return MessageFormat.format(bundle.getString("validation.error.conflict"),
+                    s.getName(), existing.getCourse().getCode());
+        }
+        // if existing ends Before new starts: gap1 > 0
+        if (gap1 >= 0 && gap1 < minGapMinutes) {
+            return MessageFormat.format(bundle.getString("validation.error.gapAfter"),
+                    gap1, s.getName(), existing.getCourse().getCode());
+        }
+        // if existing starts After new ends: gap2 > 0
+        if (gap2 >= 0 && gap2 < minGapMinutes) {
+            return MessageFormat.format(bundle.getString("validation.error.gapBefore"),
+                    gap2, s.getName(), existing.getCourse().getCode());
+        }
+        return null;
+    }
+
     public boolean isWithinTimeWindow(ExamSlot slot) {
-        return !slot.getStartTime().isBefore(MIN_START_TIME) && !slot.getEndTime().isAfter(MAX_END_TIME);
+        return !slot.getStartTime().isBefore(minStartTime) && !slot.getEndTime().isAfter(maxEndTime);
     }
 
     public boolean fitsCapacity(Classroom classroom, Course course, Map<String, List<Student>> courseStudentsMap) {
@@ -177,11 +267,18 @@ public class ConstraintChecker {
         return true;
     }
 
+    /**
+     * Indexed variant of {@link #isClassroomAvailable(Classroom, ExamSlot, List)}:
+     * asks the state's room-day index instead of scanning every exam.
+     */
+    public boolean isClassroomAvailable(Classroom classroom, ExamSlot slot, ScheduleState state) {
+        return state.isClassroomAvailable(classroom.getId(), slot);
+    }
+
     public boolean violatesDailyLimit(Student student, ExamSlot slot, ScheduleState state) {
         // O(1) Lookup
         int count = state.getExamsCountForStudentDate(student.getId(), slot.getDate());
-        // If they already have 2, they can't have another (making it 3)
-        // Adjust limit here: if limit is 2 exams per day.
+        // If they already have the daily maximum (2 by default), they can't have another
         return count >= maxExamsPerDay;
     }
 
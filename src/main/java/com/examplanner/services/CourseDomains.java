@@ -0,0 +1,189 @@
+package com.examplanner.services;
+
+import java.util.Arrays;
+
+/**
+ * Live (day, slot) domains of every course for one backtracking attempt.
+ *
+ * The domain of a course holds the start positions {@code day * slotCount + slot}
+ * that the student rules still allow, one bitset row per course. Every
+ * placement prunes the rows of its unplaced neighbours in the
+ * {@link ConflictGraph}:
+ * - a day where a shared student now reaches the daily limit is cleared,
+ * - otherwise the starts that would overlap the placed exam or come closer
+ * than the minimum gap are cleared.
+ *
+ * Changed words are pushed on a trail, so {@link #undo} restores the previous
+ * domains without copying rows. Room availability is not part of the domain;
+ * callers check rooms when they try a position.
+ */
+final class CourseDomains {
+
+    private final SchedulingProblem problem;
+    private final ConflictGraph graph;
+    private final int slots;
+    private final int words;
+    private final int minGapMinutes;
+
+    // course * words -> allowed start positions
+    private final long[] bits;
+    private final int[] sizes;
+
+    // Undo trail of overwritten words, with a mark per propagate call
+    private int[] trailIndex;
+    private long[] trailValue;
+    private int trailSize;
+    private int[] marks;
+    private int markCount;
+
+    CourseDomains(SchedulingProblem problem, ConflictGraph graph, int days, int minGapMinutes) {
+        this.problem = problem;
+        this.graph = graph;
+        this.slots = problem.getSlotCount();
+        this.words = Bits.wordCount(days * slots);
+        this.minGapMinutes = minGapMinutes;
+
+        int courseCount = problem.getCourseCount();
+        this.bits = new long[courseCount * words];
+        this.sizes = new int[courseCount];
+        for (int course = 0; course < courseCount; course++) {
+            int starts = problem.getStartSlotCount(course);
+            for (int day = 0; day < days; day++) {
+                for (int slot = 0; slot < starts; slot++) {
+                    Bits.set(bits, course * words, day * slots + slot);
+                }
+            }
+            sizes[course] = days * starts;
+        }
+
+        this.trailIndex = new int[64];
+        this.trailValue = new long[64];
+        this.marks = new int[courseCount + 1];
+    }
+
+    int size(int course) {
+        return sizes[course];
+    }
+
+    boolean contains(int course, int day, int slot) {
+        return Bits.test(bits, course * words, day * slots + slot);
+    }
+
+    /** Domain rows, {@link #getWordCount()} words per course; read-only. */
+    long[] getBits() {
+        return bits;
+    }
+
+    int getWordCount() {
+        return words;
+    }
+
+    /** Allowed starts of {@code course} inside [first, last] on a day. */
+    int countRange(int course, int day, int first, int last) {
+        if (first > last) {
+            return 0;
+        }
+        int base = day * slots;
+        int count = 0;
+        for (int position = base + first; position <= base + last; position++) {
+            if (Bits.test(bits, course * words, position)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Prunes the neighbours of a course just placed in {@code state}. Always
+     * opens an undo mark, also when it fails.
+     *
+     * @return false if some unplaced neighbour has no start left
+     */
+    boolean propagate(IndexedScheduleState state, int course, int day, int slot) {
+        marks[markCount++] = trailSize;
+        int[] offsets = graph.getNeighbourOffsets();
+        int[] neighbours = graph.getNeighbours();
+
+        for (int i = offsets[course]; i < offsets[course + 1]; i++) {
+            int other = neighbours[i];
+            if (state.isPlaced(other)) {
+                continue;
+            }
+            if (state.exceedsDailyLimit(other, day)) {
+                clearRange(other, day * slots, day * slots + slots - 1);
+            } else {
+                int first = firstExcludedStart(problem, slot, other, minGapMinutes);
+                int last = lastExcludedStart(problem, course, slot, other, minGapMinutes);
+                if (first <= last) {
+                    clearRange(other, day * slots + first, day * slots + last);
+                }
+            }
+            if (sizes[other] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Reverts the last {@link #propagate} call. */
+    void undo() {
+        int mark = marks[--markCount];
+        while (trailSize > mark) {
+            trailSize--;
+            int index = trailIndex[trailSize];
+            long current = bits[index];
+            long previous = trailValue[trailSize];
+            sizes[index / words] += Long.bitCount(previous) - Long.bitCount(current);
+            bits[index] = previous;
+        }
+    }
+
+    private void clearRange(int course, int from, int to) {
+        int row = course * words;
+        for (int w = from >>> 6; w <= to >>> 6; w++) {
+            int low = Math.max(from, w << 6) & 63;
+            int high = Math.min(to, (w << 6) + 63) & 63;
+            long mask = (-1L >>> (63 - high)) & (-1L << low);
+            long old = bits[row + w];
+            long removed = old & mask;
+            if (removed != 0) {
+                push(row + w, old);
+                bits[row + w] = old & ~mask;
+                sizes[course] -= Long.bitCount(removed);
+            }
+        }
+    }
+
+    private void push(int index, long value) {
+        if (trailSize == trailIndex.length) {
+            trailIndex = Arrays.copyOf(trailIndex, trailSize * 2);
+            trailValue = Arrays.copyOf(trailValue, trailSize * 2);
+        }
+        trailIndex[trailSize] = index;
+        trailValue[trailSize] = value;
+        trailSize++;
+    }
+
+    /**
+     * First start slot of {@code other} ruled out on the same day by an exam
+     * starting at {@code slot}: {@code other} would end less than the minimum
+     * gap before it. Clipped to the valid starts.
+     */
+    static int firstExcludedStart(SchedulingProblem problem, int slot, int other, int minGapMinutes) {
+        int start = slot * problem.getSlotMinutes();
+        int first = Math.floorDiv(start - problem.getDuration(other) - minGapMinutes,
+                problem.getSlotMinutes()) + 1;
+        return Math.max(first, 0);
+    }
+
+    /**
+     * Last start slot of {@code other} ruled out on the same day by
+     * {@code course} starting at {@code slot}: {@code other} would start less
+     * than the minimum gap after it ends. Clipped to the valid starts.
+     */
+    static int lastExcludedStart(SchedulingProblem problem, int course, int slot, int other, int minGapMinutes) {
+        int end = slot * problem.getSlotMinutes() + problem.getDuration(course);
+        int last = Math.floorDiv(end + minGapMinutes - 1, problem.getSlotMinutes());
+        return Math.min(last, problem.getStartSlotCount(other) - 1);
+    }
+}
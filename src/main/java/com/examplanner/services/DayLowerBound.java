@@ -0,0 +1,265 @@
+package com.examplanner.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lower bounds on the number of exam days a problem needs.
+ *
+ * Three independent bounds are computed and the largest one is used:
+ * - student: a student with n exams, of which at most k fit into one day
+ * (daily limit, and the minimum gap within the exam window), needs
+ * ceil(n / k) days,
+ * - clique: courses that pairwise share a student must be pairwise apart by
+ * the minimum gap on the same day, so a clique of q courses of which at most
+ * k fit into one window needs ceil(q / k) days,
+ * - room-time: exam parts of at least size t only fit rooms of capacity t or
+ * more, so their slot cells must fit into those rooms' cells per day. Split
+ * courses may be packed into rooms of any sizes that add up, so their parts
+ * count with the smallest sizes any such packing can have.
+ *
+ * Every bound is valid on its own, so the search can start at {@link #getDays()}
+ * without losing the optimum.
+ */
+public class DayLowerBound {
+
+    /** Which bound decided the result. */
+    public enum Bound {
+        STUDENT, CLIQUE, ROOM_TIME
+    }
+
+    // Clique search starts from this many highest-degree courses
+    private static final int MAX_CLIQUE_STARTS = 256;
+
+    private final int studentDays;
+    private final int cliqueDays;
+    private final int roomTimeDays;
+    private final int[] clique;
+    private final int studentWitness;
+    private final int roomTimeThreshold;
+
+    private DayLowerBound(int studentDays, int studentWitness, int cliqueDays, int[] clique, int roomTimeDays,
+            int roomTimeThreshold) {
+        this.studentDays = studentDays;
+        this.studentWitness = studentWitness;
+        this.cliqueDays = cliqueDays;
+        this.clique = clique;
+        this.roomTimeDays = roomTimeDays;
+        this.roomTimeThreshold = roomTimeThreshold;
+    }
+
+    public static DayLowerBound compute(SchedulingProblem problem, ConflictGraph graph, int minGapMinutes,
+            int maxExamsPerDay) {
+        if (maxExamsPerDay <= 0) {
+            throw new IllegalArgumentException("Max exams per day must be positive, got: " + maxExamsPerDay);
+        }
+
+        // Per-student bound
+        int studentDays = 0;
+        int studentWitness = -1;
+        int[] offsets = problem.getStudentCourseOffsets();
+        int[] courses = problem.getStudentCourses();
+        for (int s = 0; s < problem.getStudentCount(); s++) {
+            int[] own = Arrays.copyOfRange(courses, offsets[s], offsets[s + 1]);
+            int perDay = Math.min(maxExamsPerDay, examsPerWindow(problem, own, minGapMinutes));
+            int days = ceilDiv(own.length, perDay);
+            if (days > studentDays) {
+                studentDays = days;
+                studentWitness = s;
+            }
+        }
+
+        // Clique bound
+        int[] clique = findClique(problem, graph, minGapMinutes);
+        int cliqueDays = clique.length == 0 ? 0
+                : ceilDiv(clique.length, examsPerWindow(problem, clique, minGapMinutes));
+
+        // Room-time bound per capacity class: parts of size >= t need rooms of capacity >= t
+        int partCount = problem.getPartCount();
+        long[] parts = new long[partCount];
+        int p = 0;
+        int maxCapacity = problem.getClassroomCount() == 0 ? 0 : problem.getCapacity(0);
+        for (int c = 0; c < problem.getCourseCount(); c++) {
+            int count = problem.getPartSizes(c).length;
+            for (int i = 0; i < count; i++) {
+                // size in the high half, slot cells in the low half
+                parts[p++] = ((long) minRoomSize(problem.getEnrollmentCount(c), count, i, maxCapacity) << 32)
+                        | problem.getSlotSpan(c);
+            }
+        }
+        Arrays.sort(parts);
+        int roomTimeDays = 0;
+        int roomTimeThreshold = 0;
+        int rooms = 0;
+        long cells = 0;
+        for (int i = partCount - 1; i >= 0; i--) {
+            int size = (int) (parts[i] >>> 32);
+            cells += (int) parts[i];
+            if (i > 0 && (int) (parts[i - 1] >>> 32) == size) {
+                continue; // finish the whole size class first
+            }
+            while (rooms < problem.getClassroomCount() && problem.getCapacity(rooms) >= size) {
+                rooms++;
+            }
+            if (rooms == 0) {
+                continue; // no room fits; the search reports this case
+            }
+            int days = (int) ((cells + (long) rooms * problem.getSlotCount() - 1)
+                    / ((long) rooms * problem.getSlotCount()));
+            if (days > roomTimeDays) {
+                roomTimeDays = days;
+                roomTimeThreshold = size;
+            }
+        }
+
+        return new DayLowerBound(studentDays, studentWitness, cliqueDays, clique, roomTimeDays, roomTimeThreshold);
+    }
+
+    /**
+     * Smallest possible capacity of the i-th largest of {@code count} rooms
+     * holding {@code enrolled} students: the i larger rooms hold at most
+     * {@code maxCapacity} each, and the rest at most as much as this one.
+     */
+    static int minRoomSize(int enrolled, int count, int i, int maxCapacity) {
+        return Math.max(0, ceilDiv(enrolled - i * maxCapacity, count - i));
+    }
+
+    /** The combined bound, at least 1. */
+    public int getDays() {
+        return Math.max(1, Math.max(studentDays, Math.max(cliqueDays, roomTimeDays)));
+    }
+
+    public Bound getBindingBound() {
+        if (cliqueDays >= studentDays && cliqueDays >= roomTimeDays) {
+            return Bound.CLIQUE;
+        }
+        return studentDays >= roomTimeDays ? Bound.STUDENT : Bound.ROOM_TIME;
+    }
+
+    public int getStudentDays() {
+        return studentDays;
+    }
+
+    public int getCliqueDays() {
+        return cliqueDays;
+    }
+
+    public int getRoomTimeDays() {
+        return roomTimeDays;
+    }
+
+    /** Course ids of the clique behind the clique bound. */
+    public int[] getClique() {
+        return clique.clone();
+    }
+
+    /** Student id behind the student bound, -1 if there are no students. */
+    public int getStudentWitness() {
+        return studentWitness;
+    }
+
+    /** Smallest part size of the capacity class behind the room-time bound. */
+    public int getRoomTimeThreshold() {
+        return roomTimeThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return getDays() + " (binding: " + getBindingBound()
+                + ", student=" + studentDays
+                + ", clique=" + cliqueDays + " over " + clique.length + " courses"
+                + ", roomTime=" + roomTimeDays + " for parts >= " + roomTimeThreshold + ")";
+    }
+
+    /**
+     * Most courses of the set that fit into one day window pairwise separated
+     * by the minimum gap: the shortest ones, back to back. At least 1.
+     */
+    static int examsPerWindow(SchedulingProblem problem, int[] courses, int minGapMinutes) {
+        int[] durations = new int[courses.length];
+        for (int i = 0; i < courses.length; i++) {
+            durations[i] = problem.getDuration(courses[i]);
+        }
+        Arrays.sort(durations);
+        int window = problem.getPolicy().getWindowMinutes();
+        int used = 0;
+        int count = 0;
+        for (int duration : durations) {
+            int needed = count == 0 ? duration : minGapMinutes + duration;
+            if (used + needed > window) {
+                break;
+            }
+            used += needed;
+            count++;
+        }
+        return Math.max(1, count);
+    }
+
+    /**
+     * Greedy clique search: from each of the highest-degree courses, keep
+     * adding the candidate with the most neighbours among the remaining
+     * candidates. Returns the clique with the largest day bound.
+     */
+    private static int[] findClique(SchedulingProblem problem, ConflictGraph graph, int minGapMinutes) {
+        int courseCount = problem.getCourseCount();
+        int words = graph.getWordCount();
+        long[] neighbourBits = graph.getNeighbourBits();
+
+        Integer[] starts = new Integer[courseCount];
+        for (int c = 0; c < courseCount; c++) {
+            starts[c] = c;
+        }
+        Arrays.sort(starts, (a, b) -> graph.getDegree(b) - graph.getDegree(a));
+
+        int[] best = new int[0];
+        int bestDays = 0;
+        long[] candidates = new long[words];
+        List<Integer> members = new ArrayList<>();
+        for (int i = 0; i < Math.min(courseCount, MAX_CLIQUE_STARTS); i++) {
+            int start = starts[i];
+            if (graph.getDegree(start) + 1 <= best.length) {
+                break; // cannot beat the best clique any more
+            }
+            members.clear();
+            members.add(start);
+            System.arraycopy(neighbourBits, start * words, candidates, 0, words);
+
+            while (Bits.cardinality(candidates, 0, words) > 0) {
+                int pick = -1;
+                int pickScore = -1;
+                for (int w = 0; w < words; w++) {
+                    long word = candidates[w];
+                    while (word != 0) {
+                        int c = (w << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                        int score = 0;
+                        for (int x = 0; x < words; x++) {
+                            score += Long.bitCount(candidates[x] & neighbourBits[c * words + x]);
+                        }
+                        if (score > pickScore) {
+                            pick = c;
+                            pickScore = score;
+                        }
+                    }
+                }
+                members.add(pick);
+                for (int x = 0; x < words; x++) {
+                    candidates[x] &= neighbourBits[pick * words + x];
+                }
+            }
+
+            int[] clique = members.stream().mapToInt(Integer::intValue).toArray();
+            int days = ceilDiv(clique.length, examsPerWindow(problem, clique, minGapMinutes));
+            if (days > bestDays || (days == bestDays && clique.length > best.length)) {
+                best = clique;
+                bestDays = days;
+            }
+        }
+        return best;
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+}
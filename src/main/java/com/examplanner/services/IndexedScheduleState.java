@@ -0,0 +1,510 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.Classroom;
+import com.examplanner.domain.Exam;
+import com.examplanner.domain.ExamSlot;
+import com.examplanner.domain.ExamTimetable;
+import com.examplanner.domain.Student;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Array-backed {@link ScheduleState} used by the search engine.
+ *
+ * Works on the dense ids of a {@link SchedulingProblem}:
+ * - exams per student and day in an {@code int[student * days]},
+ * - room occupancy as a {@code short[]} grid per room-day holding the
+ * occupying course id + 1 (0 when free), mirrored as bitsets in a
+ * {@link RoomOccupancyIndex} for constant-time availability, first-free-slot
+ * and free-room queries,
+ * - placed and limit-blocked courses per day as bitsets checked through the
+ * {@link ConflictGraph}. The blocked bitsets encode the default limit of two
+ * exams a day; other limits from the {@link SchedulingPolicy} are checked
+ * against the per-student counts instead.
+ *
+ * Every placement is pushed on an explicit undo trail, so
+ * {@link #place}/{@link #undo} and {@link #add}/{@link #removeLast} allocate
+ * nothing. The inherited query methods keep working, so
+ * {@link ConstraintChecker#checkAll} can validate candidates against it.
+ *
+ * Exams added through {@link #add(Exam)} must belong to the problem, start on
+ * the problem's slot grid and fall inside the date range. Parts of a split course
+ * share one slot and count once per student.
+ */
+public class IndexedScheduleState extends ScheduleState {
+
+    // Room cell value of a room taken out of use by blockRoom
+    private static final short BLOCKED = -1;
+
+    private final SchedulingProblem problem;
+    private final ConflictGraph graph;
+    private final int days;
+    private final int slots;
+    private final int words;
+
+    // student * days + day -> exams that day
+    private final int[] studentDayCounts;
+    // (room * days + day) * slots + slot -> occupying course + 1, 0 if free
+    private final short[] roomOccupancy;
+    private final RoomOccupancyIndex roomIndex;
+    // day * words -> courses placed that day / ruled out by the daily limit
+    private final long[] dayCourses;
+    private final long[] blockedCourses;
+
+    // course -> day / start slot (-1 while unplaced), placed parts and first exam record
+    private final int[] courseDay;
+    private final int[] courseSlot;
+    private final int[] coursePartsPlaced;
+    private final int[] courseFirstRecord;
+    private final int[] roomUsage;
+    private final int[] examsPerDay;
+
+    // Undo trail of course placements, with the day's blocked row before each
+    private final int[] courseTrail;
+    private final long[] blockedTrail;
+    private int courseTrailSize;
+
+    // Undo trail of exam records (one per placed part)
+    private int[] recordCourse;
+    private int[] recordRoom;
+    private Exam[] recordExam;
+    private int recordCount;
+
+    // Daily limit, and whether the pair-block bitsets track it (limit of two)
+    private final int maxExamsPerDay;
+    private final boolean pairBlocking;
+
+    public IndexedScheduleState(SchedulingProblem problem, ConflictGraph graph, int days) {
+        super(Collections.emptyMap());
+        if (days <= 0 || days > problem.getDayCount()) {
+            throw new IllegalArgumentException("Day count must be between 1 and " + problem.getDayCount()
+                    + ", got: " + days);
+        }
+        if (problem.getCourseCount() >= Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many courses for the room grid: " + problem.getCourseCount());
+        }
+        this.problem = problem;
+        this.graph = graph;
+        this.days = days;
+        this.slots = problem.getSlotCount();
+        this.words = graph.getWordCount();
+        this.maxExamsPerDay = problem.getPolicy().getMaxExamsPerDay();
+        this.pairBlocking = maxExamsPerDay == 2;
+
+        int courseCount = problem.getCourseCount();
+        int roomCount = problem.getClassroomCount();
+        this.studentDayCounts = new int[problem.getStudentCount() * days];
+        this.roomOccupancy = new short[roomCount * days * slots];
+        this.roomIndex = new RoomOccupancyIndex(roomCount, days, slots);
+        this.dayCourses = new long[days * words];
+        this.blockedCourses = new long[days * words];
+        this.courseDay = new int[courseCount];
+        this.courseSlot = new int[courseCount];
+        this.coursePartsPlaced = new int[courseCount];
+        this.courseFirstRecord = new int[courseCount];
+        Arrays.fill(courseDay, -1);
+        this.roomUsage = new int[roomCount];
+        this.examsPerDay = new int[days];
+        this.courseTrail = new int[courseCount];
+        this.blockedTrail = new long[courseCount * words];
+        int records = Math.max(1, problem.getPartCount());
+        this.recordCourse = new int[records];
+        this.recordRoom = new int[records];
+        this.recordExam = new Exam[records];
+    }
+
+    public SchedulingProblem getProblem() {
+        return problem;
+    }
+
+    public ConflictGraph getGraph() {
+        return graph;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    /** Day offset of a placed course, or -1 while it is unplaced. */
+    public int getCourseDay(int course) {
+        return courseDay[course];
+    }
+
+    public int getCourseSlot(int course) {
+        return courseSlot[course];
+    }
+
+    public boolean isPlaced(int course) {
+        return courseDay[course] >= 0;
+    }
+
+    public int getPlacedCourseCount() {
+        return courseTrailSize;
+    }
+
+    /** Copies the rooms of a placed course's parts into {@code rooms}; returns how many there are. */
+    public int getCourseRooms(int course, int[] rooms) {
+        int count = coursePartsPlaced[course];
+        System.arraycopy(recordRoom, courseFirstRecord[course], rooms, 0, count);
+        return count;
+    }
+
+    public int getRoomUsage(int room) {
+        return roomUsage[room];
+    }
+
+    /** Number of courses placed on a day (split courses count once). */
+    public int getExamsOnDay(int day) {
+        return examsPerDay[day];
+    }
+
+    /** Courses placed on a day as a bitset row; read-only. */
+    public long[] getDayCourses() {
+        return dayCourses;
+    }
+
+    // ---- Search API (dense ids) ----
+
+    /** True if some student of the course already has the maximum exams that day. */
+    public boolean exceedsDailyLimit(int course, int day) {
+        if (pairBlocking) {
+            return Bits.test(blockedCourses, day * words, course);
+        }
+        int[] offsets = problem.getCourseStudentOffsets();
+        int[] students = problem.getCourseStudents();
+        for (int i = offsets[course]; i < offsets[course + 1]; i++) {
+            if (studentDayCounts[students[i] * days + day] >= maxExamsPerDay) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True if the course can start at the slot without breaking the minimum gap
+     * (or overlapping) for any student. Only conflicting courses already placed
+     * on the same day are compared.
+     */
+    public boolean respectsMinimumGap(int course, int day, int slot, int minGapMinutes) {
+        int start = problem.slotStartMinutes(slot);
+        int end = start + problem.getDuration(course);
+        long[] neighbourBits = graph.getNeighbourBits();
+        int neighbourRow = course * words;
+        int dayRow = day * words;
+
+        for (int w = 0; w < words; w++) {
+            long clash = neighbourBits[neighbourRow + w] & dayCourses[dayRow + w];
+            while (clash != 0) {
+                int other = (w << 6) + Long.numberOfTrailingZeros(clash);
+                clash &= clash - 1;
+                int otherStart = problem.slotStartMinutes(courseSlot[other]);
+                int otherEnd = otherStart + problem.getDuration(other);
+                if (gapMinutes(otherStart, otherEnd, start, end) < minGapMinutes) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public boolean isRoomFree(int room, int day, int slot, int span) {
+        return roomIndex.isFree(room, day, slot, span);
+    }
+
+    /**
+     * First start slot in {@code [from, limit)} at which the room is free for
+     * {@code span} cells, or -1 if there is none that day.
+     */
+    public int firstFreeSlot(int room, int day, int span, int from, int limit) {
+        return roomIndex.firstFreeSlot(room, day, span, from, limit);
+    }
+
+    /**
+     * Rooms free for {@code span} cells from {@code slot}, as a bitset over
+     * room ids (largest room first) written into {@code free}, which must hold
+     * {@link #getRoomWordCount()} words.
+     *
+     * @return the number of free rooms
+     */
+    public int getFreeRooms(int day, int slot, int span, long[] free) {
+        return roomIndex.freeRooms(day, slot, span, free, 0);
+    }
+
+    public int getRoomWordCount() {
+        return roomIndex.getRoomWordCount();
+    }
+
+    /** Takes a room out of use for a whole day, e.g. during an outage. Not undone by {@link #undo}. */
+    public void blockRoom(int room, int day) {
+        int base = (room * days + day) * slots;
+        Arrays.fill(roomOccupancy, base, base + slots, BLOCKED);
+        roomIndex.occupyDay(room, day);
+    }
+
+    /** Places all parts of a course, part {@code p} in {@code rooms[p]}. */
+    public void place(int course, int day, int slot, int[] rooms, int roomCount) {
+        placeCourse(course, day, slot);
+        for (int p = 0; p < roomCount; p++) {
+            pushRecord(course, rooms[p], null);
+        }
+    }
+
+    /** Reverts the last {@link #place} call. */
+    public void undo() {
+        int course = courseTrail[courseTrailSize - 1];
+        while (coursePartsPlaced[course] > 0) {
+            popRecord();
+        }
+        unplaceCourse(course);
+    }
+
+    private void placeCourse(int course, int day, int slot) {
+        int[] offsets = problem.getCourseStudentOffsets();
+        int[] students = problem.getCourseStudents();
+        for (int i = offsets[course]; i < offsets[course + 1]; i++) {
+            studentDayCounts[students[i] * days + day]++;
+        }
+
+        // Students shared with a same-day neighbour now have two exams that day
+        int dayRow = day * words;
+        System.arraycopy(blockedCourses, dayRow, blockedTrail, courseTrailSize * words, words);
+        long[] neighbourBits = graph.getNeighbourBits();
+        long[] pairBlocks = graph.getPairBlocks();
+        for (int w = 0; w < words && pairBlocking; w++) {
+            long clash = neighbourBits[course * words + w] & dayCourses[dayRow + w];
+            while (clash != 0) {
+                int other = (w << 6) + Long.numberOfTrailingZeros(clash);
+                clash &= clash - 1;
+                Bits.or(blockedCourses, dayRow, pairBlocks, graph.edgeIndex(course, other) * words, words);
+            }
+        }
+        Bits.set(dayCourses, dayRow, course);
+
+        courseDay[course] = day;
+        courseSlot[course] = slot;
+        courseFirstRecord[course] = recordCount;
+        examsPerDay[day]++;
+        courseTrail[courseTrailSize++] = course;
+    }
+
+    private void unplaceCourse(int course) {
+        int day = courseDay[course];
+        int[] offsets = problem.getCourseStudentOffsets();
+        int[] students = problem.getCourseStudents();
+        for (int i = offsets[course]; i < offsets[course + 1]; i++) {
+            studentDayCounts[students[i] * days + day]--;
+        }
+        courseTrailSize--;
+        Bits.clear(dayCourses, day * words, course);
+        System.arraycopy(blockedTrail, courseTrailSize * words, blockedCourses, day * words, words);
+        courseDay[course] = -1;
+        examsPerDay[day]--;
+    }
+
+    private void pushRecord(int course, int room, Exam exam) {
+        if (recordCount == recordCourse.length) {
+            int size = recordCount * 2;
+            recordCourse = Arrays.copyOf(recordCourse, size);
+            recordRoom = Arrays.copyOf(recordRoom, size);
+            recordExam = Arrays.copyOf(recordExam, size);
+        }
+        int base = (room * days + courseDay[course]) * slots + courseSlot[course];
+        int span = problem.getSlotSpan(course);
+        for (int i = 0; i < span; i++) {
+            roomOccupancy[base + i] = (short) (course + 1);
+        }
+        roomIndex.occupy(room, courseDay[course], courseSlot[course], span);
+        roomUsage[room]++;
+        coursePartsPlaced[course]++;
+        recordCourse[recordCount] = course;
+        recordRoom[recordCount] = room;
+        recordExam[recordCount] = exam;
+        recordCount++;
+    }
+
+    private int popRecord() {
+        recordCount--;
+        int course = recordCourse[recordCount];
+        int room = recordRoom[recordCount];
+        recordExam[recordCount] = null;
+        int base = (room * days + courseDay[course]) * slots + courseSlot[course];
+        int span = problem.getSlotSpan(course);
+        for (int i = 0; i < span; i++) {
+            roomOccupancy[base + i] = 0;
+        }
+        roomIndex.release(room, courseDay[course], courseSlot[course], span);
+        roomUsage[room]--;
+        coursePartsPlaced[course]--;
+        return course;
+    }
+
+    // ---- ScheduleState API ----
+
+    @Override
+    public void add(Exam exam) {
+        int course = problem.courseIndex(exam.getCourse().getCode());
+        int room = problem.classroomIndex(exam.getClassroom().getId());
+        int day = problem.dayIndex(exam.getSlot().getDate());
+        int slot = problem.slotOf(exam.getSlot().getStartTime());
+        if (course < 0 || room < 0) {
+            throw new IllegalArgumentException("Exam is not part of this problem: " + exam);
+        }
+        if (day < 0 || day >= days || slot < 0 || slot >= slots) {
+            throw new IllegalArgumentException("Exam is outside the slot grid: " + exam);
+        }
+
+        if (courseDay[course] < 0) {
+            placeCourse(course, day, slot);
+        } else if (courseDay[course] != day || courseSlot[course] != slot) {
+            throw new IllegalArgumentException("Course " + exam.getCourse().getCode()
+                    + " is already placed in another slot");
+        }
+        pushRecord(course, room, exam);
+    }
+
+    @Override
+    public void removeLast() {
+        if (recordCount == 0) {
+            return;
+        }
+        int course = popRecord();
+        if (coursePartsPlaced[course] == 0) {
+            unplaceCourse(course);
+        }
+    }
+
+    /**
+     * Check if a classroom is available for the given slot (no time overlap).
+     * Looks only at the grid cells the slot covers and compares exact times
+     * with their occupants.
+     */
+    @Override
+    public boolean isClassroomAvailable(String classroomId, ExamSlot slot) {
+        int room = problem.classroomIndex(classroomId);
+        int day = problem.dayIndex(slot.getDate());
+        if (room < 0 || day < 0 || day >= days) {
+            return true;
+        }
+        int start = toMinutes(slot.getStartTime());
+        int end = toMinutes(slot.getEndTime());
+        int firstCell = problem.firstCell(start);
+        int lastCell = problem.endCell(end);
+        if (lastCell <= firstCell || roomIndex.isFree(room, day, firstCell, lastCell - firstCell)) {
+            return true;
+        }
+
+        // Occupied cells may hold exams that only share the cell, not the time
+        int base = (room * days + day) * slots;
+        for (int cell = firstCell; cell < lastCell; cell++) {
+            if (roomOccupancy[base + cell] == BLOCKED) {
+                return false;
+            }
+            int occupant = roomOccupancy[base + cell] - 1;
+            if (occupant < 0) {
+                continue;
+            }
+            int occupantStart = problem.slotStartMinutes(courseSlot[occupant]);
+            int occupantEnd = occupantStart + problem.getDuration(occupant);
+            if (start < occupantEnd && occupantStart < end) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Snapshot of the placed exams in placement order. */
+    @Override
+    public List<Exam> getExams() {
+        List<Exam> exams = new ArrayList<>(recordCount);
+        ExamSlot[] courseSlots = new ExamSlot[problem.getCourseCount()];
+        for (int r = 0; r < recordCount; r++) {
+            exams.add(examAt(r, courseSlots));
+        }
+        return exams;
+    }
+
+    @Override
+    public int getExamsCountForStudentDate(String studentId, LocalDate date) {
+        int student = problem.studentIndex(studentId);
+        int day = problem.dayIndex(date);
+        if (student < 0 || day < 0 || day >= days) {
+            return 0;
+        }
+        return studentDayCounts[student * days + day];
+    }
+
+    @Override
+    public List<Exam> getExamsForStudentDate(String studentId, LocalDate date) {
+        int student = problem.studentIndex(studentId);
+        int day = problem.dayIndex(date);
+        if (student < 0 || day < 0 || day >= days || studentDayCounts[student * days + day] == 0) {
+            return Collections.emptyList();
+        }
+        List<Exam> exams = new ArrayList<>(2);
+        int[] offsets = problem.getStudentCourseOffsets();
+        int[] courses = problem.getStudentCourses();
+        for (int i = offsets[student]; i < offsets[student + 1]; i++) {
+            int course = courses[i];
+            if (courseDay[course] == day) {
+                exams.add(examAt(courseFirstRecord[course], null));
+            }
+        }
+        return exams;
+    }
+
+    @Override
+    public List<Student> getStudentsForCourse(String courseCode) {
+        int course = problem.courseIndex(courseCode);
+        if (course < 0) {
+            return Collections.emptyList();
+        }
+        int[] offsets = problem.getCourseStudentOffsets();
+        int[] students = problem.getCourseStudents();
+        List<Student> result = new ArrayList<>(offsets[course + 1] - offsets[course]);
+        for (int i = offsets[course]; i < offsets[course + 1]; i++) {
+            result.add(problem.getStudent(students[i]));
+        }
+        return result;
+    }
+
+    /** Builds the timetable of everything placed so far. */
+    public ExamTimetable toTimetable() {
+        return new ExamTimetable(getExams(), problem.getEnrollments());
+    }
+
+    private Exam examAt(int record, ExamSlot[] courseSlots) {
+        if (recordExam[record] != null) {
+            return recordExam[record];
+        }
+        int course = recordCourse[record];
+        ExamSlot slot = courseSlots == null ? null : courseSlots[course];
+        if (slot == null) {
+            slot = problem.createSlot(course, courseDay[course], courseSlot[course]);
+            if (courseSlots != null) {
+                courseSlots[course] = slot;
+            }
+        }
+        Classroom classroom = problem.getClassroom(recordRoom[record]);
+        return new Exam(problem.getCourse(course), classroom, slot);
+    }
+
+    private static int toMinutes(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /** Gap between two same-day intervals in minutes; 0 if they overlap. */
+    static int gapMinutes(int start1, int end1, int start2, int end2) {
+        if (end1 <= start2) {
+            return start2 - end1;
+        } else if (end2 <= start1) {
+            return start1 - end2;
+        } else {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.Classroom;
+import com.examplanner.domain.Course;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Explains why no timetable fits into the given number of days, by small
+ * sets of courses and rooms that cannot be scheduled on their own.
+ *
+ * Every check is a closed-form count over the compiled problem and the
+ * {@link DayLowerBound} witnesses, so the diagnosis finishes in well under a
+ * second even where a single search probe would run into its timeout:
+ * - a course longer than the daily exam window,
+ * - a course larger than the rooms it can be split into,
+ * - a student with more exams than the days can take,
+ * - a clique of pairwise conflicting courses that need more days than given,
+ * - parts of at least some size that do not fit into the cells of the rooms
+ * large enough for them.
+ *
+ * Each core is trimmed to as few courses as still prove the shortfall. When
+ * no check applies the diagnosis is empty: the instance may still be
+ * infeasible, but only the search could tell.
+ */
+public final class InfeasibilityDiagnosis {
+
+    /** What a core runs out of. */
+    public enum Kind {
+        EXAM_TOO_LONG, ROOM_CAPACITY, STUDENT_LOAD, CONFLICT_CLIQUE, ROOM_TIME
+    }
+
+    /** A set of courses (and rooms) that alone needs more than the given days or seats. */
+    public static final class Core {
+        private final Kind kind;
+        private final List<Course> courses;
+        private final List<Classroom> classrooms;
+        private final int daysNeeded;
+        private final String description;
+
+        Core(Kind kind, List<Course> courses, List<Classroom> classrooms, int daysNeeded, String description) {
+            this.kind = kind;
+            this.courses = Collections.unmodifiableList(courses);
+            this.classrooms = Collections.unmodifiableList(classrooms);
+            this.daysNeeded = daysNeeded;
+            this.description = description;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public List<Course> getCourses() {
+            return courses;
+        }
+
+        /** Rooms involved in a capacity shortfall; empty for the other kinds. */
+        public List<Classroom> getClassrooms() {
+            return classrooms;
+        }
+
+        /** Days this core needs at least, or 0 if no number of days helps. */
+        public int getDaysNeeded() {
+            return daysNeeded;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public String toString() {
+            return kind + ": " + description;
+        }
+    }
+
+    // Courses listed by name in a description before the rest is summarized
+    private static final int LISTED_COURSES = 8;
+
+    private final int maxDays;
+    private final List<Core> cores;
+
+    private InfeasibilityDiagnosis(int maxDays, List<Core> cores) {
+        this.maxDays = maxDays;
+        this.cores = Collections.unmodifiableList(cores);
+    }
+
+    public static InfeasibilityDiagnosis analyze(SchedulingProblem problem, ConflictGraph graph, int minGapMinutes,
+            int maxExamsPerDay, int maxDays) {
+        return analyze(problem, DayLowerBound.compute(problem, graph, minGapMinutes, maxExamsPerDay),
+                minGapMinutes, maxExamsPerDay, maxDays);
+    }
+
+    static InfeasibilityDiagnosis analyze(SchedulingProblem problem, DayLowerBound bound, int minGapMinutes,
+            int maxExamsPerDay, int maxDays) {
+        if (maxDays <= 0) {
+            throw new IllegalArgumentException("Day count must be positive, got: " + maxDays);
+        }
+        List<Core> cores = new ArrayList<>();
+        findUnplaceableCourses(problem, cores);
+
+        // Student load: any maxDays * k + 1 of the student's exams are too many
+        if (bound.getStudentDays() > maxDays) {
+            int s = bound.getStudentWitness();
+            int[] offsets = problem.getStudentCourseOffsets();
+            int[] own = Arrays.copyOfRange(problem.getStudentCourses(), offsets[s], offsets[s + 1]);
+            int perDay = Math.min(maxExamsPerDay, DayLowerBound.examsPerWindow(problem, own, minGapMinutes));
+            List<Course> core = courses(problem, own, maxDays * perDay + 1);
+            cores.add(new Core(Kind.STUDENT_LOAD, core, List.of(), bound.getStudentDays(),
+                    "Student " + problem.getStudent(s).getId() + " takes " + own.length + " exams, at most "
+                            + perDay + " a day fit: " + names(core) + " need more than " + maxDays + " day(s)"));
+        }
+
+        // Clique: removing courses never fits more of the rest into one window
+        if (bound.getCliqueDays() > maxDays) {
+            int[] clique = bound.getClique();
+            int perDay = DayLowerBound.examsPerWindow(problem, clique, minGapMinutes);
+            List<Course> core = courses(problem, clique, maxDays * perDay + 1);
+            cores.add(new Core(Kind.CONFLICT_CLIQUE, core, List.of(), bound.getCliqueDays(),
+                    core.size() + " pairwise conflicting courses, at most " + perDay + " a day: " + names(core)
+                            + " need more than " + maxDays + " day(s)"));
+        }
+
+        if (bound.getRoomTimeDays() > maxDays) {
+            cores.add(roomTimeCore(problem, bound, maxDays));
+        }
+        return new InfeasibilityDiagnosis(maxDays, cores);
+    }
+
+    /** Courses that fit on no day at all: too long for the window or too large for the rooms. */
+    private static void findUnplaceableCourses(SchedulingProblem problem, List<Core> cores) {
+        int windowMinutes = problem.getPolicy().getWindowMinutes();
+        int roomCount = problem.getClassroomCount();
+        for (int c = 0; c < problem.getCourseCount(); c++) {
+            Course course = problem.getCourse(c);
+            if (problem.getStartSlotCount(c) == 0) {
+                cores.add(new Core(Kind.EXAM_TOO_LONG, List.of(course), List.of(), 0,
+                        course.getCode() + " lasts " + problem.getDuration(c) + " minutes, the exam window only "
+                                + windowMinutes));
+                continue;
+            }
+            int needed = problem.getPartSizes(c).length;
+            int enrolled = problem.getEnrollmentCount(c);
+            long seats = 0;
+            List<Classroom> largest = new ArrayList<>();
+            for (int room = 0; room < Math.min(needed, roomCount); room++) {
+                seats += problem.getCapacity(room);
+                largest.add(problem.getClassroom(room));
+            }
+            if (needed > roomCount || seats < enrolled) {
+                cores.add(new Core(Kind.ROOM_CAPACITY, List.of(course), largest, 0,
+                        course.getCode() + " has " + enrolled + " students in " + needed
+                                + " part(s), the largest " + largest.size() + " room(s) seat " + seats));
+            }
+        }
+    }
+
+    /** The largest parts that alone overfill the cells of the rooms they fit into. */
+    private static Core roomTimeCore(SchedulingProblem problem, DayLowerBound bound, int maxDays) {
+        int threshold = bound.getRoomTimeThreshold();
+        List<Classroom> rooms = new ArrayList<>();
+        for (int room = 0; room < problem.getClassroomCount() && problem.getCapacity(room) >= threshold; room++) {
+            rooms.add(problem.getClassroom(room));
+        }
+        long available = (long) rooms.size() * problem.getSlotCount() * maxDays;
+        int maxCapacity = problem.getCapacity(0);
+
+        // Largest first, so the core stops as soon as the cells run out
+        List<int[]> parts = new ArrayList<>();
+        for (int c = 0; c < problem.getCourseCount(); c++) {
+            int count = problem.getPartSizes(c).length;
+            int large = 0;
+            for (int i = 0; i < count; i++) {
+                if (DayLowerBound.minRoomSize(problem.getEnrollmentCount(c), count, i, maxCapacity) >= threshold) {
+                    large++;
+                }
+            }
+            if (large > 0) {
+                parts.add(new int[] { c, large * problem.getSlotSpan(c) });
+            }
+        }
+        parts.sort((a, b) -> b[1] - a[1]);
+        List<Course> core = new ArrayList<>();
+        long cells = 0;
+        for (int[] part : parts) {
+            core.add(problem.getCourse(part[0]));
+            cells += part[1];
+            if (cells > available) {
+                break;
+            }
+        }
+        return new Core(Kind.ROOM_TIME, core, rooms, bound.getRoomTimeDays(),
+                "Exam parts of " + threshold + "+ students (" + names(core) + ") need " + cells
+                        + " room slots, the " + rooms.size() + " room(s) of that size offer " + available
+                        + " in " + maxDays + " day(s)");
+    }
+
+    private static List<Course> courses(SchedulingProblem problem, int[] ids, int limit) {
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < Math.min(ids.length, limit); i++) {
+            courses.add(problem.getCourse(ids[i]));
+        }
+        return courses;
+    }
+
+    private static String names(List<Course> courses) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(courses.size(), LISTED_COURSES); i++) {
+            sb.append(i == 0 ? "" : ", ").append(courses.get(i).getCode());
+        }
+        if (courses.size() > LISTED_COURSES) {
+            sb.append(" and ").append(courses.size() - LISTED_COURSES).append(" more");
+        }
+        return sb.toString();
+    }
+
+    /** True if at least one core proves that the days do not suffice. */
+    public boolean isProven() {
+        return !cores.isEmpty();
+    }
+
+    public List<Core> getCores() {
+        return cores;
+    }
+
+    public int getMaxDays() {
+        return maxDays;
+    }
+
+    /**
+     * Fewest days every day-bound core allows, or -1 if a core cannot be
+     * fixed by adding days (or there are no cores).
+     */
+    public int getDaysNeeded() {
+        int days = -1;
+        for (Core core : cores) {
+            if (core.getDaysNeeded() == 0) {
+                return -1;
+            }
+            days = Math.max(days, core.getDaysNeeded());
+        }
+        return days;
+    }
+
+    /** Whether adding rooms (or seats) is the only remedy for some core. */
+    public boolean needsRooms() {
+        for (Core core : cores) {
+            if (core.getKind() == Kind.ROOM_CAPACITY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        if (cores.isEmpty()) {
+            return "No simple cause found for " + maxDays + " day(s); the search ran out of time or options.";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Core core : cores) {
+            sb.append(sb.length() == 0 ? "" : "\n").append("- ").append(core.getDescription());
+        }
+        int days = getDaysNeeded();
+        if (days > 0) {
+            sb.append("\nAt least ").append(days).append(" day(s) are needed.");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,22 @@
+package com.examplanner.services;
+
+/**
+ * Thrown when no timetable fits into the requested date range. Carries the
+ * {@link InfeasibilityDiagnosis} that tells whether more days or more rooms
+ * are needed; its summary is part of the message.
+ */
+public class InfeasibleScheduleException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient InfeasibilityDiagnosis diagnosis;
+
+    public InfeasibleScheduleException(String message, InfeasibilityDiagnosis diagnosis) {
+        super(message + "\n" + diagnosis);
+        this.diagnosis = diagnosis;
+    }
+
+    public InfeasibilityDiagnosis getDiagnosis() {
+        return diagnosis;
+    }
+}
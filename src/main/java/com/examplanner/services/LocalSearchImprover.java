@@ -0,0 +1,576 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.Classroom;
+import com.examplanner.domain.Exam;
+import com.examplanner.domain.ExamTimetable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Improves a feasible timetable by local search, keeping every hard rule
+ * satisfied and the day range unchanged.
+ *
+ * Objective (lower is better):
+ * - students sitting two (or more) exams on one day,
+ * - students with exams on two consecutive days (back-to-back pressure),
+ * - seats left empty in the assigned rooms (room over-provisioning).
+ *
+ * Neighbourhoods:
+ * - move one course to another (day, slot), with the cheapest free rooms,
+ * - swap the (day, slot) of two courses,
+ * - Kempe chain: swap two days for the connected group of conflicting
+ * courses on them, which keeps all student rules intact by construction.
+ *
+ * Moves are accepted by simulated annealing, with a short tabu tenure on the
+ * courses just moved. The state keeps per student-day exam counts and the
+ * objective terms up to date on every change, so a move costs time in the
+ * number of students of the courses it touches, not in the timetable size.
+ */
+public class LocalSearchImprover {
+
+    public static final int TWO_EXAMS_DAY_WEIGHT = 100;
+    public static final int CONSECUTIVE_DAYS_WEIGHT = 30;
+    public static final int WASTED_SEAT_WEIGHT = 1;
+
+    private static final double FINAL_TEMPERATURE = 0.5;
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    private final SchedulingProblem problem;
+    private final ConflictGraph graph;
+    private final int days;
+    private final int slots;
+    private final int words;
+    private final int minGapMinutes;
+    private final int maxExamsPerDay;
+    private final Random random;
+
+    // student * days + day -> exams that day
+    private final int[] studentDayCounts;
+    // (room * days + day) * slots + slot -> occupying course + 1, 0 if free
+    private final short[] roomOccupancy;
+    // day * words -> courses placed that day
+    private final long[] dayCourses;
+
+    // course -> day / start slot (-1 while removed), rooms of its parts at partOffsets[course] ..
+    private final int[] courseDay;
+    private final int[] courseSlot;
+    private int[] partOffsets;
+    private int[] partSizes;
+    private int[] partRooms;
+
+    // Objective terms
+    private long twoExamDays;
+    private long consecutiveDays;
+    private long wastedSeats;
+
+    // Room choice for a course being moved
+    private final RoomMatcher matcher;
+    private final int[] candidates;
+    private final int[] assigned;
+
+    private final int[] tabuUntil;
+    private final int[] queue;
+    private final boolean[] inChain;
+    private int[] savedRooms;
+
+    private long initialCost;
+    private long bestCost;
+    private long moveCount;
+    private long acceptedCount;
+
+    public LocalSearchImprover(SchedulingProblem problem, ConflictGraph graph, int minGapMinutes,
+            int maxExamsPerDay, long seed) {
+        if (problem.getCourseCount() >= Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many courses for the room grid: " + problem.getCourseCount());
+        }
+        this.problem = problem;
+        this.graph = graph;
+        this.days = problem.getDayCount();
+        this.slots = problem.getSlotCount();
+        this.words = graph.getWordCount();
+        this.minGapMinutes = minGapMinutes;
+        this.maxExamsPerDay = maxExamsPerDay;
+        this.random = new Random(seed);
+
+        int courseCount = problem.getCourseCount();
+        this.studentDayCounts = new int[problem.getStudentCount() * days];
+        this.roomOccupancy = new short[problem.getClassroomCount() * days * slots];
+        this.dayCourses = new long[days * words];
+        this.courseDay = new int[courseCount];
+        this.courseSlot = new int[courseCount];
+        this.matcher = new RoomMatcher(problem);
+        this.candidates = new int[problem.getClassroomCount()];
+        this.assigned = new int[problem.getClassroomCount()];
+        this.tabuUntil = new int[courseCount];
+        this.queue = new int[courseCount];
+        this.inChain = new boolean[courseCount];
+    }
+
+    /**
+     * Runs the search for about {@code timeBudgetMs} milliseconds and returns
+     * the best timetable found; the input is not modified.
+     *
+     * @throws IllegalArgumentException if an exam is not part of the problem or
+     *                                  does not start on the slot grid
+     */
+    public ExamTimetable improve(ExamTimetable timetable, long timeBudgetMs) {
+        load(timetable);
+        initialCost = cost();
+        bestCost = initialCost;
+        int[] bestDay = courseDay.clone();
+        int[] bestSlot = courseSlot.clone();
+        int[] bestRooms = partRooms.clone();
+
+        int courseCount = problem.getCourseCount();
+        int tenure = Math.max(1, Math.min(10, courseCount / 4));
+        double startTemperature = 2.0 * CONSECUTIVE_DAYS_WEIGHT;
+        long start = System.nanoTime();
+        long budgetNanos = Math.max(0, timeBudgetMs) * 1_000_000L;
+        double temperature = startTemperature;
+
+        for (int iteration = 0; courseCount > 0; iteration++) {
+            if (iteration % TIME_CHECK_INTERVAL == 0) {
+                long elapsed = System.nanoTime() - start;
+                if (elapsed >= budgetNanos) {
+                    break;
+                }
+                double progress = (double) elapsed / budgetNanos;
+                temperature = startTemperature * Math.pow(FINAL_TEMPERATURE / startTemperature, progress);
+            }
+
+            int course = random.nextInt(courseCount);
+            if (courseDay[course] < 0 || tabuUntil[course] > iteration) {
+                continue;
+            }
+            moveCount++;
+            int kind = random.nextInt(10);
+            boolean moved;
+            if (kind < 6) {
+                moved = tryMove(course, temperature);
+            } else if (kind < 8) {
+                moved = trySwap(course, random.nextInt(courseCount), temperature);
+            } else {
+                moved = tryKempe(course, random.nextInt(days), temperature);
+            }
+            if (!moved) {
+                continue;
+            }
+            acceptedCount++;
+            tabuUntil[course] = iteration + tenure;
+
+            long current = cost();
+            if (current < bestCost) {
+                bestCost = current;
+                System.arraycopy(courseDay, 0, bestDay, 0, courseCount);
+                System.arraycopy(courseSlot, 0, bestSlot, 0, courseCount);
+                System.arraycopy(partRooms, 0, bestRooms, 0, partRooms.length);
+            }
+        }
+
+        return toTimetable(timetable, bestDay, bestSlot, bestRooms);
+    }
+
+    public long getInitialCost() {
+        return initialCost;
+    }
+
+    public long getBestCost() {
+        return bestCost;
+    }
+
+    public long getMoveCount() {
+        return moveCount;
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount;
+    }
+
+    /** Current objective value. */
+    long cost() {
+        return TWO_EXAMS_DAY_WEIGHT * twoExamDays
+                + CONSECUTIVE_DAYS_WEIGHT * consecutiveDays
+                + WASTED_SEAT_WEIGHT * wastedSeats;
+    }
+
+    // ---- Neighbourhoods ----
+
+    private boolean tryMove(int course, double temperature) {
+        int day = random.nextInt(days);
+        int starts = problem.getStartSlotCount(course);
+        if (starts == 0) {
+            return false;
+        }
+        int slot = random.nextInt(starts);
+        long before = cost();
+        int oldDay = courseDay[course];
+        int oldSlot = courseSlot[course];
+        saveRooms(course);
+
+        remove(course);
+        if (!canPlace(course, day, slot) || !assignRooms(course, day, slot)) {
+            restore(course, oldDay, oldSlot);
+            return false;
+        }
+        place(course, day, slot);
+        if (accept(cost() - before, temperature)) {
+            return true;
+        }
+        remove(course);
+        restore(course, oldDay, oldSlot);
+        return false;
+    }
+
+    private boolean trySwap(int first, int second, double temperature) {
+        if (first == second || courseDay[second] < 0
+                || (courseDay[first] == courseDay[second] && courseSlot[first] == courseSlot[second])) {
+            return false;
+        }
+        int firstDay = courseDay[first];
+        int firstSlot = courseSlot[first];
+        int secondDay = courseDay[second];
+        int secondSlot = courseSlot[second];
+        if (firstSlot >= problem.getStartSlotCount(second) || secondSlot >= problem.getStartSlotCount(first)) {
+            return false;
+        }
+        long before = cost();
+        int[] firstRooms = copyRooms(first);
+        int[] secondRooms = copyRooms(second);
+
+        remove(first);
+        remove(second);
+        boolean placedFirst = false;
+        boolean placedSecond = false;
+        if (canPlace(first, secondDay, secondSlot) && assignRooms(first, secondDay, secondSlot)) {
+            place(first, secondDay, secondSlot);
+            placedFirst = true;
+            if (canPlace(second, firstDay, firstSlot) && assignRooms(second, firstDay, firstSlot)) {
+                place(second, firstDay, firstSlot);
+                placedSecond = true;
+            }
+        }
+        if (placedSecond && accept(cost() - before, temperature)) {
+            return true;
+        }
+
+        if (placedSecond) {
+            remove(second);
+        }
+        if (placedFirst) {
+            remove(first);
+        }
+        setRooms(first, firstRooms);
+        place(first, firstDay, firstSlot);
+        setRooms(second, secondRooms);
+        place(second, secondDay, secondSlot);
+        return false;
+    }
+
+    /**
+     * Swaps days {@code d1} (the course's day) and {@code d2} for the connected
+     * group of conflicting courses on those two days. Every student of the
+     * group has all of their exams on both days inside it, so gaps and daily
+     * counts are preserved; only rooms need checking.
+     */
+    private boolean tryKempe(int course, int otherDay, double temperature) {
+        int day = courseDay[course];
+        if (otherDay == day) {
+            return false;
+        }
+        int chainSize = collectChain(course, day, otherDay);
+        long before = cost();
+
+        int[] oldDays = new int[chainSize];
+        int[][] oldRooms = new int[chainSize][];
+        for (int i = 0; i < chainSize; i++) {
+            int member = queue[i];
+            oldDays[i] = courseDay[member];
+            oldRooms[i] = copyRooms(member);
+            remove(member);
+        }
+
+        int placed = 0;
+        for (; placed < chainSize; placed++) {
+            int member = queue[placed];
+            int target = oldDays[placed] == day ? otherDay : day;
+            int slot = courseSlot[member];
+            setRooms(member, oldRooms[placed]);
+            if (!roomsFree(member, target, slot) && !assignRooms(member, target, slot)) {
+                break;
+            }
+            place(member, target, slot);
+        }
+
+        boolean accepted = placed == chainSize && accept(cost() - before, temperature);
+        if (!accepted) {
+            for (int i = 0; i < placed; i++) {
+                remove(queue[i]);
+            }
+            for (int i = 0; i < chainSize; i++) {
+                int member = queue[i];
+                setRooms(member, oldRooms[i]);
+                place(member, oldDays[i], courseSlot[member]);
+            }
+        }
+        for (int i = 0; i < chainSize; i++) {
+            inChain[queue[i]] = false;
+        }
+        return accepted;
+    }
+
+    /** Breadth-first conflict component of a course over the courses on two days; fills {@link #queue}. */
+    private int collectChain(int course, int day, int otherDay) {
+        long[] neighbourBits = graph.getNeighbourBits();
+        int size = 0;
+        queue[size++] = course;
+        inChain[course] = true;
+        for (int head = 0; head < size; head++) {
+            int current = queue[head];
+            for (int w = 0; w < words; w++) {
+                long next = neighbourBits[current * words + w]
+                        & (dayCourses[day * words + w] | dayCourses[otherDay * words + w]);
+                while (next != 0) {
+                    int other = (w << 6) + Long.numberOfTrailingZeros(next);
+                    next &= next - 1;
+                    if (!inChain[other]) {
+                        inChain[other] = true;
+                        queue[size++] = other;
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    private boolean accept(long delta, double temperature) {
+        return delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature);
+    }
+
+    // ---- Incremental state ----
+
+    /** Student rules for placing a removed course: daily limit and minimum gap. */
+    private boolean canPlace(int course, int day, int slot) {
+        int[] offsets = problem.getCourseStudentOffsets();
+        int[] students = problem.getCourseStudents();
+        for (int i = offsets[course]; i < offsets[course + 1]; i++) {
+            if (studentDayCounts[students[i] * days + day] >= maxExamsPerDay) {
+                return false;
+            }
+        }
+
+        int start = problem.slotStartMinutes(slot);
+        int end = start + problem.getDuration(course);
+        long[] neighbourBits = graph.getNeighbourBits();
+        for (int w = 0; w < words; w++) {
+            long clash = neighbourBits[course * words + w] & dayCourses[day * words + w];
+            while (clash != 0) {
+                int other = (w << 6) + Long.numberOfTrailingZeros(clash);
+                clash &= clash - 1;
+                int otherStart = problem.slotStartMinutes(courseSlot[other]);
+                int otherEnd = otherStart + problem.getDuration(other);
+                if (IndexedScheduleState.gapMinutes(otherStart, otherEnd, start, end) < minGapMinutes) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Cheapest free rooms for the parts of a removed course; false if they cannot hold it. */
+    private boolean assignRooms(int course, int day, int slot) {
+        int span = problem.getSlotSpan(course);
+        int first = partOffsets[course];
+        int roomCount = partOffsets[course + 1] - first;
+        int enrolled = problem.getEnrollmentCount(course);
+        int smallest = roomCount == 1 ? enrolled : 0;
+        int count = 0;
+        for (int room = 0; room < problem.getClassroomCount() && problem.getCapacity(room) >= smallest; room++) {
+            if (isFree(room, day, slot, span)) {
+                candidates[count++] = room;
+            }
+        }
+        if (!matcher.assign(enrolled, roomCount, candidates, count, null, null, assigned)) {
+            return false;
+        }
+        System.arraycopy(assigned, 0, partRooms, first, roomCount);
+        return true;
+    }
+
+    private boolean roomsFree(int course, int day, int slot) {
+        int span = problem.getSlotSpan(course);
+        for (int p = partOffsets[course]; p < partOffsets[course + 1]; p++) {
+            if (!isFree(partRooms[p], day, slot, span)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isFree(int room, int day, int slot, int span) {
+        int base = (room * days + day) * slots + slot;
+        for (int i = 0; i < span; i++) {
+            if (roomOccupancy[base + i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Places a course with the rooms currently stored for its parts. */
+    private void place(int course, int day, int slot) {
+        int[] offsets = problem.getCourseStudentOffsets();
+        int[] students = problem.getCourseStudents();
+        for (int i = offsets[course]; i < offsets[course + 1]; i++) {
+            changeCount(students[i], day, 1);
+        }
+        Bits.set(dayCourses, day * words, course);
+        courseDay[course] = day;
+        courseSlot[course] = slot;
+
+        int span = problem.getSlotSpan(course);
+        for (int p = partOffsets[course]; p < partOffsets[course + 1]; p++) {
+            int base = (partRooms[p] * days + day) * slots + slot;
+            for (int i = 0; i < span; i++) {
+                roomOccupancy[base + i] = (short) (course + 1);
+            }
+            wastedSeats += problem.getCapacity(partRooms[p]) - partSizes[p];
+        }
+    }
+
+    private void remove(int course) {
+        int day = courseDay[course];
+        int slot = courseSlot[course];
+        int[] offsets = problem.getCourseStudentOffsets();
+        int[] students = problem.getCourseStudents();
+        for (int i = offsets[course]; i < offsets[course + 1]; i++) {
+            changeCount(students[i], day, -1);
+        }
+        Bits.clear(dayCourses, day * words, course);
+        courseDay[course] = -1;
+
+        int span = problem.getSlotSpan(course);
+        for (int p = partOffsets[course]; p < partOffsets[course + 1]; p++) {
+            int base = (partRooms[p] * days + day) * slots + slot;
+            for (int i = 0; i < span; i++) {
+                roomOccupancy[base + i] = 0;
+            }
+            wastedSeats -= problem.getCapacity(partRooms[p]) - partSizes[p];
+        }
+    }
+
+    /** Updates one student-day count and the objective terms that depend on it. */
+    private void changeCount(int student, int day, int change) {
+        int index = student * days + day;
+        int before = studentDayCounts[index];
+        int after = before + change;
+        studentDayCounts[index] = after;
+
+        twoExamDays += (after >= 2 ? 1 : 0) - (before >= 2 ? 1 : 0);
+        if ((before > 0) != (after > 0)) {
+            int neighbours = 0;
+            if (day > 0 && studentDayCounts[index - 1] > 0) {
+                neighbours++;
+            }
+            if (day + 1 < days && studentDayCounts[index + 1] > 0) {
+                neighbours++;
+            }
+            consecutiveDays += after > 0 ? neighbours : -neighbours;
+        }
+    }
+
+    private void saveRooms(int course) {
+        int count = partOffsets[course + 1] - partOffsets[course];
+        if (savedRooms == null || savedRooms.length < count) {
+            savedRooms = new int[Math.max(count, 4)];
+        }
+        System.arraycopy(partRooms, partOffsets[course], savedRooms, 0, count);
+    }
+
+    private void restore(int course, int day, int slot) {
+        System.arraycopy(savedRooms, 0, partRooms, partOffsets[course], partOffsets[course + 1] - partOffsets[course]);
+        place(course, day, slot);
+    }
+
+    private int[] copyRooms(int course) {
+        return Arrays.copyOfRange(partRooms, partOffsets[course], partOffsets[course + 1]);
+    }
+
+    private void setRooms(int course, int[] rooms) {
+        System.arraycopy(rooms, 0, partRooms, partOffsets[course], rooms.length);
+    }
+
+    // ---- Conversion ----
+
+    private void load(ExamTimetable timetable) {
+        int courseCount = problem.getCourseCount();
+        Arrays.fill(courseDay, -1);
+        Arrays.fill(studentDayCounts, 0);
+        Arrays.fill(roomOccupancy, (short) 0);
+        Arrays.fill(dayCourses, 0);
+        twoExamDays = 0;
+        consecutiveDays = 0;
+        wastedSeats = 0;
+
+        List<List<Exam>> examsByCourse = new ArrayList<>();
+        for (int c = 0; c < courseCount; c++) {
+            examsByCourse.add(new ArrayList<>());
+        }
+        for (Exam exam : timetable.getExams()) {
+            int course = problem.courseIndex(exam.getCourse().getCode());
+            if (course < 0 || exam.getClassroom() == null || exam.getSlot() == null) {
+                throw new IllegalArgumentException("Exam is not part of the problem: " + exam);
+            }
+            examsByCourse.get(course).add(exam);
+        }
+
+        // One part per exam; sizes split the enrolled students evenly over them
+        partOffsets = new int[courseCount + 1];
+        for (int c = 0; c < courseCount; c++) {
+            partOffsets[c + 1] = partOffsets[c] + examsByCourse.get(c).size();
+        }
+        partSizes = new int[partOffsets[courseCount]];
+        partRooms = new int[partOffsets[courseCount]];
+        for (int c = 0; c < courseCount; c++) {
+            int parts = examsByCourse.get(c).size();
+            if (parts == 0) {
+                continue;
+            }
+            int enrolled = problem.getEnrollmentCount(c);
+            for (int p = 0; p < parts; p++) {
+                partSizes[partOffsets[c] + p] = enrolled / parts + (p < enrolled % parts ? 1 : 0);
+            }
+            Exam first = examsByCourse.get(c).get(0);
+            int day = problem.dayIndex(first.getSlot().getDate());
+            int slot = problem.slotOf(first.getSlot().getStartTime());
+            if (day < 0 || slot < 0 || slot >= problem.getStartSlotCount(c)) {
+                throw new IllegalArgumentException("Exam is off the scheduling grid: " + first);
+            }
+            for (int p = 0; p < parts; p++) {
+                Exam exam = examsByCourse.get(c).get(p);
+                int room = problem.classroomIndex(exam.getClassroom().getId());
+                if (room < 0) {
+                    throw new IllegalArgumentException("Unknown classroom: " + exam.getClassroom().getId());
+                }
+                partRooms[partOffsets[c] + p] = room;
+            }
+            place(c, day, slot);
+        }
+    }
+
+    private ExamTimetable toTimetable(ExamTimetable original, int[] bestDay, int[] bestSlot, int[] bestRooms) {
+        List<Exam> exams = new ArrayList<>(bestRooms.length);
+        for (int c = 0; c < problem.getCourseCount(); c++) {
+            if (bestDay[c] < 0) {
+                continue;
+            }
+            for (int p = partOffsets[c]; p < partOffsets[c + 1]; p++) {
+                Classroom classroom = problem.getClassroom(bestRooms[p]);
+                exams.add(new Exam(problem.getCourse(c), classroom, problem.createSlot(c, bestDay[c], bestSlot[c])));
+            }
+        }
+        return new ExamTimetable(exams, original.getEnrollments());
+    }
+}
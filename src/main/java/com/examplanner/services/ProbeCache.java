@@ -0,0 +1,65 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.ExamTimetable;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * What one scheduling run has learned about day counts, shared by all of its
+ * probes and final attempts.
+ *
+ * - Solutions are keyed by the days they actually span. A timetable spanning
+ * k days is also a valid answer for every day count of k or more.
+ * - Infeasibility is only recorded when backtracking exhausted the search
+ * without hitting its timeout and covered every room choice. A day count
+ * proven infeasible rules out every smaller day count too, so one number is
+ * enough.
+ * - A search that was exhausted after heuristic room picks proves nothing.
+ * It only marks that one day count so backtracking is not repeated there;
+ * other searches (large neighbourhood search) may still succeed.
+ *
+ * Thread-safe; parallel probes read and write it concurrently.
+ */
+final class ProbeCache {
+
+    private final ConcurrentSkipListMap<Integer, ExamTimetable> solutions = new ConcurrentSkipListMap<>();
+    private final AtomicInteger provenInfeasible = new AtomicInteger(0);
+    private final Set<Integer> exhausted = ConcurrentHashMap.newKeySet();
+
+    void recordSolution(int spanDays, ExamTimetable timetable) {
+        solutions.putIfAbsent(spanDays, timetable);
+    }
+
+    /** A cached timetable spanning at most {@code days} days (the shortest one), or null. */
+    ExamTimetable findSolution(int days) {
+        Map.Entry<Integer, ExamTimetable> entry = solutions.firstEntry();
+        return entry != null && entry.getKey() <= days ? entry.getValue() : null;
+    }
+
+    /** Days spanned by the shortest cached timetable, or -1 if none. */
+    int getShortestSolutionDays() {
+        Map.Entry<Integer, ExamTimetable> entry = solutions.firstEntry();
+        return entry == null ? -1 : entry.getKey();
+    }
+
+    void recordInfeasible(int days) {
+        provenInfeasible.accumulateAndGet(days, Math::max);
+    }
+
+    boolean isProvenInfeasible(int days) {
+        return days <= provenInfeasible.get();
+    }
+
+    void recordExhausted(int days) {
+        exhausted.add(days);
+    }
+
+    /** Whether backtracking already ran out of options at exactly this day count. */
+    boolean isExhausted(int days) {
+        return exhausted.contains(days);
+    }
+}
@@ -0,0 +1,193 @@
+package com.examplanner.services;
+
+import java.util.Random;
+
+/**
+ * Assigns a course to free rooms once its (day, slot) is chosen, decoupled
+ * from the timing search.
+ *
+ * A course needs exactly as many rooms as {@link SchedulingProblem} split it
+ * into, but the part sizes are not fixed: any rooms whose capacities add up
+ * to the enrollment will do, so a 300-student course can sit in rooms of
+ * 120, 100 and 80 seats. The split is thereby revisited at every placement,
+ * against the rooms that are actually free there.
+ *
+ * - Feasibility is a Hall-type condition: k rooms can hold the course iff
+ * the k largest free rooms do. It is exact and stops at the first decisive
+ * room.
+ * - Among feasible room sets the cheapest is chosen: fewest empty seats,
+ * less used rooms on ties. Single-room courses are a linear scan; split
+ * courses run a branch and bound over the free rooms, smallest rooms first,
+ * with a node limit beyond which the best set found so far is kept.
+ * - Rooms of one capacity class are interchangeable, so the branch and
+ * bound only ever takes the cheapest unused room of a class and never
+ * enumerates permutations of same-size rooms.
+ *
+ * Not thread-safe; each attempt owns one matcher for its buffers.
+ */
+final class RoomMatcher {
+
+    // Usage only breaks ties between room sets that waste the same number of seats
+    static final int USAGE_SCALE = 1 << 16;
+    // Randomized attempts treat rooms up to this many extra seats as equally good
+    static final int RANDOM_SLACK_SEATS = 20;
+    // Branch-and-bound nodes per split course before settling for the best set so far
+    static final int PACK_NODE_LIMIT = 2048;
+
+    private final SchedulingProblem problem;
+    // Per call: candidates, cheapest first within a capacity class, with their
+    // capacity prefix sums and costs
+    private final int[] sorted;
+    private final long[] prefix;
+    private final long[] roomCost;
+    private final int[] chosen;
+    private final int[] best;
+    private long bestCost;
+    private int nodes;
+
+    RoomMatcher(SchedulingProblem problem) {
+        this.problem = problem;
+        int rooms = problem.getClassroomCount();
+        this.sorted = new int[rooms];
+        this.prefix = new long[rooms + 1];
+        this.roomCost = new long[rooms];
+        this.chosen = new int[rooms];
+        this.best = new int[rooms];
+    }
+
+    /**
+     * Whether the free rooms at (day, slot) can hold the course, scanning the
+     * rooms largest first and stopping as soon as the answer is known.
+     */
+    static boolean fits(SchedulingProblem problem, IndexedScheduleState state, int course, int day, int slot,
+            int span) {
+        int needed = problem.getPartSizes(course).length;
+        long remaining = problem.getEnrollmentCount(course);
+        for (int room = 0; room < problem.getClassroomCount(); room++) {
+            int capacity = problem.getCapacity(room);
+            if ((long) capacity * needed < remaining) {
+                return false; // rooms are sorted by capacity, the rest are smaller
+            }
+            if (state.isRoomFree(room, day, slot, span)) {
+                remaining -= capacity;
+                if (--needed == 0) {
+                    return remaining <= 0;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hall's condition for {@code roomCount} rooms out of the given free
+     * rooms, largest first: the largest ones must hold every student.
+     */
+    static boolean canHold(SchedulingProblem problem, int enrolled, int roomCount, int[] rooms, int count) {
+        if (count < roomCount) {
+            return false;
+        }
+        long capacity = 0;
+        for (int i = 0; i < roomCount; i++) {
+            capacity += problem.getCapacity(rooms[i]);
+        }
+        return capacity >= enrolled;
+    }
+
+    /**
+     * Writes the cheapest {@code roomCount} rooms for {@code enrolled}
+     * students into {@code assigned}; returns false if no such rooms exist.
+     *
+     * @param rooms  free rooms, largest first
+     * @param state  source of room usage counts, or null to ignore usage
+     * @param random jitters room costs by up to {@link #RANDOM_SLACK_SEATS}
+     *               seats for variety, or null for the exact optimum
+     */
+    boolean assign(int enrolled, int roomCount, int[] rooms, int count, IndexedScheduleState state, Random random,
+            int[] assigned) {
+        if (!canHold(problem, enrolled, roomCount, rooms, count)) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            int room = rooms[i];
+            long cost = (long) problem.getCapacity(room) * USAGE_SCALE;
+            if (random != null) {
+                cost += (long) random.nextInt(RANDOM_SLACK_SEATS + 1) * USAGE_SCALE;
+            }
+            if (state != null) {
+                cost += Math.min(state.getRoomUsage(room), USAGE_SCALE - 1);
+            }
+            // Insertion sort by cost, within the room's capacity class only
+            int j = i;
+            while (j > 0 && problem.getRoomClass(sorted[j - 1]) == problem.getRoomClass(room)
+                    && roomCost[j - 1] > cost) {
+                sorted[j] = sorted[j - 1];
+                roomCost[j] = roomCost[j - 1];
+                j--;
+            }
+            sorted[j] = room;
+            roomCost[j] = cost;
+            prefix[i + 1] = prefix[i] + problem.getCapacity(room);
+        }
+
+        if (roomCount == 1) {
+            int pick = -1;
+            for (int i = 0; i < count && problem.getCapacity(sorted[i]) >= enrolled; i++) {
+                if (pick < 0 || roomCost[i] < roomCost[pick]) {
+                    pick = i;
+                }
+            }
+            assigned[0] = sorted[pick];
+            return true;
+        }
+
+        // The largest rooms always hold the course; start from them and improve
+        bestCost = 0;
+        for (int i = 0; i < roomCount; i++) {
+            best[i] = i;
+            bestCost += roomCost[i];
+        }
+        nodes = 0;
+        pack(0, 0, roomCount, enrolled, 0, 0, count);
+        for (int i = 0; i < roomCount; i++) {
+            assigned[i] = sorted[best[i]];
+        }
+        return true;
+    }
+
+    /**
+     * Chooses the remaining {@code left} rooms from candidates {@code from}
+     * onwards. Candidates are largest first, so the rooms that still reach
+     * the enrollment form a prefix of them; the smallest such room is tried
+     * first. Only the first candidate of a capacity class from {@code from}
+     * on is branched on, the cheapest one of its class.
+     */
+    private void pack(int depth, int from, int left, int enrolled, long seats, long cost, int count) {
+        if (left == 0) {
+            if (seats >= enrolled && cost < bestCost) {
+                bestCost = cost;
+                System.arraycopy(chosen, 0, best, 0, depth);
+            }
+            return;
+        }
+        if (++nodes > PACK_NODE_LIMIT) {
+            return;
+        }
+        // Cheapest possible finish: the smallest remaining rooms
+        long lowest = cost + (prefix[count] - prefix[count - left]) * USAGE_SCALE;
+        if (lowest >= bestCost) {
+            return;
+        }
+        int last = from;
+        while (last + left <= count && seats + prefix[last + left] - prefix[last] >= enrolled) {
+            last++;
+        }
+        for (int i = last - 1; i >= from; i--) {
+            if (i > from && problem.getRoomClass(sorted[i - 1]) == problem.getRoomClass(sorted[i])) {
+                continue; // a cheaper room of the same size is still unused
+            }
+            chosen[depth] = i;
+            pack(depth + 1, i + 1, left - 1, enrolled, seats + prefix[i + 1] - prefix[i], cost + roomCost[i],
+                    count);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.examplanner.services;
+
+/**
+ * Occupied grid cells of every room, kept twice as bitsets so both kinds of
+ * room query are a few word operations:
+ * - per room-day, a row of slot bits: is the room free for [t1, t2), and
+ * where is its first free start for a given span,
+ * - per day-cell, a row of room bits: which rooms are free for [t1, t2),
+ * the OR of the rows the interval covers.
+ *
+ * Room ids are those of the {@link SchedulingProblem}, largest room first,
+ * so iterating a free-room bitset visits rooms by decreasing capacity.
+ *
+ * Not thread-safe; owned by one {@link IndexedScheduleState}.
+ */
+final class RoomOccupancyIndex {
+
+    private final int rooms;
+    private final int days;
+    private final int slots;
+    private final int slotWords;
+    private final int roomWords;
+    // (room * days + day) * slotWords -> occupied cells of the room that day
+    private final long[] roomDayCells;
+    // (day * slots + cell) * roomWords -> rooms occupied in that cell
+    private final long[] cellRooms;
+
+    RoomOccupancyIndex(int rooms, int days, int slots) {
+        this.rooms = rooms;
+        this.days = days;
+        this.slots = slots;
+        this.slotWords = Bits.wordCount(slots);
+        this.roomWords = Bits.wordCount(rooms);
+        this.roomDayCells = new long[rooms * days * slotWords];
+        this.cellRooms = new long[days * slots * roomWords];
+    }
+
+    int getRoomWordCount() {
+        return roomWords;
+    }
+
+    void occupy(int room, int day, int slot, int span) {
+        int row = (room * days + day) * slotWords;
+        for (int cell = slot; cell < slot + span; cell++) {
+            Bits.set(roomDayCells, row, cell);
+            Bits.set(cellRooms, (day * slots + cell) * roomWords, room);
+        }
+    }
+
+    void release(int room, int day, int slot, int span) {
+        int row = (room * days + day) * slotWords;
+        for (int cell = slot; cell < slot + span; cell++) {
+            Bits.clear(roomDayCells, row, cell);
+            Bits.clear(cellRooms, (day * slots + cell) * roomWords, room);
+        }
+    }
+
+    /** Marks every cell of the room-day occupied. */
+    void occupyDay(int room, int day) {
+        occupy(room, day, 0, slots);
+    }
+
+    /**
+     * Whether cells {@code slot .. slot + span - 1} of the room-day are all
+     * free; cells past the end of the grid count as free.
+     */
+    boolean isFree(int room, int day, int slot, int span) {
+        int row = (room * days + day) * slotWords;
+        int end = Math.min(slot + span, slots);
+        for (int w = slot >>> 6; w <= (end - 1) >>> 6; w++) {
+            if ((roomDayCells[row + w] & rangeMask(w, slot, end)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * First start in {@code [from, limit)} whose {@code span} cells all lie
+     * on the grid and are free, or -1. On grids of up to 64 cells a day this
+     * is a handful of shifts: the free runs of length span are the free bits
+     * ANDed with themselves shifted by 1, 2, 4, .. cells.
+     */
+    int firstFreeSlot(int room, int day, int span, int from, int limit) {
+        if (from >= limit) {
+            return -1;
+        }
+        int row = (room * days + day) * slotWords;
+        if (slotWords == 1) {
+            long free = ~roomDayCells[row] & (slots == 64 ? -1L : (1L << slots) - 1);
+            long runs = free;
+            int covered = 1;
+            while (covered < span) {
+                int shift = Math.min(covered, span - covered);
+                runs &= runs >>> shift;
+                covered += shift;
+            }
+            long starts = runs & (-1L << from) & (limit >= 64 ? -1L : (1L << limit) - 1);
+            return starts == 0 ? -1 : Long.numberOfTrailingZeros(starts);
+        }
+        for (int slot = from; slot < Math.min(limit, slots - span + 1); slot++) {
+            if (isFree(room, day, slot, span)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the rooms free in all cells {@code slot .. slot + span - 1} of
+     * the day into {@code free} (roomWords words from {@code offset}) and
+     * returns how many there are.
+     */
+    int freeRooms(int day, int slot, int span, long[] free, int offset) {
+        for (int w = 0; w < roomWords; w++) {
+            free[offset + w] = 0;
+        }
+        int end = Math.min(slot + span, slots);
+        for (int cell = slot; cell < end; cell++) {
+            Bits.or(free, offset, cellRooms, (day * slots + cell) * roomWords, roomWords);
+        }
+        int count = 0;
+        for (int w = 0; w < roomWords; w++) {
+            long valid = w < roomWords - 1 || (rooms & 63) == 0 ? -1L : (1L << rooms) - 1;
+            free[offset + w] = ~free[offset + w] & valid;
+            count += Long.bitCount(free[offset + w]);
+        }
+        return count;
+    }
+
+    /** Bits {@code from .. to - 1} that fall into word {@code w}. */
+    private static long rangeMask(int w, int from, int to) {
+        int low = Math.max(from - (w << 6), 0);
+        int high = Math.min(to - (w << 6), 64);
+        long upper = high == 64 ? -1L : (1L << high) - 1;
+        return upper & (-1L << low);
+    }
+}
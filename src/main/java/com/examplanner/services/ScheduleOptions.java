@@ -7,7 +7,9 @@ import java.util.ArrayList;
 /**
  * Holds multiple schedule options for user selection.
  * Contains the optimal schedule (minimum days) and alternative schedules
- * with more days for flexibility.
+ * that trade more days for fewer soft-constraint violations. Options from
+ * the scheduler form a Pareto front: none is better than another in every
+ * {@link ScheduleScore} objective.
  */
 public class ScheduleOptions {
 
@@ -22,7 +24,17 @@ public class ScheduleOptions {
     }
 
     public void addOption(int days, ExamTimetable schedule) {
-        allOptions.add(new ScheduleOption(days, schedule, days == optimalDays));
+        addOption(days, schedule, null);
+    }
+
+    public void addOption(int days, ExamTimetable schedule, ScheduleScore score) {
+        int variant = 1;
+        for (ScheduleOption option : allOptions) {
+            if (option.getDays() == days) {
+                variant++;
+            }
+        }
+        allOptions.add(new ScheduleOption(days, schedule, schedule == optimalSchedule, score, variant));
     }
 
     public int getOptimalDays() {
@@ -44,11 +56,24 @@ public class ScheduleOptions {
         private final int days;
         private final ExamTimetable schedule;
         private final boolean isOptimal;
+        private final ScheduleScore score;
+        private final int variant;
 
         public ScheduleOption(int days, ExamTimetable schedule, boolean isOptimal) {
+            this(days, schedule, isOptimal, null);
+        }
+
+        public ScheduleOption(int days, ExamTimetable schedule, boolean isOptimal, ScheduleScore score) {
+            this(days, schedule, isOptimal, score, 1);
+        }
+
+        public ScheduleOption(int days, ExamTimetable schedule, boolean isOptimal, ScheduleScore score,
+                int variant) {
             this.days = days;
             this.schedule = schedule;
             this.isOptimal = isOptimal;
+            this.score = score;
+            this.variant = variant;
         }
 
         public int getDays() {
@@ -63,12 +88,24 @@ public class ScheduleOptions {
             return isOptimal;
         }
 
+        /** Soft-constraint score, or null if the option was not scored. */
+        public ScheduleScore getScore() {
+            return score;
+        }
+
+        /** 1 for the first option of its day count, 2 for the next one, and so on. */
+        public int getVariant() {
+            return variant;
+        }
+
         @Override
         public String toString() {
+            String label = days + " gün" + (variant > 1 ? " #" + variant : "")
+                    + (score != null ? " (ceza " + score.getPenalty() + ")" : "");
             if (isOptimal) {
-                return days + " gün (Optimal ✓)";
+                return label + " (Optimal ✓)";
             }
-            return days + " gün";
+            return label;
         }
     }
 }
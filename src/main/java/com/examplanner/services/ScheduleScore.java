@@ -0,0 +1,148 @@
+package com.examplanner.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Soft-constraint measures of one timetable, computed by
+ * {@link TimetableScorer}. Lower is better for every objective except room
+ * utilization.
+ *
+ * Options are compared by Pareto dominance over four objectives: days,
+ * student-days with two or more exams, exams on consecutive days and the
+ * variance of the daily load. The weighted {@link #getPenalty()} uses the
+ * weights of {@link LocalSearchImprover} and only orders options that do not
+ * dominate each other.
+ */
+public class ScheduleScore {
+
+    private final int days;
+    private final int studentsWithTwoExamsDay;
+    private final int twoExamDays;
+    private final int consecutiveDays;
+    private final int[] gapHistogram;
+    private final int minGapMinutes;
+    private final double meanGapMinutes;
+    private final long seatedStudents;
+    private final long assignedSeats;
+    private final double loadVariance;
+
+    ScheduleScore(int days, int studentsWithTwoExamsDay, int twoExamDays, int consecutiveDays, int[] gapHistogram,
+            int minGapMinutes, double meanGapMinutes, long seatedStudents, long assignedSeats, double loadVariance) {
+        this.days = days;
+        this.studentsWithTwoExamsDay = studentsWithTwoExamsDay;
+        this.twoExamDays = twoExamDays;
+        this.consecutiveDays = consecutiveDays;
+        this.gapHistogram = gapHistogram;
+        this.minGapMinutes = minGapMinutes;
+        this.meanGapMinutes = meanGapMinutes;
+        this.seatedStudents = seatedStudents;
+        this.assignedSeats = assignedSeats;
+        this.loadVariance = loadVariance;
+    }
+
+    /** Days from the first day of the problem to the last exam, inclusive. */
+    public int getDays() {
+        return days;
+    }
+
+    /** Students with two or more exams on at least one day. */
+    public int getStudentsWithTwoExamsDay() {
+        return studentsWithTwoExamsDay;
+    }
+
+    /** Student-days with two or more exams. */
+    public int getTwoExamDays() {
+        return twoExamDays;
+    }
+
+    /** Student pairs of exam days that follow each other directly. */
+    public int getConsecutiveDays() {
+        return consecutiveDays;
+    }
+
+    /**
+     * Same-day gaps between a student's exams, by whole hours: index h counts
+     * the gaps of at least h and less than h + 1 hours, the last index all
+     * longer ones.
+     */
+    public int[] getGapHistogram() {
+        return gapHistogram.clone();
+    }
+
+    /** Shortest same-day gap of any student, -1 if nobody has two exams a day. */
+    public int getMinGapMinutes() {
+        return minGapMinutes;
+    }
+
+    /** Mean same-day gap, 0 if nobody has two exams a day. */
+    public double getMeanGapMinutes() {
+        return meanGapMinutes;
+    }
+
+    /** Share of the assigned room seats that students sit in, 0 .. 1. */
+    public double getRoomUtilization() {
+        return assignedSeats == 0 ? 0 : (double) seatedStudents / assignedSeats;
+    }
+
+    public long getWastedSeats() {
+        return assignedSeats - seatedStudents;
+    }
+
+    /** Variance of the number of students sitting an exam per day, over the days used. */
+    public double getLoadVariance() {
+        return loadVariance;
+    }
+
+    /** Weighted sum of the soft constraints, as minimised by the local search. */
+    public long getPenalty() {
+        return (long) LocalSearchImprover.TWO_EXAMS_DAY_WEIGHT * twoExamDays
+                + (long) LocalSearchImprover.CONSECUTIVE_DAYS_WEIGHT * consecutiveDays
+                + (long) LocalSearchImprover.WASTED_SEAT_WEIGHT * getWastedSeats();
+    }
+
+    /** True if this score is no worse in every objective and better in at least one. */
+    public boolean dominates(ScheduleScore other) {
+        boolean noWorse = days <= other.days
+                && twoExamDays <= other.twoExamDays
+                && consecutiveDays <= other.consecutiveDays
+                && loadVariance <= other.loadVariance;
+        boolean better = days < other.days
+                || twoExamDays < other.twoExamDays
+                || consecutiveDays < other.consecutiveDays
+                || loadVariance < other.loadVariance;
+        return noWorse && better;
+    }
+
+    /**
+     * Indexes of the scores that no other score dominates. Of several equal
+     * scores only the first is kept.
+     */
+    public static List<Integer> paretoFront(List<ScheduleScore> scores) {
+        List<Integer> front = new ArrayList<>();
+        for (int i = 0; i < scores.size(); i++) {
+            ScheduleScore score = scores.get(i);
+            boolean dominated = false;
+            for (int j = 0; j < scores.size() && !dominated; j++) {
+                ScheduleScore other = scores.get(j);
+                dominated = other.dominates(score) || (j < i && other.sameObjectives(score));
+            }
+            if (!dominated) {
+                front.add(i);
+            }
+        }
+        return front;
+    }
+
+    private boolean sameObjectives(ScheduleScore other) {
+        return days == other.days && twoExamDays == other.twoExamDays && consecutiveDays == other.consecutiveDays
+                && loadVariance == other.loadVariance;
+    }
+
+    @Override
+    public String toString() {
+        return days + " day(s), " + studentsWithTwoExamsDay + " student(s) with 2 exams a day, "
+                + consecutiveDays + " consecutive day(s), utilization "
+                + Math.round(getRoomUtilization() * 100) + "%, load variance " + Math.round(loadVariance);
+    }
+}
@@ -5,6 +5,7 @@ import com.examplanner.domain.ExamSlot;
 import com.examplanner.domain.Student;
 import com.examplanner.domain.Enrollment;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.*;
@@ -23,8 +24,10 @@ public class ScheduleState {
     // Index: StudentID -> Date -> Listen of Exams (for gap checks)
     private final Map<String, Map<LocalDate, List<Exam>>> studentDailyExams;
 
-    // Index: ClassroomID -> Date -> List of Exams (for classroom conflict checks)
-    private final Map<String, Map<LocalDate, List<Exam>>> classroomDailyExams;
+    // Index: ClassroomID -> Date -> exams by start time (for classroom conflict checks)
+    private final Map<String, Map<LocalDate, TreeMap<LocalTime, List<Exam>>>> classroomDailyExams;
+    // Longest exam ever added per classroom; bounds how far back an overlapping exam can start
+    private final Map<String, Long> classroomMaxMinutes;
 
     // Enrollment lookup (COURSE_CODE -> List<Student>)
     private final Map<String, List<Student>> courseStudentsMap;
@@ -34,6 +37,7 @@ public class ScheduleState {
         this.studentDailyCounts = new HashMap<>(); // Lazy init inner maps
         this.studentDailyExams = new HashMap<>();
         this.classroomDailyExams = new HashMap<>();
+        this.classroomMaxMinutes = new HashMap<>();
         this.courseStudentsMap = courseStudentsMap;
     }
 
@@ -64,12 +68,12 @@ public class ScheduleState {
 
         // 3. Update Classroom usage
         String classroomId = exam.getClassroom().getId();
-        classroomDailyExams.putIfAbsent(classroomId, new HashMap<>());
-        Map<LocalDate, List<Exam>> classroomExams = classroomDailyExams.get(classroomId);
-        if (!classroomExams.containsKey(date)) {
-            classroomExams.put(date, new ArrayList<>());
-        }
-        classroomExams.get(date).add(exam);
+        classroomDailyExams.computeIfAbsent(classroomId, k -> new HashMap<>())
+                .computeIfAbsent(date, k -> new TreeMap<>())
+                .computeIfAbsent(exam.getSlot().getStartTime(), k -> new ArrayList<>())
+                .add(exam);
+        long minutes = Duration.between(exam.getSlot().getStartTime(), exam.getSlot().getEndTime()).toMinutes();
+        classroomMaxMinutes.merge(classroomId, minutes, Math::max);
     }
 
     public void removeLast() {
@@ -108,36 +112,44 @@ public class ScheduleState {
 
         // 3. Revert Classroom usage
         String classroomId = exam.getClassroom().getId();
-        Map<LocalDate, List<Exam>> classroomExams = classroomDailyExams.get(classroomId);
-        if (classroomExams != null) {
-            List<Exam> list = classroomExams.get(date);
+        Map<LocalDate, TreeMap<LocalTime, List<Exam>>> classroomExams = classroomDailyExams.get(classroomId);
+        if (classroomExams != null && classroomExams.containsKey(date)) {
+            TreeMap<LocalTime, List<Exam>> byStart = classroomExams.get(date);
+            List<Exam> list = byStart.get(exam.getSlot().getStartTime());
             if (list != null && !list.isEmpty()) {
                 list.remove(list.size() - 1);
+                if (list.isEmpty()) {
+                    byStart.remove(exam.getSlot().getStartTime());
+                }
             }
         }
     }
 
     /**
-     * Check if a classroom is available for the given slot (no time overlap)
+     * Check if a classroom is available for the given slot (no time overlap).
+     * Only exams starting before the slot ends, and at most the room's longest
+     * exam before the slot starts, can overlap it: one range lookup in the
+     * room-day's start-time index.
      */
     public boolean isClassroomAvailable(String classroomId, ExamSlot slot) {
-        Map<LocalDate, List<Exam>> dailyExams = classroomDailyExams.get(classroomId);
+        Map<LocalDate, TreeMap<LocalTime, List<Exam>>> dailyExams = classroomDailyExams.get(classroomId);
         if (dailyExams == null) return true;
-        
-        List<Exam> examsOnDate = dailyExams.get(slot.getDate());
+
+        TreeMap<LocalTime, List<Exam>> examsOnDate = dailyExams.get(slot.getDate());
         if (examsOnDate == null || examsOnDate.isEmpty()) return true;
-        
+
         LocalTime newStart = slot.getStartTime();
         LocalTime newEnd = slot.getEndTime();
-        
-        for (Exam existing : examsOnDate) {
-            LocalTime existingStart = existing.getSlot().getStartTime();
-            LocalTime existingEnd = existing.getSlot().getEndTime();
-            
-            // Check for time overlap
-            // Two intervals [a,b] and [c,d] overlap if a < d && c < b
-            if (newStart.isBefore(existingEnd) && existingStart.isBefore(newEnd)) {
-                return false; // Overlap detected
+        long longest = classroomMaxMinutes.getOrDefault(classroomId, 0L);
+        LocalTime earliest = newStart.minusMinutes(longest).isAfter(newStart) ? LocalTime.MIN
+                : newStart.minusMinutes(longest);
+
+        for (List<Exam> exams : examsOnDate.subMap(earliest, true, newEnd, false).values()) {
+            for (Exam existing : exams) {
+                // Two intervals [a,b] and [c,d] overlap if a < d && c < b
+                if (newStart.isBefore(existing.getSlot().getEndTime())) {
+                    return false; // Overlap detected
+                }
             }
         }
         return true;
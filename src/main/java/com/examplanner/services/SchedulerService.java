@@ -4,14 +4,11 @@ import com.examplanner.domain.Classroom;
 import com.examplanner.domain.Course;
 import com.examplanner.domain.Enrollment;
 import com.examplanner.domain.Exam;
-import com.examplanner.domain.ExamSlot;
 import com.examplanner.domain.ExamTimetable;
-import com.examplanner.domain.Student;
 
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -19,18 +16,27 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Exam Scheduler Algorithm with Backtracking
- * 
+ *
  * Kurallar (hepsi zorunlu):
  * 1) Bir öğrenci aynı anda iki sınava giremez.
  * 2) Bir öğrenci aynı gün en fazla 2 sınava girsin.
  * 3) Bir öğrenci aynı gün girdiği sınavlar arasında en az 3 saat boşluk olmalı.
  * 4) Sınıf kapasitesi öğrenci sayısını karşılamalı.
  * 5) Aynı sınıf aynı gün ve zaman diliminde iki sınava verilemez.
- * 
+ *
  * Yöntem:
  * - Çok kalabalık dersleri, en büyük sınıf kapasitesine sığacak şekilde dengeli
  * parçalara böl.
@@ -40,26 +46,73 @@ import java.util.stream.Collectors;
  * - Eğer bir ders bölündüyse: ilk parçanın yerleştiği gün/slot'u kilitle; diğer
  * parçalar da aynı gün/slot'ta yerleşmeli.
  * - Backtracking ile daha iyi çözümler bul.
+ *
+ * All search variants run on a {@link SchedulingProblem} compiled once per
+ * call, so the inner loops only touch int ids and flat arrays.
+ *
+ * Per-run state lives in a {@link SchedulingContext} passed through the
+ * attempts, so one instance can run several schedules concurrently; the
+ * setters only affect runs started afterwards.
  */
 public class SchedulerService {
 
-    private ConstraintChecker constraintChecker;
-    private Random random;
-    private boolean useRandomization = true;
+    // LNS: courses freed around an unplaced course at first, and the share of the timeout one repair may use
+    private static final int LNS_MIN_DESTROY = 4;
+    private static final int LNS_REPAIR_DIVISOR = 50;
 
-    // Pre-computed data structures for fast lookups
-    private Map<String, List<Student>> courseStudentsMap;
-    private Map<String, Integer> enrollmentCounts;
-    private Map<String, Set<String>> studentCoursesMap;
+    // Restarts: backtracking nodes of the shortest run, scaled by the Luby sequence
+    private static final long RESTART_UNIT_NODES = 256;
 
-    // Cached adaptive timeout (calculated based on data size)
-    private long cachedTimeoutMs = 5000;
+    // Progress events are sent at least this often while probes run
+    private static final long PROGRESS_INTERVAL_MS = 250;
+
+    // Options: extra days beyond the optimum, and randomized spread schedules per day count
+    private static final int MAX_EXTRA_DAYS = 4;
+    private static final int SPREAD_VARIANTS = 2;
+
+    private volatile Random random;
+    // Time window, slot grid, minimum gap and daily limit for new runs
+    private volatile SchedulingPolicy policy = SchedulingPolicy.DEFAULT;
+    private volatile boolean useRandomization = true;
+
+    // Backtracking picks the most constrained course next instead of the fixed size order
+    private volatile boolean dynamicOrdering = true;
+
+    // Destroy-and-repair search when backtracking times out at a day count
+    private volatile boolean largeNeighbourhoodSearch = true;
+
+    // Restarts for the final schedule run concurrently, one per worker thread
+    private volatile boolean parallelRestarts = true;
+
+    // Number of tasks (day-count probes, option attempts) run concurrently
+    private volatile int parallelism = Runtime.getRuntime().availableProcessors();
 
     public SchedulerService() {
-        this.constraintChecker = new ConstraintChecker();
         this.random = new Random();
     }
 
+    public SchedulingPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Sets the timing rules for later runs, e.g. a 60 or 90-minute grid for
+     * large problems to cut the number of start times per day.
+     */
+    public void setPolicy(SchedulingPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Scheduling policy cannot be null");
+        }
+        this.policy = policy;
+    }
+
+    /**
+     * Randomizes the alternative schedules of {@link #generateTimetableWithOptions}
+     * and the searches that back up greedy placement (restarted backtracking,
+     * large neighbourhood search). The schedule {@link #generateTimetable}
+     * returns is the one the day search built for the optimum, so it only
+     * changes with the seed when greedy placement alone did not find it.
+     */
     public void setUseRandomization(boolean useRandomization) {
         this.useRandomization = useRandomization;
     }
@@ -68,6 +121,25 @@ public class SchedulerService {
         this.random = new Random(seed);
     }
 
+    public void setDynamicOrdering(boolean dynamicOrdering) {
+        this.dynamicOrdering = dynamicOrdering;
+    }
+
+    public void setLargeNeighbourhoodSearch(boolean largeNeighbourhoodSearch) {
+        this.largeNeighbourhoodSearch = largeNeighbourhoodSearch;
+    }
+
+    public void setParallelRestarts(boolean parallelRestarts) {
+        this.parallelRestarts = parallelRestarts;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive, got: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
     public ExamTimetable generateTimetable(List<Course> courses, List<Classroom> classrooms,
             List<Enrollment> enrollments, LocalDate startDate) {
         if (startDate == null) {
@@ -78,6 +150,19 @@ public class SchedulerService {
 
     public ExamTimetable generateTimetable(List<Course> courses, List<Classroom> classrooms,
             List<Enrollment> enrollments, LocalDate startDate, LocalDate endDate) {
+        return generateTimetable(courses, classrooms, enrollments, startDate, endDate, null, null);
+    }
+
+    /**
+     * Anytime variant: reports progress to {@code listener} (may be null) and
+     * stops when {@code token} (may be null) is cancelled, returning the best
+     * schedule found so far, which may span more days than the optimum.
+     *
+     * @throws CancellationException if cancelled before any schedule was found
+     */
+    public ExamTimetable generateTimetable(List<Course> courses, List<Classroom> classrooms,
+            List<Enrollment> enrollments, LocalDate startDate, LocalDate endDate,
+            SchedulingProgressListener listener, CancellationToken token) {
 
         validateInputs(courses, classrooms, enrollments, startDate, endDate);
 
@@ -94,115 +179,96 @@ public class SchedulerService {
         System.out.println("Courses to schedule: " + courses.size());
         System.out.println("Available classrooms: " + classrooms.size());
         System.out.println("Total enrollments: " + enrollments.size());
-        System.out.println("Randomization: " + (useRandomization ? "ON" : "OFF"));
-
-        // Bir öğrencinin aynı gün girdiği sınavlar arasında en az 3 saat boşluk olmalı
-        constraintChecker.setMinGapMinutes(180);
-        constraintChecker.setMaxExamsPerDay(2);
-
-        buildLookupMaps(enrollments);
-
-        List<Classroom> sortedClassrooms = classrooms.stream()
-                .sorted(Comparator.comparingInt(Classroom::getCapacity).reversed())
-                .collect(Collectors.toList());
-
-        int maxClassroomCapacity = sortedClassrooms.isEmpty() ? 0 : sortedClassrooms.get(0).getCapacity();
-        System.out.println("Max classroom capacity: " + maxClassroomCapacity);
-
-        List<LocalTime> timeSlots = generateTimeSlots();
-        System.out.println("Time slots available: " + timeSlots.size() + " slots");
-
-        List<ExamPart> examParts = createExamParts(courses, maxClassroomCapacity);
-        System.out.println("Total exam parts after splitting: " + examParts.size());
-
-        // Save original randomization setting
-        boolean originalRandomization = useRandomization;
-
-        // Binary search must be deterministic to find true optimal
-        useRandomization = false;
-
-        int minDaysNeeded = calculateMinDaysNeeded(examParts, classrooms);
-        int low = Math.max(1, minDaysNeeded);
+        boolean randomized = useRandomization;
+        System.out.println("Randomization: " + (randomized ? "ON" : "OFF"));
+
+        SchedulingContext context = createContext(courses, classrooms, enrollments, startDate, maxDays, randomized,
+                listener, token);
+        SchedulingProblem problem = context.getProblem();
+
+        System.out.println("Max classroom capacity: " + problem.getMaxClassroomCapacity());
+        System.out.println("Scheduling policy: " + problem.getPolicy());
+        System.out.println("Time slots available: " + problem.getSlotCount() + " slots");
+        System.out.println("Total exam parts after splitting: " + problem.getPartCount());
+        System.out.println("Room capacity classes: " + problem.getRoomClassCount() + " (of "
+                + problem.getClassroomCount() + " rooms)");
+
+        // Binary search between the lower bound and the date range
+        DayLowerBound bound = calculateMinDaysNeeded(context);
+        failIfProvenInfeasible(context, bound, maxDays);
+        int low = bound.getDays();
         int high = maxDays;
-        int optimalDays = -1;
 
         System.out.println("\nStarting binary search for optimal days (" + low + " - " + high + ")...");
 
-        while (low <= high) {
-            int mid = low + (high - low) / 2;
-            System.out.println("\n>>> Trying " + mid + " day(s)...");
-
-            // Try greedy first (much faster for most cases)
-            ExamTimetable result = attemptScheduleGreedy(mid, examParts, sortedClassrooms, timeSlots, enrollments,
-                    startDate);
-
-            // Fall back to backtracking only if greedy fails
-            if (result == null) {
-                System.out.println("    Greedy failed, trying backtracking...");
-                result = attemptScheduleBacktrack(mid, examParts, sortedClassrooms, timeSlots, enrollments, startDate);
-            }
+        int optimalDays = searchOptimalDays(context, low, high, true);
 
-            if (result != null) {
-                System.out.println(">>> SUCCESS with " + mid + " day(s)! Trying fewer...");
-                optimalDays = mid;
-                high = mid - 1;
-            } else {
-                System.out.println(">>> FAILED with " + mid + " day(s)! Need more...");
-                low = mid + 1;
-            }
+        if (context.isCancelled()) {
+            return bestSoFar(context);
         }
-
-        // Restore randomization for final schedule generation
-        useRandomization = originalRandomization;
-
         if (optimalDays == -1) {
-            throw new RuntimeException(
-                    "Could not find a valid schedule within " + maxDays + " days. " +
-                            "Constraints may be too tight. Try extending the date range.");
+            throw infeasible(context, bound, maxDays);
         }
 
         System.out.println("\n✓ OPTIMAL: " + optimalDays + " day(s)");
-        System.out.println("Generating final schedule with randomization: " + useRandomization);
+        reportProgress(context, SchedulingProgress.Phase.FINAL_SCHEDULE, optimalDays, optimalDays);
+
+        // The search already built a schedule for the optimum; greedy and backtracking are only a fallback
+        ExamTimetable bestResult = context.getCache().findSolution(optimalDays);
+        if (bestResult != null) {
+            System.out.println("  Reusing schedule found during the search");
+        } else {
+            bestResult = attemptScheduleGreedy(context, optimalDays);
+        }
 
-        // Generate final schedule - use greedy first
-        ExamTimetable bestResult = attemptScheduleGreedy(optimalDays, examParts, sortedClassrooms, timeSlots,
-                enrollments, startDate);
+        // Destroy and repair around the greedy result instead of restarting from scratch
+        if (bestResult == null && context.isLargeNeighbourhoodSearch()) {
+            System.out.println("  Greedy failed for final, trying large neighbourhood search...");
+            bestResult = attemptScheduleLns(context, optimalDays, context.newAttemptRandom(),
+                    new AtomicBoolean(false), context.getTimeoutMs());
+        }
 
-        // Fallback to backtracking if greedy fails
+        // Fallback to restarted backtracking if greedy fails
         if (bestResult == null) {
-            System.out.println("  Greedy failed for final, trying backtracking...");
-            int maxAttempts = useRandomization ? 3 : 1;
-            for (int attempt = 0; attempt < maxAttempts && bestResult == null; attempt++) {
-                if (attempt > 0) {
-                    System.out.println("  Retry attempt " + (attempt + 1) + "...");
-                }
-                bestResult = attemptScheduleBacktrack(optimalDays, examParts, sortedClassrooms, timeSlots, enrollments,
-                        startDate);
-            }
+            System.out.println("  Greedy failed for final, trying backtracking with restarts...");
+            int workers = context.isParallelRestarts() ? context.getParallelism() : 1;
+            bestResult = attemptScheduleRestarts(context, optimalDays, new AtomicBoolean(false), workers);
 
             // Last resort: deterministic backtracking
             if (bestResult == null) {
                 System.out.println("  Falling back to deterministic...");
-                useRandomization = false;
-                bestResult = attemptScheduleBacktrack(optimalDays, examParts, sortedClassrooms, timeSlots, enrollments,
-                        startDate);
-                useRandomization = originalRandomization;
+                bestResult = attemptScheduleBacktrack(context, optimalDays, null, new AtomicBoolean(false));
             }
         }
 
+        if (bestResult == null && context.isCancelled()) {
+            return bestSoFar(context);
+        }
         if (bestResult != null) {
             System.out.println("\n✓ OPTIMAL SCHEDULE FOUND: " + optimalDays + " day(s)");
             System.out.println("Total exams scheduled: " + bestResult.getExams().size());
+            reportProgress(context, SchedulingProgress.Phase.FINISHED, optimalDays, optimalDays);
             return bestResult;
         } else {
-            throw new RuntimeException(
-                    "Could not find a valid schedule within " + maxDays + " days. " +
-                            "Constraints may be too tight. Try extending the date range.");
+            throw infeasible(context, bound, maxDays);
         }
     }
 
     public ScheduleOptions generateTimetableWithOptions(List<Course> courses, List<Classroom> classrooms,
             List<Enrollment> enrollments, LocalDate startDate, LocalDate endDate) {
+        return generateTimetableWithOptions(courses, classrooms, enrollments, startDate, endDate, null, null);
+    }
+
+    /**
+     * Anytime variant of {@link #generateTimetableWithOptions}. When
+     * {@code token} is cancelled, returns the best schedule found so far as
+     * the only option.
+     *
+     * @throws CancellationException if cancelled before any schedule was found
+     */
+    public ScheduleOptions generateTimetableWithOptions(List<Course> courses, List<Classroom> classrooms,
+            List<Enrollment> enrollments, LocalDate startDate, LocalDate endDate,
+            SchedulingProgressListener listener, CancellationToken token) {
 
         validateInputs(courses, classrooms, enrollments, startDate, endDate);
 
@@ -217,691 +283,1407 @@ public class SchedulerService {
         System.out.println("\n=== GENERATING SCHEDULE OPTIONS ===");
         System.out.println("Date range: " + startDate + " to " + endDate + " (" + maxDays + " days)");
 
-        // Bir öğrencinin aynı gün girdiği sınavlar arasında en az 3 saat boşluk olmalı
-        constraintChecker.setMinGapMinutes(180);
-        constraintChecker.setMaxExamsPerDay(2);
-
-        buildLookupMaps(enrollments);
+        SchedulingContext context = createContext(courses, classrooms, enrollments, startDate, maxDays,
+                useRandomization, listener, token);
+        SchedulingProblem problem = context.getProblem();
 
-        List<Classroom> sortedClassrooms = classrooms.stream()
-                .sorted(Comparator.comparingInt(Classroom::getCapacity).reversed())
-                .collect(Collectors.toList());
-
-        int maxClassroomCapacity = sortedClassrooms.isEmpty() ? 0 : sortedClassrooms.get(0).getCapacity();
-        List<LocalTime> timeSlots = generateTimeSlots();
-        List<ExamPart> examParts = createExamParts(courses, maxClassroomCapacity);
-
-        boolean originalRandomization = useRandomization;
-        useRandomization = false;
-
-        int minDaysNeeded = calculateMinDaysNeeded(examParts, classrooms);
-        int low = Math.max(1, minDaysNeeded);
+        DayLowerBound bound = calculateMinDaysNeeded(context);
+        failIfProvenInfeasible(context, bound, maxDays);
+        int low = bound.getDays();
         int high = maxDays;
-        int optimalDays = -1;
 
         System.out.println("Finding optimal schedule (deterministic)...");
 
-        while (low <= high) {
-            int mid = low + (high - low) / 2;
+        int optimalDays = searchOptimalDays(context, low, high, false);
 
-            // Try greedy first (much faster)
-            ExamTimetable result = attemptScheduleGreedy(mid, examParts, sortedClassrooms, timeSlots, enrollments,
-                    startDate);
-
-            // Fall back to backtracking only if greedy fails
-            if (result == null) {
-                result = attemptScheduleBacktrack(mid, examParts, sortedClassrooms, timeSlots, enrollments, startDate);
-            }
-
-            if (result != null) {
-                optimalDays = mid;
-                high = mid - 1;
-            } else {
-                low = mid + 1;
-            }
+        if (context.isCancelled()) {
+            return bestOptionSoFar(context);
         }
-
-        useRandomization = originalRandomization;
-
         if (optimalDays == -1) {
-            throw new RuntimeException(
-                    "Could not find a valid schedule within " + maxDays + " days.");
+            throw infeasible(context, bound, maxDays);
         }
 
         System.out.println("\n✓ OPTIMAL: " + optimalDays + " day(s)");
+        reportProgress(context, SchedulingProgress.Phase.OPTIONS, optimalDays, optimalDays);
 
-        System.out.println("\nGenerating varied schedule for optimal days...");
+        System.out.println("\nGenerating varied schedule for optimal days and alternative schedules...");
+        List<ExamTimetable> candidates = generateOptionsBatch(context, optimalDays, maxDays);
 
-        // Try multiple times with randomization to find a valid schedule
-        ExamTimetable optimalSchedule = null;
-        int maxAttempts = useRandomization ? 5 : 1;
-        for (int attempt = 0; attempt < maxAttempts && optimalSchedule == null; attempt++) {
-            if (attempt > 0) {
-                System.out.println("  Retry attempt " + (attempt + 1) + "...");
-            }
-            optimalSchedule = attemptScheduleBacktrack(optimalDays, examParts, sortedClassrooms,
-                    timeSlots, enrollments, startDate);
-        }
-
-        // Fallback to deterministic if randomization failed
+        // Fallback to the search's own schedule, then to deterministic, if randomization failed
+        ExamTimetable optimalSchedule = candidates.get(0);
+        ExamTimetable searchSchedule = context.getCache().findSolution(optimalDays);
         if (optimalSchedule == null) {
+            optimalSchedule = searchSchedule;
+        } else if (searchSchedule != null) {
+            candidates.add(searchSchedule);
+        }
+        if (optimalSchedule == null && context.isLargeNeighbourhoodSearch()) {
+            optimalSchedule = attemptScheduleLns(context, optimalDays, context.newAttemptRandom(),
+                    new AtomicBoolean(false), context.getTimeoutMs());
+        }
+        if (optimalSchedule == null && !context.isCancelled()) {
             System.out.println("  Falling back to deterministic schedule...");
-            useRandomization = false;
-            optimalSchedule = attemptScheduleBacktrack(optimalDays, examParts, sortedClassrooms,
-                    timeSlots, enrollments, startDate);
-            useRandomization = originalRandomization;
+            optimalSchedule = attemptScheduleBacktrack(context, optimalDays, null, new AtomicBoolean(false));
+        }
+        if (optimalSchedule == null && context.isCancelled()) {
+            return bestOptionSoFar(context);
         }
 
-        ScheduleOptions options = new ScheduleOptions(optimalDays, optimalSchedule);
-        options.addOption(optimalDays, optimalSchedule);
-
-        System.out.println("\nGenerating alternative schedules...");
-        for (int extraDays = 1; extraDays <= 4; extraDays++) {
-            int altDays = optimalDays + extraDays;
-            if (altDays > maxDays) {
-                break;
-            }
+        if (optimalSchedule == null) {
+            throw infeasible(context, bound, maxDays);
+        }
+        candidates.set(0, optimalSchedule);
+        ScheduleOptions options = paretoOptions(problem, optimalDays, candidates);
 
-            ExamTimetable altSchedule = attemptScheduleSpread(altDays, examParts, sortedClassrooms,
-                    timeSlots, enrollments, startDate);
+        System.out.println("\n✓ Generated " + options.getAllOptions().size() + " schedule option(s) from "
+                + candidates.size() + " candidate(s)");
+        reportProgress(context, SchedulingProgress.Phase.FINISHED, optimalDays, optimalDays);
+        return options;
+    }
 
-            if (altSchedule != null) {
-                options.addOption(altDays, altSchedule);
-                System.out.println("  Generated " + altDays + "-day alternative");
-            }
+    /**
+     * Best schedule of a cancelled run: the shortest one any attempt found.
+     *
+     * @throws CancellationException if there is none
+     */
+    private ExamTimetable bestSoFar(SchedulingContext context) {
+        ProbeCache cache = context.getCache();
+        int bestDays = cache.getShortestSolutionDays();
+        reportProgress(context, SchedulingProgress.Phase.CANCELLED, bestDays, bestDays);
+        if (bestDays < 0) {
+            throw new CancellationException("Scheduling was cancelled before any schedule was found");
         }
+        System.out.println("\n✓ CANCELLED: returning best schedule so far, " + bestDays + " day(s)");
+        return cache.findSolution(bestDays);
+    }
 
-        System.out.println("\n✓ Generated " + options.getAllOptions().size() + " schedule option(s)");
+    private ScheduleOptions bestOptionSoFar(SchedulingContext context) {
+        ExamTimetable schedule = bestSoFar(context);
+        int days = context.getCache().getShortestSolutionDays();
+        ScheduleOptions options = new ScheduleOptions(days, schedule);
+        options.addOption(days, schedule);
         return options;
     }
 
-    private static class ExamPart {
-        final Course course;
-        final List<Student> students;
-        final int partIndex;
-        final int totalParts;
-        final String groupId;
-
-        ExamPart(Course course, List<Student> students, int partIndex, int totalParts) {
-            this.course = course;
-            this.students = students;
-            this.partIndex = partIndex;
-            this.totalParts = totalParts;
-            this.groupId = course.getCode();
+    /** Sends a progress snapshot to the run's listener, if any. */
+    private static void reportProgress(SchedulingContext context, SchedulingProgress.Phase phase, int low,
+            int high) {
+        SchedulingProgressListener listener = context.getListener();
+        if (listener == null) {
+            return;
         }
+        ProbeCache cache = context.getCache();
+        int bestDays = cache.getShortestSolutionDays();
+        ExamTimetable best = bestDays < 0 ? null : cache.findSolution(bestDays);
+        listener.onProgress(new SchedulingProgress(phase, low, high, bestDays, best, context.getNodeCount(),
+                context.getElapsedMs()));
+    }
 
-        int getStudentCount() {
-            return students.size();
+    /**
+     * Improves an existing timetable by local search for about
+     * {@code timeBudgetMs} milliseconds, within the days it already spans.
+     * Fewer students with two exams a day, fewer exams on consecutive days and
+     * less empty room capacity; hard constraints are never broken.
+     *
+     * @return the best timetable found, or the input itself if nothing improved
+     */
+    public ExamTimetable improveTimetable(ExamTimetable timetable, List<Classroom> classrooms, long timeBudgetMs) {
+        if (timetable == null || timetable.getExams().isEmpty()) {
+            throw new IllegalArgumentException("Timetable cannot be null or empty");
+        }
+        if (classrooms == null || classrooms.isEmpty()) {
+            throw new IllegalArgumentException("Classrooms list cannot be null or empty");
+        }
+        if (timeBudgetMs < 0) {
+            throw new IllegalArgumentException("Time budget cannot be negative, got: " + timeBudgetMs);
         }
 
-        boolean isFirstPart() {
-            return partIndex == 0;
+        Map<String, Course> courses = new HashMap<>();
+        LocalDate firstDate = null;
+        LocalDate lastDate = null;
+        for (Exam exam : timetable.getExams()) {
+            courses.putIfAbsent(exam.getCourse().getCode(), exam.getCourse());
+            LocalDate date = exam.getSlot().getDate();
+            firstDate = firstDate == null || date.isBefore(firstDate) ? date : firstDate;
+            lastDate = lastDate == null || date.isAfter(lastDate) ? date : lastDate;
         }
+        int days = (int) (lastDate.toEpochDay() - firstDate.toEpochDay()) + 1;
+
+        System.out.println("\n=== IMPROVING TIMETABLE ===");
+        SchedulingContext context = createContext(new ArrayList<>(courses.values()), classrooms,
+                timetable.getEnrollments(), firstDate, days, useRandomization, null, null);
+        LocalSearchImprover improver = new LocalSearchImprover(context.getProblem(), context.getGraph(),
+                context.getMinGapMinutes(), context.getMaxExamsPerDay(), random.nextLong());
+        ExamTimetable improved = improver.improve(timetable, timeBudgetMs);
+
+        System.out.println("  Moves tried: " + improver.getMoveCount() + ", accepted: " + improver.getAcceptedCount());
+        System.out.println("  Cost: " + improver.getInitialCost() + " -> " + improver.getBestCost());
+        return improver.getBestCost() < improver.getInitialCost() ? improved : timetable;
     }
 
-    private List<ExamPart> createExamParts(List<Course> courses, int maxClassroomCapacity) {
-        List<ExamPart> allParts = new ArrayList<>();
+    /**
+     * Repairs a timetable after manual edits or room outages, moving as few
+     * exams as possible, within the dates it already spans.
+     *
+     * Pinned courses and courses named by {@link TimetableChange.Type#EXAM_MOVED}
+     * stay exactly where they are. Every other course keeps its day, time and
+     * rooms if they are still valid around the courses kept before it; the rest
+     * are placed again by backtracking, closest to their old day and time
+     * first. If they do not fit, their unpinned conflict neighbours are freed
+     * too, one ring at a time, up to every unpinned course.
+     *
+     * @throws IllegalArgumentException if pinned exams clash with each other or
+     *                                  with an outage
+     * @throws RuntimeException         if no repair fits into the date range
+     */
+    public ExamTimetable repairTimetable(ExamTimetable timetable, List<Classroom> classrooms,
+            Set<String> pinnedCourseCodes, List<TimetableChange> changes) {
+        if (timetable == null || timetable.getExams().isEmpty()) {
+            throw new IllegalArgumentException("Timetable cannot be null or empty");
+        }
+        if (classrooms == null || classrooms.isEmpty()) {
+            throw new IllegalArgumentException("Classrooms list cannot be null or empty");
+        }
+        Set<String> pinnedCodes = new HashSet<>(pinnedCourseCodes == null ? Set.of() : pinnedCourseCodes);
+        List<TimetableChange> allChanges = changes == null ? List.of() : changes;
+        for (TimetableChange change : allChanges) {
+            if (change.getType() == TimetableChange.Type.EXAM_MOVED) {
+                pinnedCodes.add(change.getCourseCode());
+            }
+        }
 
-        for (Course course : courses) {
-            List<Student> students = courseStudentsMap.getOrDefault(course.getCode(), new ArrayList<>());
-            int studentCount = students.size();
+        Map<String, Course> courseByCode = new HashMap<>();
+        LocalDate firstDate = null;
+        LocalDate lastDate = null;
+        for (Exam exam : timetable.getExams()) {
+            courseByCode.putIfAbsent(exam.getCourse().getCode(), exam.getCourse());
+            LocalDate date = exam.getSlot().getDate();
+            firstDate = firstDate == null || date.isBefore(firstDate) ? date : firstDate;
+            lastDate = lastDate == null || date.isAfter(lastDate) ? date : lastDate;
+        }
+        int days = (int) (lastDate.toEpochDay() - firstDate.toEpochDay()) + 1;
 
-            if (studentCount == 0) {
-                allParts.add(new ExamPart(course, new ArrayList<>(), 0, 1));
+        System.out.println("\n=== REPAIRING TIMETABLE ===");
+        System.out.println("  Changes: " + allChanges);
+        long startTime = System.currentTimeMillis();
+        SchedulingContext context = createContext(new ArrayList<>(courseByCode.values()), classrooms,
+                timetable.getEnrollments(), firstDate, days, false, null, null);
+        SchedulingProblem problem = context.getProblem();
+        int courseCount = problem.getCourseCount();
+
+        // Current positions; rooms outside the classroom list are -1
+        int[] courseDay = new int[courseCount];
+        int[] courseSlot = new int[courseCount];
+        int[][] courseRooms = new int[courseCount][];
+        readPositions(problem, timetable, courseDay, courseSlot, courseRooms);
+        boolean[] pinned = new boolean[courseCount];
+        for (String code : pinnedCodes) {
+            int course = problem.courseIndex(code);
+            if (course >= 0) {
+                pinned[course] = true;
+            }
+        }
+        boolean[] outages = new boolean[problem.getClassroomCount() * days];
+        for (TimetableChange change : allChanges) {
+            int room = change.getType() == TimetableChange.Type.ROOM_OUTAGE
+                    ? problem.classroomIndex(change.getClassroomId())
+                    : -1;
+            if (room < 0) {
                 continue;
             }
+            int day = change.getDate() == null ? -1 : problem.dayIndex(change.getDate());
+            for (int d = 0; d < days; d++) {
+                if (change.getDate() == null || d == day) {
+                    outages[room * days + d] = true;
+                }
+            }
+        }
 
-            if (maxClassroomCapacity <= 0 || studentCount <= maxClassroomCapacity) {
-                allParts.add(new ExamPart(course, new ArrayList<>(students), 0, 1));
+        // Keep pinned courses, then every course that is still valid, in timetable order
+        Attempt check = new Attempt(context, days);
+        blockOutages(check, outages);
+        boolean[] freed = new boolean[courseCount];
+        Integer[] order = new Integer[courseCount];
+        for (int c = 0; c < courseCount; c++) {
+            order[c] = c;
+        }
+        Arrays.sort(order, (a, b) -> pinned[a] != pinned[b] ? (pinned[a] ? -1 : 1)
+                : Integer.compare(courseDay[a] * problem.getSlotCount() + courseSlot[a],
+                        courseDay[b] * problem.getSlotCount() + courseSlot[b]));
+        int freedCount = 0;
+        for (int course : order) {
+            if (fitsAsBefore(check, course, courseDay[course], courseSlot[course], courseRooms[course])) {
+                check.state.place(course, courseDay[course], courseSlot[course], courseRooms[course],
+                        courseRooms[course].length);
+            } else if (pinned[course]) {
+                throw new IllegalArgumentException("Pinned exam " + problem.getCourse(course).getCode()
+                        + " clashes with another pinned exam or an unavailable classroom");
             } else {
-                int numParts = (int) Math.ceil((double) studentCount / maxClassroomCapacity);
-                int baseSize = studentCount / numParts;
-                int remainder = studentCount % numParts;
+                freed[course] = true;
+                freedCount++;
+            }
+        }
+        if (freedCount == 0) {
+            System.out.println("  Nothing to repair");
+            return timetable;
+        }
 
-                List<Student> shuffledStudents = new ArrayList<>(students);
-                if (useRandomization) {
-                    Collections.shuffle(shuffledStudents, random);
+        long ringBudgetMs = Math.max(50, context.getTimeoutMs() / LNS_REPAIR_DIVISOR);
+        for (int ring = 0;; ring++) {
+            System.out.println("  Ring " + ring + ": re-placing " + freedCount + " course(s)");
+            Attempt attempt = new Attempt(context, days);
+            attempt.dynamicOrdering = true;
+            attempt.preferredDay = courseDay;
+            attempt.preferredSlot = courseSlot;
+            blockOutages(attempt, outages);
+            boolean consistent = true;
+            for (int course = 0; course < courseCount; course++) {
+                if (!freed[course]) {
+                    attempt.state.place(course, courseDay[course], courseSlot[course], courseRooms[course],
+                            courseRooms[course].length);
+                    consistent &= attempt.domains.propagate(attempt.state, course, courseDay[course],
+                            courseSlot[course]);
                 }
+            }
+            if (consistent && backtrack(courseCount - freedCount, attempt,
+                    System.currentTimeMillis(), ringBudgetMs)) {
+                System.out.println("  ✓ Repaired by moving " + freedCount + " course(s) in "
+                        + (System.currentTimeMillis() - startTime) + "ms");
+                return attempt.state.toTimetable();
+            }
 
-                int startIdx = 0;
-                for (int p = 0; p < numParts; p++) {
-                    int partSize = baseSize + (p < remainder ? 1 : 0);
-                    List<Student> partStudents = new ArrayList<>(
-                            shuffledStudents.subList(startIdx, startIdx + partSize));
-                    allParts.add(new ExamPart(course, partStudents, p, numParts));
-                    startIdx += partSize;
+            // Free the unpinned neighbours of everything freed so far
+            boolean[] next = freed.clone();
+            int[] neighbourOffsets = context.getGraph().getNeighbourOffsets();
+            int[] neighbours = context.getGraph().getNeighbours();
+            for (int course = 0; course < courseCount; course++) {
+                if (!freed[course]) {
+                    continue;
                 }
+                for (int n = neighbourOffsets[course]; n < neighbourOffsets[course + 1]; n++) {
+                    if (!pinned[neighbours[n]] && !next[neighbours[n]]) {
+                        next[neighbours[n]] = true;
+                        freedCount++;
+                    }
+                }
+            }
+            if (Arrays.equals(next, freed)) {
+                // No new neighbours: free every unpinned course, or give up if that was already the case
+                boolean grew = false;
+                for (int course = 0; course < courseCount; course++) {
+                    if (!pinned[course] && !next[course]) {
+                        next[course] = true;
+                        freedCount++;
+                        grew = true;
+                    }
+                }
+                if (!grew) {
+                    throw new RuntimeException("Could not repair the timetable within its " + days
+                            + " day(s). Try regenerating it with a longer date range.");
+                }
+            }
+            freed = next;
+        }
+    }
 
-                System.out.println("  Course " + course.getCode() + " split into " + numParts +
-                        " parts (" + studentCount + " students)");
+    /** Reads each course's day, slot and rooms from a timetable on the slot grid. */
+    private static void readPositions(SchedulingProblem problem, ExamTimetable timetable, int[] courseDay,
+            int[] courseSlot, int[][] courseRooms) {
+        List<List<Integer>> rooms = new ArrayList<>();
+        for (int c = 0; c < problem.getCourseCount(); c++) {
+            rooms.add(new ArrayList<>());
+        }
+        for (Exam exam : timetable.getExams()) {
+            int course = problem.courseIndex(exam.getCourse().getCode());
+            int slot = problem.slotOf(exam.getSlot().getStartTime());
+            if (slot < 0) {
+                throw new IllegalArgumentException("Exam is off the scheduling grid: " + exam);
             }
+            courseDay[course] = problem.dayIndex(exam.getSlot().getDate());
+            courseSlot[course] = slot;
+            rooms.get(course).add(problem.classroomIndex(exam.getClassroom().getId()));
+        }
+        for (int c = 0; c < problem.getCourseCount(); c++) {
+            courseRooms[c] = rooms.get(c).stream().mapToInt(Integer::intValue).toArray();
         }
+    }
 
-        // Sort by student count descending, then by course code
-        allParts.sort(Comparator
-                .comparingInt(ExamPart::getStudentCount).reversed()
-                .thenComparing(p -> p.course.getCode())
-                .thenComparingInt(p -> p.partIndex));
+    private static void blockOutages(Attempt attempt, boolean[] outages) {
+        attempt.interchangeableDays = false;
+        int days = attempt.state.getDays();
+        for (int i = 0; i < outages.length; i++) {
+            if (outages[i]) {
+                attempt.state.blockRoom(i / days, i % days);
+            }
+        }
+    }
 
-        return allParts;
+    /**
+     * Whether a course can stay at its old day, slot and rooms: rooms known,
+     * free and large enough together, and the student rules still hold.
+     */
+    private static boolean fitsAsBefore(Attempt attempt, int course, int day, int slot, int[] rooms) {
+        SchedulingProblem problem = attempt.problem;
+        IndexedScheduleState state = attempt.state;
+        if (slot >= problem.getStartSlotCount(course)) {
+            return false;
+        }
+        int span = problem.getSlotSpan(course);
+        int capacity = 0;
+        for (int i = 0; i < rooms.length; i++) {
+            if (rooms[i] < 0 || !state.isRoomFree(rooms[i], day, slot, span) || containsRoom(rooms, i, rooms[i])) {
+                return false;
+            }
+            capacity += problem.getCapacity(rooms[i]);
+        }
+        return capacity >= problem.getEnrollmentCount(course)
+                && !state.exceedsDailyLimit(course, day)
+                && state.respectsMinimumGap(course, day, slot, attempt.context.getMinGapMinutes());
     }
 
     /**
-     * Fast greedy scheduling algorithm - no backtracking
-     * Places each course in the first valid slot found.
-     * Much faster than backtracking for most cases.
+     * Binary search for the fewest days that admit a schedule, probing several
+     * day counts at once.
+     *
+     * Each round spreads up to {@code parallelism} probes evenly over
+     * [low, high] and runs them concurrently. A success at N cancels every
+     * probe above N and a failure at N cancels every probe below it, since
+     * their outcome no longer matters. With a parallelism of 1 this is the
+     * plain midpoint binary search.
+     *
+     * @return the optimal day count, or -1 if even {@code high} days fail
      */
-    private ExamTimetable attemptScheduleGreedy(int maxDays, List<ExamPart> examParts,
-            List<Classroom> classrooms, List<LocalTime> timeSlots,
-            List<Enrollment> enrollments, LocalDate startDate) {
+    private int searchOptimalDays(SchedulingContext context, int low, int high, boolean verbose) {
+        int optimalDays = -1;
+        ExecutorService executor = newExecutor(context, "scheduler-probe");
+
+        try {
+            while (low <= high && !context.isCancelled()) {
+                reportProgress(context, SchedulingProgress.Phase.DAY_SEARCH, low, high);
+                int[] probeDays = pickProbeDays(low, high, context.getParallelism());
+                AtomicBoolean[] cancelled = new AtomicBoolean[probeDays.length];
+                CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+
+                for (int i = 0; i < probeDays.length; i++) {
+                    int days = probeDays[i];
+                    AtomicBoolean flag = new AtomicBoolean(false);
+                    cancelled[i] = flag;
+                    completion.submit(() -> probe(context, days, flag, verbose));
+                }
 
-        ScheduleState state = new ScheduleState(courseStudentsMap);
-        List<Exam> scheduledExams = new ArrayList<>();
+                for (int finished = 0; finished < probeDays.length; finished++) {
+                    // Days actually spanned on success, minus the probed days on failure
+                    int outcome = getResult(awaitProbe(context, completion, cancelled, low, high));
+                    int days = Math.abs(outcome);
 
-        Map<String, Integer> classroomUsageCount = new HashMap<>();
-        for (Classroom c : classrooms) {
-            classroomUsageCount.put(c.getId(), 0);
+                    if (outcome > 0) {
+                        if (verbose) {
+                            System.out.println(">>> SUCCESS with " + days + " day(s)! Trying fewer...");
+                        }
+                        optimalDays = optimalDays < 0 ? days : Math.min(optimalDays, days);
+                        high = Math.min(high, days - 1);
+                        cancelProbes(probeDays, cancelled, days + 1, Integer.MAX_VALUE);
+                    } else if (!cancelled[indexOf(probeDays, days)].get()) {
+                        if (verbose) {
+                            System.out.println(">>> FAILED with " + days + " day(s)! Need more...");
+                        }
+                        low = Math.max(low, days + 1);
+                        cancelProbes(probeDays, cancelled, Integer.MIN_VALUE, days - 1);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
         }
 
-        // Group exam parts by course
-        Map<String, List<ExamPart>> partsByCourse = examParts.stream()
-                .collect(Collectors.groupingBy(p -> p.course.getCode()));
-
-        // Get unique course codes in order
-        List<String> courseCodes = examParts.stream()
-                .map(p -> p.course.getCode())
-                .distinct()
-                .collect(Collectors.toList());
-
-        // Process each course greedily
-        for (String courseCode : courseCodes) {
-            List<ExamPart> courseParts = partsByCourse.get(courseCode);
-            Course course = courseParts.get(0).course;
-            int examDuration = course.getExamDurationMinutes();
+        return optimalDays;
+    }
 
-            boolean placed = false;
+    /**
+     * Scores the candidates and keeps the ones no other candidate beats in
+     * every objective, fewest days first. Among the optimal-day schedules on
+     * the front, the one with the lowest penalty becomes the optimal schedule.
+     *
+     * @param candidates index 0 holds the optimal schedule found by the retries
+     */
+    private static ScheduleOptions paretoOptions(SchedulingProblem problem, int optimalDays,
+            List<ExamTimetable> candidates) {
+        TimetableScorer scorer = new TimetableScorer(problem);
+        List<ScheduleScore> scores = new ArrayList<>();
+        for (ExamTimetable candidate : candidates) {
+            scores.add(scorer.score(candidate));
+        }
+        List<Integer> front = ScheduleScore.paretoFront(scores);
+        front.sort(Comparator.comparingInt((Integer i) -> scores.get(i).getDays())
+                .thenComparingLong(i -> scores.get(i).getPenalty()));
+
+        // The front always holds a schedule of the fewest days: nothing dominates it on days
+        int best = front.get(0);
+        ScheduleOptions options = new ScheduleOptions(optimalDays, candidates.get(best));
+        for (int i : front) {
+            ScheduleScore score = scores.get(i);
+            System.out.println("  Option: " + score);
+            options.addOption(Math.max(optimalDays, score.getDays()), candidates.get(i), score);
+        }
+        return options;
+    }
 
-            // Try each day in order
-            for (int dayOffset = 0; dayOffset < maxDays && !placed; dayOffset++) {
-                LocalDate date = startDate.plusDays(dayOffset);
+    /**
+     * Runs the randomized retries for the optimal day count and randomized
+     * spread schedules for it and up to {@value #MAX_EXTRA_DAYS} extra days
+     * as one batch. Every task gets its own Random and state; the first retry
+     * to succeed cancels the other retries.
+     *
+     * @return the optimal schedule at index 0 (null if every retry failed),
+     *         followed by every spread schedule that succeeded
+     */
+    private List<ExamTimetable> generateOptionsBatch(SchedulingContext context, int optimalDays, int maxDays) {
+        int alternatives = Math.max(0, Math.min(MAX_EXTRA_DAYS, maxDays - optimalDays));
+        int retries = context.isRandomized() ? 5 : 1;
+        int spreads = (alternatives + 1) * SPREAD_VARIANTS;
+        List<ExamTimetable> results = new ArrayList<>();
+        results.add(null);
+        AtomicBoolean optimalFound = new AtomicBoolean(false);
+
+        ExecutorService executor = newExecutor(context, "scheduler-options");
+        try {
+            CompletionService<ExamTimetable> completion = new ExecutorCompletionService<>(executor);
+            List<Future<ExamTimetable>> retryFutures = new ArrayList<>();
+            Map<Future<ExamTimetable>, Integer> alternativeFutures = new HashMap<>();
+
+            for (int attempt = 0; attempt < retries; attempt++) {
+                Random attemptRandom = context.newAttemptRandom();
+                retryFutures.add(completion.submit(
+                        () -> attemptScheduleBacktrack(context, optimalDays, attemptRandom, optimalFound)));
+            }
+            for (int spread = 0; spread < spreads; spread++) {
+                int altDays = optimalDays + spread / SPREAD_VARIANTS;
+                Random attemptRandom = context.newAttemptRandom();
+                alternativeFutures.put(completion.submit(
+                        () -> attemptScheduleSpread(context, altDays, attemptRandom)), altDays);
+            }
 
-                // Check if any student has max exams today
-                boolean dayBlocked = false;
-                for (ExamPart part : courseParts) {
-                    if (anyStudentHasMaxExamsOnDay(part.students, date, state)) {
-                        dayBlocked = true;
-                        break;
+            for (int finished = 0; finished < retries + spreads; finished++) {
+                Future<ExamTimetable> future = takeCompleted(completion);
+                ExamTimetable result = getResult(future);
+                Integer altDays = alternativeFutures.get(future);
+                if (altDays != null) {
+                    if (result != null) {
+                        results.add(result);
+                        System.out.println("  Generated " + altDays + "-day alternative");
                     }
+                } else if (result != null && results.get(0) == null) {
+                    results.set(0, result);
+                    optimalFound.set(true);
+                    System.out.println("  Optimal schedule found by attempt " + (retryFutures.indexOf(future) + 1));
                 }
-                if (dayBlocked)
-                    continue;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
 
-                // Try each time slot
-                for (LocalTime slotStart : timeSlots) {
-                    LocalTime slotEnd = slotStart.plusMinutes(examDuration);
+    private static ExecutorService newExecutor(SchedulingContext context, String threadName) {
+        return Executors.newFixedThreadPool(context.getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
-                    if (slotEnd.isAfter(LocalTime.of(18, 30))) {
-                        continue;
-                    }
+    /**
+     * Greedy first (much faster for most cases), backtracking only if greedy
+     * fails. Answers from the run's cache when an earlier probe already
+     * settled this day count.
+     *
+     * @return the days the found schedule spans, or {@code -days} on failure
+     */
+    private int probe(SchedulingContext context, int days, AtomicBoolean cancelled, boolean verbose) {
+        ProbeCache cache = context.getCache();
+        if (verbose) {
+            System.out.println("\n>>> Trying " + days + " day(s)...");
+        }
+        if (cache.isProvenInfeasible(days)) {
+            return -days;
+        }
+        if (cache.findSolution(days) != null) {
+            return cache.getShortestSolutionDays();
+        }
 
-                    ExamSlot slot = new ExamSlot(date, slotStart, slotEnd);
+        ExamTimetable result = attemptScheduleGreedy(context, days);
+        if (result == null && !cancelled.get() && !cache.isExhausted(days)) {
+            if (verbose) {
+                System.out.println("    Greedy failed, trying backtracking...");
+            }
+            result = attemptScheduleRestarts(context, days, cancelled, 1);
+        }
+        if (result == null && context.isLargeNeighbourhoodSearch() && !cancelled.get()
+                && !cache.isProvenInfeasible(days)) {
+            // Backtracking timed out or exhausted its heuristic room picks: the day count may still be feasible
+            if (verbose) {
+                System.out.println("    Backtracking found nothing, trying large neighbourhood search...");
+            }
+            result = attemptScheduleLns(context, days, context.newAttemptRandom(), cancelled,
+                    context.getTimeoutMs() / 2);
+        }
+        return result == null ? -days : spanDays(context.getProblem(), result);
+    }
 
-                    // Try to place all parts at this slot
-                    List<Classroom> assignedClassrooms = new ArrayList<>();
-                    Set<String> newlyUsedClassrooms = new HashSet<>();
-                    boolean canPlaceAllParts = true;
+    /** Up to {@code count} distinct day counts spread evenly over [low, high]. */
+    private static int[] pickProbeDays(int low, int high, int count) {
+        int range = high - low + 1;
+        if (range <= count) {
+            int[] all = new int[range];
+            for (int i = 0; i < range; i++) {
+                all[i] = low + i;
+            }
+            return all;
+        }
+        int[] days = new int[count];
+        for (int i = 0; i < count; i++) {
+            days[i] = low + (int) ((long) (i + 1) * (range - 1) / (count + 1));
+        }
+        return days;
+    }
 
-                    for (ExamPart part : courseParts) {
-                        Classroom assigned = findSuitableClassroomGreedy(part, slot, classrooms,
-                                newlyUsedClassrooms, classroomUsageCount, state);
+    private static void cancelProbes(int[] probeDays, AtomicBoolean[] cancelled, int from, int to) {
+        for (int i = 0; i < probeDays.length; i++) {
+            if (probeDays[i] >= from && probeDays[i] <= to) {
+                cancelled[i].set(true);
+            }
+        }
+    }
 
-                        if (assigned == null) {
-                            canPlaceAllParts = false;
-                            break;
-                        }
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
 
-                        assignedClassrooms.add(assigned);
-                        newlyUsedClassrooms.add(assigned.getId());
+    /**
+     * Next finished probe. Sends a progress event while waiting and, once the
+     * run is cancelled, cancels every probe of the round.
+     */
+    private static Future<Integer> awaitProbe(SchedulingContext context, CompletionService<Integer> completion,
+            AtomicBoolean[] cancelled, int low, int high) {
+        try {
+            Future<Integer> future;
+            while ((future = completion.poll(PROGRESS_INTERVAL_MS, TimeUnit.MILLISECONDS)) == null) {
+                if (context.isCancelled()) {
+                    for (AtomicBoolean flag : cancelled) {
+                        flag.set(true);
                     }
+                }
+                reportProgress(context, SchedulingProgress.Phase.DAY_SEARCH, low, high);
+            }
+            return future;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scheduling was interrupted", e);
+        }
+    }
 
-                    if (!canPlaceAllParts) {
-                        continue;
-                    }
+    private static <T> Future<T> takeCompleted(CompletionService<T> completion) {
+        try {
+            return completion.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scheduling was interrupted", e);
+        }
+    }
 
-                    // Check student constraints: 3 hour gap
-                    boolean studentConstraintsOk = true;
-                    for (ExamPart part : courseParts) {
-                        for (Student student : part.students) {
-                            List<Exam> studentExamsToday = state.getExamsForStudentDate(student.getId(), date);
-                            for (Exam existing : studentExamsToday) {
-                                long gapMinutes = calculateGapMinutes(existing.getSlot(), slot);
-                                if (gapMinutes < 180) {
-                                    studentConstraintsOk = false;
-                                    break;
-                                }
-                            }
-                            if (!studentConstraintsOk)
-                                break;
-                        }
-                        if (!studentConstraintsOk)
-                            break;
-                    }
+    /** Result of a completed future, rethrowing the task's own exception. */
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scheduling was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Scheduling task failed", e.getCause());
+        }
+    }
 
-                    if (!studentConstraintsOk) {
-                        continue;
-                    }
+    /**
+     * One search attempt: the placement state plus the scratch buffers used
+     * while picking rooms for the course being tried.
+     */
+    private static class Attempt {
+        final SchedulingContext context;
+        final SchedulingProblem problem;
+        final IndexedScheduleState state;
+        // Rooms picked for the parts of the course being tried, and the free rooms to pick from
+        final int[] rooms;
+        final int[] candidates;
+        final long[] freeRooms;
+        final RoomMatcher matcher;
+        // Set by another thread when the outcome of this attempt no longer matters
+        final AtomicBoolean cancelled;
+        // Source of variety for this attempt only; null means deterministic
+        final Random random;
+        // Live (day, slot) domains for forward checking in backtracking
+        final CourseDomains domains;
+        // Most-constrained-first selection; always on when backtracking starts from a partial schedule
+        boolean dynamicOrdering;
+        // Set when backtracking stopped on timeout, cancellation or the node limit rather than exhausting the search
+        boolean interrupted;
+        // Set when a room pick passed over other free rooms that could hold the course; exhausting the
+        // search then proves nothing about the day count
+        boolean roomsGuessed;
+        // Complete search: single-room courses branch over every free room that holds them
+        boolean branchRooms;
+        // Backtracking calls so far, and the most this attempt may make
+        long nodes;
+        long nodeLimit = Long.MAX_VALUE;
+        // Repair only: day and slot each course had before, tried first (-1 for none)
+        int[] preferredDay;
+        int[] preferredSlot;
+        // Whether days differ only by what is placed on them; false once rooms are blocked on some days
+        boolean interchangeableDays = true;
+
+        Attempt(SchedulingContext context, int days) {
+            this(context, days, new AtomicBoolean(false), null);
+        }
 
-                    // Place all parts - greedy: commit immediately, no backtracking
-                    for (int i = 0; i < courseParts.size(); i++) {
-                        ExamPart part = courseParts.get(i);
-                        Classroom classroom = assignedClassrooms.get(i);
+        Attempt(SchedulingContext context, int days, AtomicBoolean cancelled, Random random) {
+            this.context = context;
+            this.problem = context.getProblem();
+            this.cancelled = cancelled;
+            this.random = random;
+            this.state = new IndexedScheduleState(problem, context.getGraph(), days);
+            this.domains = new CourseDomains(problem, context.getGraph(), days, context.getMinGapMinutes());
+            this.dynamicOrdering = context.isDynamicOrdering();
+            int maxParts = 1;
+            for (int c = 0; c < problem.getCourseCount(); c++) {
+                maxParts = Math.max(maxParts, problem.getPartSizes(c).length);
+            }
+            this.rooms = new int[maxParts];
+            this.candidates = new int[problem.getClassroomCount()];
+            this.freeRooms = new long[state.getRoomWordCount()];
+            this.matcher = new RoomMatcher(problem);
+        }
 
-                        Exam exam = new Exam(part.course, classroom, slot);
-                        scheduledExams.add(exam);
-                        state.add(exam);
-                        classroomUsageCount.merge(classroom.getId(), 1, Integer::sum);
-                    }
+        void place(int course, int day, int slot) {
+            state.place(course, day, slot, rooms, problem.getPartSizes(course).length);
+        }
+    }
 
-                    placed = true;
-                    break; // Move to next course
-                }
-            }
+    /**
+     * Fast greedy scheduling algorithm - no backtracking
+     * Places each course in the first valid slot found.
+     * Much faster than backtracking for most cases.
+     */
+    private ExamTimetable attemptScheduleGreedy(SchedulingContext context, int maxDays) {
+        SchedulingProblem problem = context.getProblem();
+        Attempt attempt = new Attempt(context, maxDays);
+        IndexedScheduleState state = attempt.state;
 
+        // Process each course greedily, in scheduling order
+        for (int course = 0; course < problem.getCourseCount(); course++) {
             // If greedy couldn't place this course, fail fast
-            if (!placed) {
+            if (!placeFirstFit(attempt, course, 0)) {
                 return null;
             }
         }
 
-        return new ExamTimetable(scheduledExams, enrollments);
+        return remember(context, state);
     }
 
     /**
-     * Find suitable classroom for greedy scheduling (simpler, faster)
+     * Places a course at the first valid (day, slot), trying days from
+     * {@code firstDay} onwards and wrapping around; greedy: commit immediately,
+     * no backtracking. Returns false if no position fits.
      */
-    private Classroom findSuitableClassroomGreedy(ExamPart part, ExamSlot slot, List<Classroom> classrooms,
-            Set<String> newlyUsedClassrooms, Map<String, Integer> classroomUsageCount,
-            ScheduleState state) {
-
-        int studentCount = part.getStudentCount();
+    private boolean placeFirstFit(Attempt attempt, int course, int firstDay) {
+        SchedulingProblem problem = attempt.problem;
+        IndexedScheduleState state = attempt.state;
+        int days = state.getDays();
+        int span = problem.getSlotSpan(course);
+
+        for (int i = 0; i < days; i++) {
+            int day = (firstDay + i) % days;
+            // Check if any student has max exams today
+            if (state.exceedsDailyLimit(course, day)) {
+                continue;
+            }
 
-        // Find first classroom with enough capacity that's available
-        for (Classroom c : classrooms) {
-            if (c.getCapacity() >= studentCount
-                    && !newlyUsedClassrooms.contains(c.getId())
-                    && state.isClassroomAvailable(c.getId(), slot)) {
-                return c;
+            // Try each time slot
+            for (int slot = 0; slot < problem.getStartSlotCount(course); slot++) {
+                if (!RoomMatcher.fits(problem, state, course, day, slot, span)) {
+                    continue;
+                }
+                if (!state.respectsMinimumGap(course, day, slot, attempt.context.getMinGapMinutes())) {
+                    continue;
+                }
+                assignRooms(attempt, course, day, slot, span);
+                attempt.place(course, day, slot);
+                return true;
             }
         }
-        return null;
+        return false;
     }
 
     /**
      * Backtracking scheduling algorithm
      */
-    private ExamTimetable attemptScheduleBacktrack(int maxDays, List<ExamPart> examParts,
-            List<Classroom> classrooms, List<LocalTime> timeSlots,
-            List<Enrollment> enrollments, LocalDate startDate) {
-
-        ScheduleState state = new ScheduleState(courseStudentsMap);
-        List<Exam> scheduledExams = new ArrayList<>();
-
-        Map<String, Integer> classroomUsageCount = new HashMap<>();
-        for (Classroom c : classrooms) {
-            classroomUsageCount.put(c.getId(), 0);
-        }
-
-        // Group exam parts by course
-        Map<String, List<ExamPart>> partsByCourse = examParts.stream()
-                .collect(Collectors.groupingBy(p -> p.course.getCode()));
-
-        // Get unique course codes in order (keep deterministic for correctness)
-        List<String> courseCodes = examParts.stream()
-                .map(p -> p.course.getCode())
-                .distinct()
-                .collect(Collectors.toList());
+    private ExamTimetable attemptScheduleBacktrack(SchedulingContext context, int maxDays, Random random,
+            AtomicBoolean cancelled) {
+        Attempt attempt = new Attempt(context, maxDays, cancelled, random);
 
         long startTime = System.currentTimeMillis();
-        long timeoutMs = cachedTimeoutMs; // Adaptive timeout based on data size
-
-        boolean success = backtrack(0, courseCodes, partsByCourse, maxDays, classrooms, timeSlots,
-                startDate, state, scheduledExams, classroomUsageCount, startTime, timeoutMs);
+        long timeoutMs = context.getTimeoutMs(); // Adaptive timeout based on data size
+
+        boolean success = backtrack(0, attempt, startTime, timeoutMs);
+        if (!success && !attempt.interrupted && attempt.roomsGuessed) {
+            // Exhausted with heuristic room picks: search again over every room choice
+            attempt = new Attempt(context, maxDays, cancelled, random);
+            attempt.branchRooms = true;
+            success = backtrack(0, attempt, startTime, timeoutMs);
+        }
 
         if (success) {
-            return new ExamTimetable(scheduledExams, enrollments);
+            return remember(context, attempt.state);
         }
+        recordFailure(context, attempt, maxDays);
         return null;
     }
 
     /**
-     * Recursive backtracking
+     * Records what a backtracking attempt that found nothing showed: with every
+     * room choice covered, exhausting the search proves that no schedule fits
+     * into maxDays days; after heuristic room picks it only marks this day
+     * count as exhausted.
      */
-    private boolean backtrack(int courseIndex, List<String> courseCodes,
-            Map<String, List<ExamPart>> partsByCourse, int maxDays,
-            List<Classroom> classrooms, List<LocalTime> timeSlots,
-            LocalDate startDate, ScheduleState state, List<Exam> scheduledExams,
-            Map<String, Integer> classroomUsageCount,
-            long startTime, long timeoutMs) {
-
-        // Check timeout
-        if (System.currentTimeMillis() - startTime > timeoutMs) {
-            return false;
+    private static void recordFailure(SchedulingContext context, Attempt attempt, int maxDays) {
+        if (attempt.interrupted) {
+            return;
         }
-
-        // Base case: all courses scheduled
-        if (courseIndex >= courseCodes.size()) {
-            return true;
+        if (attempt.roomsGuessed) {
+            context.getCache().recordExhausted(maxDays);
+        } else {
+            context.getCache().recordInfeasible(maxDays);
         }
+    }
 
-        String courseCode = courseCodes.get(courseIndex);
-        List<ExamPart> courseParts = partsByCourse.get(courseCode);
-        Course course = courseParts.get(0).course;
-        int examDuration = course.getExamDurationMinutes();
-
-        // Prepare classrooms list
-        List<Classroom> workingClassrooms = new ArrayList<>(classrooms);
-        if (useRandomization) {
-            Collections.shuffle(workingClassrooms, random);
+    /**
+     * Backtracking with restarts. Run {@code i} (from 0) stops after
+     * {@code RESTART_UNIT_NODES * luby(i + 1)} nodes and the next run starts
+     * over with a fresh Random for the day, slot and room shuffles; run 0 uses
+     * the plain heuristic order. All runs share the adaptive timeout.
+     *
+     * With more than one worker, runs are spread over a thread pool and the
+     * first worker to finish stops the others; {@code cancelled} is then only
+     * checked between runs. A run that exhausts its search below the node
+     * limit ends the whole search, as a proof of infeasibility only if it
+     * covered every room choice; the first run to exhaust after heuristic
+     * room picks switches the worker to branching over rooms instead.
+     */
+    private ExamTimetable attemptScheduleRestarts(SchedulingContext context, int maxDays, AtomicBoolean cancelled,
+            int workers) {
+        long startTime = System.currentTimeMillis();
+        AtomicInteger nextRun = new AtomicInteger(0);
+        if (workers <= 1) {
+            return runRestarts(context, maxDays, cancelled, null, nextRun, startTime);
         }
 
-        // Prepare day order - shuffle for variety but still try all days
-        List<Integer> dayOrder = new ArrayList<>();
-        for (int i = 0; i < maxDays; i++) {
-            dayOrder.add(i);
-        }
-        if (useRandomization) {
-            Collections.shuffle(dayOrder, random);
+        AtomicBoolean stop = new AtomicBoolean(false);
+        ExecutorService executor = newExecutor(context, "scheduler-restart");
+        try {
+            CompletionService<ExamTimetable> completion = new ExecutorCompletionService<>(executor);
+            for (int w = 0; w < workers; w++) {
+                completion.submit(() -> runRestarts(context, maxDays, cancelled, stop, nextRun, startTime));
+            }
+            ExamTimetable result = null;
+            for (int finished = 0; finished < workers; finished++) {
+                ExamTimetable outcome = getResult(takeCompleted(completion));
+                if (result == null) {
+                    result = outcome;
+                }
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
-        // Try each day
-        for (int dayOffset : dayOrder) {
-            LocalDate date = startDate.plusDays(dayOffset);
+    /**
+     * One restart worker: takes run numbers until a run succeeds, proves
+     * infeasibility or time runs out. Parallel workers share {@code stop},
+     * which a finishing worker sets; a single worker passes null.
+     */
+    private ExamTimetable runRestarts(SchedulingContext context, int maxDays, AtomicBoolean cancelled,
+            AtomicBoolean stop, AtomicInteger nextRun, long startTime) {
+        long timeoutMs = context.getTimeoutMs();
+        AtomicBoolean watched = stop != null ? stop : cancelled;
+        boolean branchRooms = false;
+
+        while (!cancelled.get() && !watched.get() && !context.isCancelled()
+                && System.currentTimeMillis() - startTime <= timeoutMs) {
+            int run = nextRun.getAndIncrement();
+            Random runRandom = null;
+            if (run > 0) {
+                runRandom = context.isRandomized() ? context.newAttemptRandom() : new Random(run);
+            }
+            Attempt attempt = new Attempt(context, maxDays, watched, runRandom);
+            attempt.nodeLimit = RESTART_UNIT_NODES * luby(run + 1);
+            attempt.branchRooms = branchRooms;
 
-            // Check if any student has max exams today
-            boolean dayBlocked = false;
-            for (ExamPart part : courseParts) {
-                if (anyStudentHasMaxExamsOnDay(part.students, date, state)) {
-                    dayBlocked = true;
-                    break;
+            if (backtrack(0, attempt, startTime, timeoutMs)) {
+                if (stop != null) {
+                    stop.set(true);
                 }
+                if (run > 0) {
+                    System.out.println("    Restart " + run + " found a schedule for " + maxDays + " day(s)");
+                }
+                return remember(context, attempt.state);
             }
-            if (dayBlocked)
+            if (!attempt.interrupted && attempt.roomsGuessed && !branchRooms) {
+                // Exhausted with heuristic room picks: later runs branch over every room choice
+                branchRooms = true;
                 continue;
-
-            // Prepare time slot order - shuffle for variety
-            List<LocalTime> slotOrder = new ArrayList<>(timeSlots);
-            if (useRandomization) {
-                Collections.shuffle(slotOrder, random);
             }
-
-            // Try each time slot
-            for (LocalTime slotStart : slotOrder) {
-                LocalTime slotEnd = slotStart.plusMinutes(examDuration);
-
-                if (slotEnd.isAfter(LocalTime.of(18, 30))) {
-                    continue;
-                }
-
-                ExamSlot slot = new ExamSlot(date, slotStart, slotEnd);
-
-                // Try to place all parts at this slot
-                List<Classroom> assignedClassrooms = new ArrayList<>();
-                Set<String> newlyUsedClassrooms = new HashSet<>();
-                boolean canPlaceAllParts = true;
-
-                for (ExamPart part : courseParts) {
-                    Classroom assigned = findSuitableClassroom(part, slot, workingClassrooms,
-                            newlyUsedClassrooms, classroomUsageCount, state);
-
-                    if (assigned == null) {
-                        canPlaceAllParts = false;
-                        break;
-                    }
-
-                    assignedClassrooms.add(assigned);
-                    newlyUsedClassrooms.add(assigned.getId());
+            if (!attempt.interrupted) {
+                // Exhausted below the node limit
+                recordFailure(context, attempt, maxDays);
+                if (stop != null) {
+                    stop.set(true);
                 }
+                return null;
+            }
+        }
+        return null;
+    }
 
-                if (!canPlaceAllParts) {
-                    continue;
-                }
+    /**
+     * Term {@code i} (from 1) of the Luby sequence 1, 1, 2, 1, 1, 2, 4, 1, 1,
+     * 2, 1, 1, 2, 4, 8, ...: within a constant factor of the best fixed cutoff
+     * for any runtime distribution.
+     */
+    static long luby(int i) {
+        int k = 1;
+        while ((1L << k) - 1 < i) {
+            k++;
+        }
+        if ((1L << k) - 1 == i) {
+            return 1L << (k - 1);
+        }
+        return luby(i - (1 << (k - 1)) + 1);
+    }
 
-                // Check student constraints: en az 3 saat (180 dk) boşluk olmalı
-                boolean studentConstraintsOk = true;
-                for (ExamPart part : courseParts) {
-                    for (Student student : part.students) {
-                        List<Exam> studentExamsToday = state.getExamsForStudentDate(student.getId(), date);
-                        for (Exam existing : studentExamsToday) {
-                            long gapMinutes = calculateGapMinutes(existing.getSlot(), slot);
-                            if (gapMinutes < 180) {
-                                studentConstraintsOk = false;
-                                break;
-                            }
-                        }
-                        if (!studentConstraintsOk)
-                            break;
-                    }
-                    if (!studentConstraintsOk)
-                        break;
-                }
+    /**
+     * Large neighbourhood search for a schedule in {@code maxDays} days.
+     *
+     * Keeps a partial schedule, first built greedily. Each iteration frees the
+     * courses of one day, or a conflict cluster around an unplaced course, and
+     * lets backtracking place them together with the unplaced courses around
+     * the rest under a small time budget. If that fails, a greedy repair is
+     * kept when it leaves no more courses unplaced than before, and the next
+     * neighbourhood grows. Returns null when {@code budgetMs} runs out; unlike
+     * backtracking it never proves a day count infeasible.
+     */
+    private ExamTimetable attemptScheduleLns(SchedulingContext context, int maxDays, Random random,
+            AtomicBoolean cancelled, long budgetMs) {
+        SchedulingProblem problem = context.getProblem();
+        int courseCount = problem.getCourseCount();
+        Random lnsRandom = random != null ? random : new Random(maxDays);
+        long startTime = System.currentTimeMillis();
+        long repairMs = Math.max(10, context.getTimeoutMs() / LNS_REPAIR_DIVISOR);
+
+        // Current partial schedule: day -1 means unplaced
+        int[] courseDay = new int[courseCount];
+        int[] courseSlot = new int[courseCount];
+        int[][] courseRooms = new int[courseCount][];
+        Attempt initial = new Attempt(context, maxDays, cancelled, random);
+        for (int course = 0; course < courseCount; course++) {
+            placeFirstFit(initial, course, 0);
+        }
+        int unplaced = saveAssignment(initial, courseDay, courseSlot, courseRooms);
+        if (unplaced == 0) {
+            return remember(context, initial.state);
+        }
 
-                if (!studentConstraintsOk) {
+        int destroySize = LNS_MIN_DESTROY;
+        int iterations = 0;
+        while (System.currentTimeMillis() - startTime < budgetMs && !cancelled.get() && !context.isCancelled()) {
+            iterations++;
+            boolean[] freed = chooseDestroySet(context, maxDays, courseDay, destroySize, lnsRandom);
+
+            // Rebuild the kept part of the schedule, with its domains
+            Attempt repair = new Attempt(context, maxDays, cancelled, random);
+            repair.dynamicOrdering = true;
+            boolean consistent = true;
+            int kept = 0;
+            for (int course = 0; course < courseCount; course++) {
+                if (freed[course]) {
                     continue;
                 }
+                System.arraycopy(courseRooms[course], 0, repair.rooms, 0, courseRooms[course].length);
+                repair.place(course, courseDay[course], courseSlot[course]);
+                consistent &= repair.domains.propagate(repair.state, course, courseDay[course],
+                        courseSlot[course]);
+                kept++;
+            }
 
-                // Place all parts
-                List<Exam> placedExams = new ArrayList<>();
-                for (int i = 0; i < courseParts.size(); i++) {
-                    ExamPart part = courseParts.get(i);
-                    Classroom classroom = assignedClassrooms.get(i);
-
-                    Exam exam = new Exam(part.course, classroom, slot);
-                    placedExams.add(exam);
-                    scheduledExams.add(exam);
-                    state.add(exam); // This now tracks classroom usage too
-                    classroomUsageCount.merge(classroom.getId(), 1, Integer::sum);
-                }
+            long remaining = budgetMs - (System.currentTimeMillis() - startTime);
+            if (consistent && backtrack(kept, repair, System.currentTimeMillis(),
+                    Math.min(repairMs, remaining))) {
+                System.out.println("    LNS found a schedule for " + maxDays + " day(s) after " + iterations
+                        + " iteration(s)");
+                return remember(context, repair.state);
+            }
 
-                // Recurse to next course
-                if (backtrack(courseIndex + 1, courseCodes, partsByCourse, maxDays, classrooms, timeSlots,
-                        startDate, state, scheduledExams, classroomUsageCount, startTime, timeoutMs)) {
-                    return true;
+            // Backtracking undid its own placements; fill in greedily from a random day instead
+            int[] order = new int[courseCount - kept];
+            int count = 0;
+            for (int course = 0; course < courseCount; course++) {
+                if (freed[course]) {
+                    order[count++] = course;
                 }
+            }
+            shuffle(order, lnsRandom);
+            for (int course : order) {
+                placeFirstFit(repair, course, lnsRandom.nextInt(maxDays));
+            }
 
-                // Backtrack: remove placed exams
-                for (int i = 0; i < placedExams.size(); i++) {
-                    Exam exam = placedExams.get(i);
-                    scheduledExams.remove(scheduledExams.size() - 1);
-                    state.removeLast(); // This now reverts classroom usage too
-                    classroomUsageCount.merge(exam.getClassroom().getId(), -1, Integer::sum);
+            int repaired = courseCount - repair.state.getPlacedCourseCount();
+            if (repaired <= unplaced) {
+                saveAssignment(repair, courseDay, courseSlot, courseRooms);
+                destroySize = repaired < unplaced ? LNS_MIN_DESTROY : Math.min(courseCount, destroySize + 1);
+                unplaced = repaired;
+                if (unplaced == 0) {
+                    return remember(context, repair.state);
                 }
+            } else {
+                destroySize = Math.min(courseCount, destroySize + 1);
             }
         }
 
-        return false;
+        System.out.println("    LNS stopped with " + unplaced + " course(s) unplaced after " + iterations
+                + " iteration(s)");
+        return null;
     }
 
-    private Classroom findSuitableClassroom(ExamPart part, ExamSlot slot, List<Classroom> classrooms,
-            Set<String> newlyUsedClassrooms, Map<String, Integer> classroomUsageCount,
-            ScheduleState state) {
-
-        int studentCount = part.getStudentCount();
-
-        List<Classroom> sortedClassrooms = classrooms.stream()
-                .filter(c -> c.getCapacity() >= studentCount)
-                .filter(c -> !newlyUsedClassrooms.contains(c.getId()))
-                .filter(c -> state.isClassroomAvailable(c.getId(), slot)) // Check time overlap
-                .sorted(Comparator
-                        .comparingInt(Classroom::getCapacity)
-                        .thenComparingInt(c -> classroomUsageCount.getOrDefault(c.getId(), 0)))
-                .collect(Collectors.toList());
-
-        if (useRandomization && sortedClassrooms.size() > 1) {
-            int minCapacity = sortedClassrooms.get(0).getCapacity();
-            int threshold = minCapacity + 20;
+    /** Copies an attempt's placements and rooms; returns the number of unplaced courses. */
+    private static int saveAssignment(Attempt attempt, int[] courseDay, int[] courseSlot, int[][] courseRooms) {
+        SchedulingProblem problem = attempt.problem;
+        IndexedScheduleState state = attempt.state;
+        int unplaced = 0;
+        for (int course = 0; course < problem.getCourseCount(); course++) {
+            courseDay[course] = state.getCourseDay(course);
+            courseSlot[course] = state.getCourseSlot(course);
+            if (courseDay[course] < 0) {
+                unplaced++;
+                continue;
+            }
+            courseRooms[course] = new int[problem.getPartSizes(course).length];
+            state.getCourseRooms(course, courseRooms[course]);
+        }
+        return unplaced;
+    }
 
-            List<Classroom> candidates = sortedClassrooms.stream()
-                    .filter(c -> c.getCapacity() <= threshold)
-                    .collect(Collectors.toList());
+    /**
+     * Courses to free in one LNS iteration: every unplaced course, plus either
+     * all courses of a random day or a breadth-first conflict cluster of about
+     * {@code size} placed courses around a random unplaced one.
+     */
+    private static boolean[] chooseDestroySet(SchedulingContext context, int days, int[] courseDay, int size,
+            Random random) {
+        ConflictGraph graph = context.getGraph();
+        int courseCount = courseDay.length;
+        boolean[] freed = new boolean[courseCount];
+        int[] unplaced = new int[courseCount];
+        int unplacedCount = 0;
+        for (int course = 0; course < courseCount; course++) {
+            if (courseDay[course] < 0) {
+                freed[course] = true;
+                unplaced[unplacedCount++] = course;
+            }
+        }
 
-            if (!candidates.isEmpty()) {
-                return candidates.get(random.nextInt(candidates.size()));
+        if (random.nextBoolean()) {
+            int day = random.nextInt(days);
+            for (int course = 0; course < courseCount; course++) {
+                if (courseDay[course] == day) {
+                    freed[course] = true;
+                }
             }
+            return freed;
         }
 
-        return sortedClassrooms.isEmpty() ? null : sortedClassrooms.get(0);
+        int[] neighbourOffsets = graph.getNeighbourOffsets();
+        int[] neighbours = graph.getNeighbours();
+        int[] queue = new int[courseCount];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = unplaced[random.nextInt(unplacedCount)];
+        int added = 0;
+        while (head < tail && added < size) {
+            int current = queue[head++];
+            int first = neighbourOffsets[current];
+            int degree = neighbourOffsets[current + 1] - first;
+            // Random starting point so equal clusters are not always cut the same way
+            int offset = degree == 0 ? 0 : random.nextInt(degree);
+            for (int i = 0; i < degree && added < size; i++) {
+                int other = neighbours[first + (offset + i) % degree];
+                if (!freed[other]) {
+                    freed[other] = true;
+                    queue[tail++] = other;
+                    added++;
+                }
+            }
+        }
+        return freed;
     }
 
     /**
-     * Spread scheduling for alternative schedules
+     * Recursive backtracking with forward checking. {@code depth} courses are
+     * placed; with the static ordering these are exactly courses
+     * {@code 0 .. depth-1}. Every placement prunes the domains of unplaced
+     * neighbours, and a branch is abandoned as soon as one of them empties.
+     * Days with nothing placed on them are symmetric, so only the first empty
+     * day in option order is branched on.
      */
-    private ExamTimetable attemptScheduleSpread(int maxDays, List<ExamPart> examParts,
-            List<Classroom> classrooms, List<LocalTime> timeSlots,
-            List<Enrollment> enrollments, LocalDate startDate) {
+    private boolean backtrack(int depth, Attempt attempt, long startTime, long timeoutMs) {
+
+        // Check node limit, timeout and cancellation
+        attempt.context.countNode();
+        if (++attempt.nodes > attempt.nodeLimit || System.currentTimeMillis() - startTime > timeoutMs
+                || attempt.cancelled.get() || attempt.context.isCancelled()) {
+            attempt.interrupted = true;
+            return false;
+        }
 
-        ScheduleState state = new ScheduleState(courseStudentsMap);
-        List<Exam> scheduledExams = new ArrayList<>();
+        SchedulingProblem problem = attempt.problem;
+        IndexedScheduleState state = attempt.state;
+        CourseDomains domains = attempt.domains;
 
-        Map<Integer, Integer> examsPerDay = new HashMap<>();
-        for (int i = 0; i < maxDays; i++) {
-            examsPerDay.put(i, 0);
+        // Base case: all courses scheduled
+        if (depth >= problem.getCourseCount()) {
+            return true;
         }
-        Map<String, Integer> classroomUsageCount = new HashMap<>();
-        for (Classroom c : classrooms) {
-            classroomUsageCount.put(c.getId(), 0);
+
+        int course = attempt.dynamicOrdering ? selectMostConstrained(attempt) : depth;
+        if (course < 0) {
+            return false; // some course has no option left
         }
 
-        Map<String, List<ExamPart>> partsByCourse = examParts.stream()
-                .collect(Collectors.groupingBy(p -> p.course.getCode()));
+        int span = problem.getSlotSpan(course);
+        int slots = problem.getSlotCount();
+
+        int[] options = attempt.dynamicOrdering && attempt.preferredDay == null
+                ? orderLeastConstraining(attempt, course)
+                : orderByDay(attempt, course);
+
+        // Empty days are interchangeable: once one has been tried, the others add nothing
+        boolean breakDaySymmetry = attempt.interchangeableDays && attempt.preferredDay == null;
+        int emptyDayTried = -1;
 
-        Set<String> scheduledCourses = new HashSet<>();
+        for (int option : options) {
+            int day = option / slots;
+            int slot = option % slots;
 
-        for (ExamPart examPart : examParts) {
-            String courseCode = examPart.course.getCode();
+            if (breakDaySymmetry && state.getExamsOnDay(day) == 0) {
+                if (emptyDayTried >= 0 && emptyDayTried != day) {
+                    continue;
+                }
+                emptyDayTried = day;
+            }
 
-            if (scheduledCourses.contains(courseCode)) {
+            if (attempt.branchRooms && problem.getPartSizes(course).length == 1) {
+                if (placeInEveryRoom(depth, attempt, course, day, slot, span, startTime, timeoutMs)) {
+                    return true;
+                }
                 continue;
             }
 
-            List<ExamPart> courseParts = partsByCourse.get(courseCode);
+            // Try to place all parts at this slot
+            if (!assignRooms(attempt, course, day, slot, span)) {
+                continue;
+            }
 
-            boolean scheduled = scheduleCoursePartsSpread(courseParts, maxDays, classrooms, timeSlots,
-                    startDate, state, scheduledExams, examsPerDay, classroomUsageCount);
+            attempt.place(course, day, slot);
 
-            if (!scheduled) {
-                return null;
+            // Recurse to next course unless some neighbour lost its last option
+            if (domains.propagate(state, course, day, slot)
+                    && backtrack(depth + 1, attempt, startTime, timeoutMs)) {
+                return true;
             }
 
-            scheduledCourses.add(courseCode);
+            // Backtrack: remove placed exams and restore the domains
+            domains.undo();
+            state.undo();
         }
 
-        return new ExamTimetable(scheduledExams, enrollments);
+        return false;
     }
 
-    private boolean scheduleCoursePartsSpread(List<ExamPart> courseParts, int maxDays,
-            List<Classroom> classrooms, List<LocalTime> timeSlots,
-            LocalDate startDate, ScheduleState state, List<Exam> scheduledExams,
-            Map<Integer, Integer> examsPerDay, Map<String, Integer> classroomUsageCount) {
-
-        Course course = courseParts.get(0).course;
-        int examDuration = course.getExamDurationMinutes();
+    /**
+     * Complete variant of one (day, slot) option of a single-room course: tries
+     * every free room that holds it, largest first. Rooms of one capacity that
+     * are empty all day are interchangeable, so only the first is tried.
+     */
+    private boolean placeInEveryRoom(int depth, Attempt attempt, int course, int day, int slot, int span,
+            long startTime, long timeoutMs) {
+        SchedulingProblem problem = attempt.problem;
+        IndexedScheduleState state = attempt.state;
+        int enrolled = problem.getEnrollmentCount(course);
+        // Own buffer: deeper levels reuse the attempt's
+        long[] free = new long[state.getRoomWordCount()];
+        state.getFreeRooms(day, slot, span, free);
+        int emptyCapacityTried = -1;
+
+        for (int w = 0; w < free.length; w++) {
+            long word = free[w];
+            while (word != 0) {
+                int room = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                int capacity = problem.getCapacity(room);
+                if (capacity < enrolled) {
+                    return false; // rooms are sorted by capacity, the rest are smaller
+                }
+                if (state.isRoomFree(room, day, 0, problem.getSlotCount())) {
+                    if (capacity == emptyCapacityTried) {
+                        continue;
+                    }
+                    emptyCapacityTried = capacity;
+                }
+                attempt.rooms[0] = room;
+                attempt.place(course, day, slot);
+                if (attempt.domains.propagate(state, course, day, slot)
+                        && backtrack(depth + 1, attempt, startTime, timeoutMs)) {
+                    return true;
+                }
+                attempt.domains.undo();
+                state.undo();
+            }
+        }
+        return false;
+    }
 
-        List<Classroom> workingClassrooms = new ArrayList<>(classrooms);
-        if (useRandomization) {
-            Collections.shuffle(workingClassrooms, random);
+    /**
+     * Unplaced course with the fewest feasible (day, slot, rooms) options,
+     * higher conflict degree first on ties; -1 if some course has none left.
+     */
+    private int selectMostConstrained(Attempt attempt) {
+        SchedulingProblem problem = attempt.problem;
+        ConflictGraph graph = attempt.context.getGraph();
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        int bestDegree = -1;
+
+        for (int course = 0; course < problem.getCourseCount(); course++) {
+            if (attempt.state.isPlaced(course)) {
+                continue;
+            }
+            int count = countOptions(attempt, course, bestCount);
+            if (count == 0) {
+                return -1;
+            }
+            int degree = graph.getDegree(course);
+            if (count < bestCount || (count == bestCount && degree > bestDegree)) {
+                best = course;
+                bestCount = count;
+                bestDegree = degree;
+            }
         }
+        return best;
+    }
 
-        // Sort days by exam count (prefer emptier days)
-        List<Integer> dayOffsets = new ArrayList<>();
-        for (int i = 0; i < maxDays; i++) {
-            dayOffsets.add(i);
+    /**
+     * Domain positions of a course that also have free rooms; counting stops
+     * once it exceeds {@code limit}.
+     */
+    private int countOptions(Attempt attempt, int course, int limit) {
+        SchedulingProblem problem = attempt.problem;
+        CourseDomains domains = attempt.domains;
+        if (domains.size(course) == 0) {
+            return 0;
         }
-        dayOffsets.sort(Comparator.comparingInt(d -> examsPerDay.getOrDefault(d, 0)));
+        int span = problem.getSlotSpan(course);
+        int slots = problem.getSlotCount();
+        long[] bits = domains.getBits();
+        int words = domains.getWordCount();
+        int count = 0;
+
+        for (int w = 0; w < words; w++) {
+            long word = bits[course * words + w];
+            while (word != 0) {
+                int position = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (RoomMatcher.fits(problem, attempt.state, course, position / slots, position % slots, span)
+                        && ++count > limit) {
+                    return count;
+                }
+            }
+        }
+        return count;
+    }
 
-        for (int dayOffset : dayOffsets) {
-            LocalDate date = startDate.plusDays(dayOffset);
+    /**
+     * Domain positions of a course, encoded as {@code day * slotCount + slot},
+     * day by day in order (shuffled when randomized).
+     */
+    private int[] orderByDay(Attempt attempt, int course) {
+        CourseDomains domains = attempt.domains;
+        int slots = attempt.problem.getSlotCount();
+        int[] dayOrder = identity(attempt.state.getDays());
+        if (attempt.random != null) {
+            shuffle(dayOrder, attempt.random);
+        }
+        if (attempt.preferredDay != null && attempt.preferredDay[course] >= 0) {
+            sortByDistance(dayOrder, attempt.preferredDay[course]);
+        }
 
-            boolean dayBlocked = false;
-            for (ExamPart part : courseParts) {
-                if (anyStudentHasMaxExamsOnDay(part.students, date, state)) {
-                    dayBlocked = true;
-                    break;
+        int[] options = new int[domains.size(course)];
+        int count = 0;
+        for (int day : dayOrder) {
+            // Prepare time slot order - shuffle for variety
+            int[] slotOrder = identity(attempt.problem.getStartSlotCount(course));
+            if (attempt.random != null) {
+                shuffle(slotOrder, attempt.random);
+            }
+            if (attempt.preferredSlot != null && attempt.preferredSlot[course] >= 0) {
+                sortByDistance(slotOrder, attempt.preferredSlot[course]);
+            }
+            for (int slot : slotOrder) {
+                if (domains.contains(course, day, slot)) {
+                    options[count++] = day * slots + slot;
                 }
             }
-            if (dayBlocked)
-                continue;
+        }
+        return options;
+    }
 
-            // Prepare time slot order - shuffle for variety
-            List<LocalTime> slotOrder = new ArrayList<>(timeSlots);
-            if (useRandomization) {
-                Collections.shuffle(slotOrder, random);
+    /**
+     * Domain positions of a course ordered least constraining first: by the
+     * starts the placement would take from the domains of unplaced neighbours
+     * on the same day. Rooms are checked when an option is tried.
+     */
+    private int[] orderLeastConstraining(Attempt attempt, int course) {
+        SchedulingProblem problem = attempt.problem;
+        IndexedScheduleState state = attempt.state;
+        CourseDomains domains = attempt.domains;
+        ConflictGraph graph = attempt.context.getGraph();
+        int minGap = attempt.context.getMinGapMinutes();
+        int slots = problem.getSlotCount();
+        int[] neighbourOffsets = graph.getNeighbourOffsets();
+        int[] neighbours = graph.getNeighbours();
+
+        int[] positions = orderByDay(attempt, course);
+
+        // Score in the high half, enumeration order in the low half keeps the sort stable
+        long[] keys = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            int day = positions[i] / slots;
+            int slot = positions[i] % slots;
+            long score = 0;
+            for (int n = neighbourOffsets[course]; n < neighbourOffsets[course + 1]; n++) {
+                int other = neighbours[n];
+                if (!state.isPlaced(other)) {
+                    score += domains.countRange(other, day,
+                            CourseDomains.firstExcludedStart(problem, slot, other, minGap),
+                            CourseDomains.lastExcludedStart(problem, course, slot, other, minGap));
+                }
             }
+            keys[i] = (score << 32) | i;
+        }
 
-            for (LocalTime slotStart : slotOrder) {
-                LocalTime slotEnd = slotStart.plusMinutes(examDuration);
+        Arrays.sort(keys);
+        int[] options = new int[positions.length];
+        for (int i = 0; i < keys.length; i++) {
+            options[i] = positions[(int) keys[i]];
+        }
+        return options;
+    }
 
-                if (slotEnd.isAfter(LocalTime.of(18, 30))) {
-                    continue;
+    /**
+     * Picks rooms for a course at (day, slot) from the free rooms: as many as
+     * its parts, fewest empty seats, less used rooms on ties. Randomized
+     * attempts jitter the costs for variety. Returns false if they do not fit.
+     */
+    private static boolean assignRooms(Attempt attempt, int course, int day, int slot, int span) {
+        SchedulingProblem problem = attempt.problem;
+        IndexedScheduleState state = attempt.state;
+        int enrolled = problem.getEnrollmentCount(course);
+        int roomCount = problem.getPartSizes(course).length;
+        // A single room must hold everyone; split courses may use any room
+        int smallest = roomCount == 1 ? enrolled : 0;
+        if (state.getFreeRooms(day, slot, span, attempt.freeRooms) < roomCount) {
+            return false;
+        }
+        int count = 0;
+        scan: for (int w = 0; w < attempt.freeRooms.length; w++) {
+            long word = attempt.freeRooms[w];
+            while (word != 0) {
+                int room = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (problem.getCapacity(room) < smallest) {
+                    break scan; // rooms are sorted by capacity, the rest are smaller
                 }
+                attempt.candidates[count++] = room;
+            }
+        }
+        if (count > roomCount) {
+            attempt.roomsGuessed = true;
+        }
+        return attempt.matcher.assign(enrolled, roomCount, attempt.candidates, count, state, attempt.random,
+                attempt.rooms);
+    }
 
-                ExamSlot slot = new ExamSlot(date, slotStart, slotEnd);
+    /**
+     * Spread scheduling for alternative schedules
+     */
+    private ExamTimetable attemptScheduleSpread(SchedulingContext context, int maxDays, Random random) {
+        SchedulingProblem problem = context.getProblem();
+        Attempt attempt = new Attempt(context, maxDays, new AtomicBoolean(false), random);
 
-                List<Classroom> assignedClassrooms = new ArrayList<>();
-                Set<String> newlyUsedClassrooms = new HashSet<>();
-                boolean canPlaceAllParts = true;
+        for (int course = 0; course < problem.getCourseCount(); course++) {
+            if (!scheduleCourseSpread(attempt, course)) {
+                return null;
+            }
+        }
 
-                for (ExamPart part : courseParts) {
-                    Classroom assigned = findSuitableClassroom(part, slot, workingClassrooms,
-                            newlyUsedClassrooms, classroomUsageCount, state);
+        return attempt.state.toTimetable();
+    }
 
-                    if (assigned == null) {
-                        canPlaceAllParts = false;
-                        break;
-                    }
+    private boolean scheduleCourseSpread(Attempt attempt, int course) {
+        SchedulingProblem problem = attempt.problem;
+        IndexedScheduleState state = attempt.state;
+        int span = problem.getSlotSpan(course);
 
-                    assignedClassrooms.add(assigned);
-                    newlyUsedClassrooms.add(assigned.getId());
-                }
+        // Prefer days with fewer conflicting courses, then emptier days
+        int[] dayOrder = identity(state.getDays());
+        sortBySpread(dayOrder, state, course);
 
-                if (!canPlaceAllParts) {
-                    continue;
-                }
+        for (int day : dayOrder) {
+            if (state.exceedsDailyLimit(course, day)) {
+                continue;
+            }
 
-                // Check student constraints: en az 3 saat (180 dk) boşluk olmalı
-                boolean studentConstraintsOk = true;
-                for (ExamPart part : courseParts) {
-                    for (Student student : part.students) {
-                        List<Exam> studentExamsToday = state.getExamsForStudentDate(student.getId(), date);
-                        for (Exam existing : studentExamsToday) {
-                            long gapMinutes = calculateGapMinutes(existing.getSlot(), slot);
-                            if (gapMinutes < 180) {
-                                studentConstraintsOk = false;
-                                break;
-                            }
-                        }
-                        if (!studentConstraintsOk)
-                            break;
-                    }
-                    if (!studentConstraintsOk)
-                        break;
-                }
+            // Prepare time slot order - shuffle for variety
+            int[] slotOrder = identity(problem.getStartSlotCount(course));
+            if (attempt.random != null) {
+                shuffle(slotOrder, attempt.random);
+            }
 
-                if (!studentConstraintsOk) {
+            for (int slot : slotOrder) {
+                if (!assignRooms(attempt, course, day, slot, span)) {
                     continue;
                 }
 
-                // Place all parts
-                for (int i = 0; i < courseParts.size(); i++) {
-                    ExamPart part = courseParts.get(i);
-                    Classroom classroom = assignedClassrooms.get(i);
-
-                    Exam exam = new Exam(part.course, classroom, slot);
-                    scheduledExams.add(exam);
-                    state.add(exam);
-                    classroomUsageCount.merge(classroom.getId(), 1, Integer::sum);
+                // Check student constraints: en az 3 saat (180 dk) boşluk olmalı
+                if (!state.respectsMinimumGap(course, day, slot, attempt.context.getMinGapMinutes())) {
+                    continue;
                 }
 
-                examsPerDay.merge(dayOffset, 1, Integer::sum);
+                attempt.place(course, day, slot);
                 return true;
             }
         }
@@ -928,47 +1710,48 @@ public class SchedulerService {
         }
     }
 
-    private void buildLookupMaps(List<Enrollment> enrollments) {
-        System.out.println("\nBuilding lookup maps...");
+    private SchedulingContext createContext(List<Course> courses, List<Classroom> classrooms,
+            List<Enrollment> enrollments, LocalDate startDate, int maxDays, boolean randomized,
+            SchedulingProgressListener listener, CancellationToken token) {
+        System.out.println("\nCompiling scheduling problem...");
 
-        courseStudentsMap = enrollments.stream()
-                .collect(Collectors.groupingBy(
-                        e -> e.getCourse().getCode(),
-                        Collectors.mapping(Enrollment::getStudent, Collectors.toList())));
+        SchedulingPolicy runPolicy = policy;
+        SchedulingProblem problem = new SchedulingProblem(courses, classrooms, enrollments, startDate, maxDays,
+                runPolicy);
 
-        enrollmentCounts = new HashMap<>();
-        for (Map.Entry<String, List<Student>> entry : courseStudentsMap.entrySet()) {
-            enrollmentCounts.put(entry.getKey(), entry.getValue().size());
-        }
-
-        studentCoursesMap = new HashMap<>();
-        for (Enrollment e : enrollments) {
-            String studentId = e.getStudent().getId();
-            String courseCode = e.getCourse().getCode();
-            studentCoursesMap.computeIfAbsent(studentId, k -> new HashSet<>()).add(courseCode);
+        int coursesWithEnrollments = 0;
+        for (int c = 0; c < problem.getCourseCount(); c++) {
+            if (problem.getEnrollmentCount(c) > 0) {
+                coursesWithEnrollments++;
+            }
         }
-
-        System.out.println("  Courses with enrollments: " + courseStudentsMap.size());
-        System.out.println("  Unique students: " + studentCoursesMap.size());
+        System.out.println("  Courses with enrollments: " + coursesWithEnrollments);
+        System.out.println("  Unique students: " + problem.getStudentCount());
 
         // Calculate adaptive timeout based on data size
-        cachedTimeoutMs = calculateAdaptiveTimeout(
-                courseStudentsMap.size(),
-                studentCoursesMap.size(),
+        long timeoutMs = calculateAdaptiveTimeout(
+                coursesWithEnrollments,
+                problem.getStudentCount(),
                 enrollments.size());
-        System.out.println("  Adaptive timeout set to: " + cachedTimeoutMs + "ms");
+        System.out.println("  Adaptive timeout set to: " + timeoutMs + "ms");
+
+        // Bir öğrencinin aynı gün girdiği sınavlar arasında en az 3 saat boşluk olmalı (politikaya göre)
+        return new SchedulingContext(problem, new ConflictGraph(problem), timeoutMs, randomized, dynamicOrdering,
+                largeNeighbourhoodSearch, parallelRestarts, parallelism, runPolicy.getMinGapMinutes(),
+                runPolicy.getMaxExamsPerDay(), random.nextLong(), listener,
+                token != null ? token : new CancellationToken());
     }
 
     /**
      * Calculates adaptive timeout based on data complexity.
      * Larger datasets require more time to find optimal solutions.
-     * 
+     *
      * Formula: Uses logarithmic scaling based on course count and enrollment size.
      * - Small datasets (<50 courses, <500 enrollments): 5 seconds
      * - Medium datasets: 10-15 seconds
      * - Large datasets: 20-30 seconds
      * - Extra large datasets: 30-45 seconds
-     * 
+     *
      * @param courseCount     Number of unique courses
      * @param studentCount    Number of unique students
      * @param enrollmentCount Total enrollment records
@@ -997,70 +1780,129 @@ public class SchedulerService {
         return timeoutMs;
     }
 
-    private List<LocalTime> generateTimeSlots() {
-        List<LocalTime> slots = new ArrayList<>();
-        LocalTime start = LocalTime.of(9, 0);
+    private DayLowerBound calculateMinDaysNeeded(SchedulingContext context) {
+        DayLowerBound bound = DayLowerBound.compute(context.getProblem(), context.getGraph(),
+                context.getMinGapMinutes(), context.getMaxExamsPerDay());
+        System.out.println("  Minimum days estimate: " + bound);
+        return bound;
+    }
 
-        while (!start.isAfter(LocalTime.of(18, 0))) {
-            slots.add(start);
-            start = start.plusMinutes(30);
+    /**
+     * Fails before the first probe if the lower bounds or an unplaceable
+     * course already prove that {@code maxDays} days are not enough, instead
+     * of letting every probe run into its timeout.
+     */
+    private static void failIfProvenInfeasible(SchedulingContext context, DayLowerBound bound, int maxDays) {
+        InfeasibilityDiagnosis diagnosis = diagnose(context, bound, maxDays);
+        if (diagnosis.isProven()) {
+            System.out.println("  Infeasible before search:\n" + diagnosis);
+            throw new InfeasibleScheduleException(noScheduleMessage(maxDays), diagnosis);
         }
-        return slots;
     }
 
-    private int calculateMinDaysNeeded(List<ExamPart> examParts, List<Classroom> classrooms) {
-        Set<String> uniqueCourses = examParts.stream()
-                .map(p -> p.course.getCode())
-                .collect(Collectors.toSet());
-        int courseCount = uniqueCourses.size();
+    /** The exception for a search that found nothing, with whatever the diagnosis can prove. */
+    private static InfeasibleScheduleException infeasible(SchedulingContext context, DayLowerBound bound,
+            int maxDays) {
+        return new InfeasibleScheduleException(noScheduleMessage(maxDays), diagnose(context, bound, maxDays));
+    }
+
+    private static InfeasibilityDiagnosis diagnose(SchedulingContext context, DayLowerBound bound, int maxDays) {
+        return InfeasibilityDiagnosis.analyze(context.getProblem(), bound, context.getMinGapMinutes(),
+                context.getMaxExamsPerDay(), maxDays);
+    }
 
-        double totalExamMinutes = examParts.stream()
-                .filter(ExamPart::isFirstPart)
-                .mapToDouble(p -> p.course.getExamDurationMinutes())
-                .sum();
-        double dailyClassroomMinutes = classrooms.size() * 570.0;
-        int minDaysForCapacity = (int) Math.ceil(totalExamMinutes / dailyClassroomMinutes);
+    private static String noScheduleMessage(int maxDays) {
+        return "Could not find a valid schedule within " + maxDays + " days. "
+                + "Constraints may be too tight. Try extending the date range.";
+    }
 
-        long maxExamsForStudent = studentCoursesMap.values().stream()
-                .mapToLong(Set::size)
-                .max()
-                .orElse(0);
-        int minDaysForStudents = (int) Math.ceil((double) maxExamsForStudent / 2.0);
+    /** Builds the timetable of a complete state and caches it under the days it spans. */
+    private static ExamTimetable remember(SchedulingContext context, IndexedScheduleState state) {
+        ExamTimetable timetable = state.toTimetable();
+        int span = 0;
+        for (int course = 0; course < context.getProblem().getCourseCount(); course++) {
+            span = Math.max(span, state.getCourseDay(course) + 1);
+        }
+        context.getCache().recordSolution(span, timetable);
+        return timetable;
+    }
 
-        int slotsPerDay = 3;
-        int minDaysForSlots = (int) Math.ceil((double) courseCount / (classrooms.size() * slotsPerDay));
+    /** Days from the start date to the last exam of a timetable, inclusive. */
+    private static int spanDays(SchedulingProblem problem, ExamTimetable timetable) {
+        int span = 1;
+        for (Exam exam : timetable.getExams()) {
+            span = Math.max(span, problem.dayIndex(exam.getSlot().getDate()) + 1);
+        }
+        return span;
+    }
 
-        int result = Math.max(Math.max(minDaysForCapacity, minDaysForStudents), minDaysForSlots);
-        System.out.println("  Minimum days estimate: " + result + " (capacity=" + minDaysForCapacity +
-                ", students=" + minDaysForStudents + ", slots=" + minDaysForSlots + ")");
-        return result;
+    private static boolean containsRoom(int[] rooms, int count, int room) {
+        for (int i = 0; i < count; i++) {
+            if (rooms[i] == room) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private long calculateGapMinutes(ExamSlot slot1, ExamSlot slot2) {
-        if (!slot1.getDate().equals(slot2.getDate())) {
-            return Long.MAX_VALUE;
+    /** Sorts values by distance from {@code target}, the smaller value first on ties. */
+    private static void sortByDistance(int[] values, int target) {
+        long[] keys = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            int value = values[i];
+            keys[i] = ((long) Math.abs(value - target) << 32) | ((long) value << 16) | i;
         }
+        Arrays.sort(keys);
+        int[] sorted = new int[values.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = values[(int) (keys[i] & 0xFFFF)];
+        }
+        System.arraycopy(sorted, 0, values, 0, values.length);
+    }
 
-        LocalTime end1 = slot1.getEndTime();
-        LocalTime start1 = slot1.getStartTime();
-        LocalTime end2 = slot2.getEndTime();
-        LocalTime start2 = slot2.getStartTime();
+    private static int[] identity(int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
 
-        if (end1.isBefore(start2) || end1.equals(start2)) {
-            return java.time.Duration.between(end1, start2).toMinutes();
-        } else if (end2.isBefore(start1) || end2.equals(start1)) {
-            return java.time.Duration.between(end2, start1).toMinutes();
-        } else {
-            return 0;
+    /** Fisher-Yates, same draw order as {@link java.util.Collections#shuffle}. */
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
         }
     }
 
-    private boolean anyStudentHasMaxExamsOnDay(List<Student> students, LocalDate date, ScheduleState state) {
-        for (Student s : students) {
-            if (state.getExamsCountForStudentDate(s.getId(), date) >= 2) {
-                return true;
+    /**
+     * Sorts days by the course's conflicting courses already on them, then by
+     * their exam count, so students get their exams on separate days first.
+     */
+    private static void sortBySpread(int[] days, IndexedScheduleState state, int course) {
+        ConflictGraph graph = state.getGraph();
+        int words = graph.getWordCount();
+        long[] neighbourBits = graph.getNeighbourBits();
+        long[] dayCourses = state.getDayCourses();
+        long[] keys = new long[state.getDays()];
+        for (int day : days) {
+            int conflicts = 0;
+            for (int w = 0; w < words; w++) {
+                conflicts += Long.bitCount(neighbourBits[course * words + w] & dayCourses[day * words + w]);
             }
+            keys[day] = ((long) conflicts << 32) | state.getExamsOnDay(day);
+        }
+        for (int i = 1; i < days.length; i++) {
+            int day = days[i];
+            int j = i - 1;
+            while (j >= 0 && keys[days[j]] > keys[day]) {
+                days[j + 1] = days[j];
+                j--;
+            }
+            days[j + 1] = day;
         }
-        return false;
     }
 }
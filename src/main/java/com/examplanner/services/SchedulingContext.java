@@ -0,0 +1,132 @@
+package com.examplanner.services;
+
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Everything one scheduling run needs, fixed when the run starts, plus the
+ * run's {@link ProbeCache}.
+ *
+ * {@link SchedulerService} builds a context per generate call and passes it
+ * through every attempt, so the service itself keeps no per-run state and one
+ * instance can serve many concurrent runs. The service settings (randomization,
+ * parallelism) are copied in at the start of the run; changing them later
+ * affects only the next run.
+ */
+final class SchedulingContext {
+
+    private final SchedulingProblem problem;
+    private final ConflictGraph graph;
+    private final long timeoutMs;
+    private final boolean randomized;
+    private final boolean dynamicOrdering;
+    private final boolean largeNeighbourhoodSearch;
+    private final boolean parallelRestarts;
+    private final int parallelism;
+    private final int minGapMinutes;
+    private final int maxExamsPerDay;
+    // Seeds the Random of each attempt; java.util.Random is thread-safe
+    private final Random seedSource;
+    // Solutions and proven infeasibility shared by the probes of this run
+    private final ProbeCache cache = new ProbeCache();
+    // Progress reporting and cancellation; the listener may be null
+    private final SchedulingProgressListener listener;
+    private final CancellationToken token;
+    private final LongAdder nodes = new LongAdder();
+    private final long startNanos = System.nanoTime();
+
+    SchedulingContext(SchedulingProblem problem, ConflictGraph graph, long timeoutMs, boolean randomized,
+            boolean dynamicOrdering, boolean largeNeighbourhoodSearch, boolean parallelRestarts, int parallelism,
+            int minGapMinutes, int maxExamsPerDay, long seed, SchedulingProgressListener listener,
+            CancellationToken token) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive, got: " + parallelism);
+        }
+        this.problem = problem;
+        this.graph = graph;
+        this.timeoutMs = timeoutMs;
+        this.randomized = randomized;
+        this.dynamicOrdering = dynamicOrdering;
+        this.largeNeighbourhoodSearch = largeNeighbourhoodSearch;
+        this.parallelRestarts = parallelRestarts;
+        this.parallelism = parallelism;
+        this.minGapMinutes = minGapMinutes;
+        this.maxExamsPerDay = maxExamsPerDay;
+        this.seedSource = new Random(seed);
+        this.listener = listener;
+        this.token = token;
+    }
+
+    SchedulingProblem getProblem() {
+        return problem;
+    }
+
+    ConflictGraph getGraph() {
+        return graph;
+    }
+
+    long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    boolean isRandomized() {
+        return randomized;
+    }
+
+    /** Most-constrained-first course ordering in backtracking instead of the fixed size order. */
+    boolean isDynamicOrdering() {
+        return dynamicOrdering;
+    }
+
+    /** Destroy-and-repair search when backtracking times out at a day count. */
+    boolean isLargeNeighbourhoodSearch() {
+        return largeNeighbourhoodSearch;
+    }
+
+    /** Backtracking restarts for the final schedule run on {@link #getParallelism()} threads. */
+    boolean isParallelRestarts() {
+        return parallelRestarts;
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    int getMinGapMinutes() {
+        return minGapMinutes;
+    }
+
+    int getMaxExamsPerDay() {
+        return maxExamsPerDay;
+    }
+
+    ProbeCache getCache() {
+        return cache;
+    }
+
+    SchedulingProgressListener getListener() {
+        return listener;
+    }
+
+    boolean isCancelled() {
+        return token.isCancelled();
+    }
+
+    /** Counts one backtracking node; cheap under contention. */
+    void countNode() {
+        nodes.increment();
+    }
+
+    long getNodeCount() {
+        return nodes.sum();
+    }
+
+    long getElapsedMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /** Fresh Random for one attempt, or null when the run is deterministic. */
+    Random newAttemptRandom() {
+        return randomized ? new Random(seedSource.nextLong()) : null;
+    }
+}
@@ -0,0 +1,146 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.ExamSlot;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The timing rules a timetable is built and checked against: the daily exam
+ * window, the start-time grid, the minimum gap between a student's exams on
+ * one day and the most exams a student may sit per day.
+ *
+ * The default is the 09:00–18:30 window on a 30-minute grid, 180 minutes
+ * apart and at most 2 exams a day. A coarser grid (60 or 90 minutes) leaves
+ * fewer start times per day, which shrinks the search for large problems.
+ *
+ * Immutable; the {@code with...} methods return modified copies.
+ */
+public class SchedulingPolicy {
+
+    public static final SchedulingPolicy DEFAULT = new SchedulingPolicy(LocalTime.of(9, 0), LocalTime.of(18, 30),
+            30, 180, 2);
+
+    private final LocalTime dayStart;
+    private final LocalTime dayEnd;
+    private final int slotMinutes;
+    private final int minGapMinutes;
+    private final int maxExamsPerDay;
+
+    public SchedulingPolicy(LocalTime dayStart, LocalTime dayEnd, int slotMinutes, int minGapMinutes,
+            int maxExamsPerDay) {
+        if (dayStart == null || dayEnd == null) {
+            throw new IllegalArgumentException("Day start and end cannot be null");
+        }
+        if (!dayStart.isBefore(dayEnd)) {
+            throw new IllegalArgumentException("Day start must be before day end, got: " + dayStart + " - " + dayEnd);
+        }
+        if (slotMinutes <= 0) {
+            throw new IllegalArgumentException("Slot length must be positive, got: " + slotMinutes);
+        }
+        if (minGapMinutes < 0) {
+            throw new IllegalArgumentException("Minimum gap cannot be negative, got: " + minGapMinutes);
+        }
+        if (maxExamsPerDay <= 0) {
+            throw new IllegalArgumentException("Max exams per day must be positive, got: " + maxExamsPerDay);
+        }
+        this.dayStart = dayStart;
+        this.dayEnd = dayEnd;
+        this.slotMinutes = slotMinutes;
+        this.minGapMinutes = minGapMinutes;
+        this.maxExamsPerDay = maxExamsPerDay;
+    }
+
+    public SchedulingPolicy withWindow(LocalTime dayStart, LocalTime dayEnd) {
+        return new SchedulingPolicy(dayStart, dayEnd, slotMinutes, minGapMinutes, maxExamsPerDay);
+    }
+
+    public SchedulingPolicy withSlotMinutes(int slotMinutes) {
+        return new SchedulingPolicy(dayStart, dayEnd, slotMinutes, minGapMinutes, maxExamsPerDay);
+    }
+
+    public SchedulingPolicy withMinGapMinutes(int minGapMinutes) {
+        return new SchedulingPolicy(dayStart, dayEnd, slotMinutes, minGapMinutes, maxExamsPerDay);
+    }
+
+    public SchedulingPolicy withMaxExamsPerDay(int maxExamsPerDay) {
+        return new SchedulingPolicy(dayStart, dayEnd, slotMinutes, minGapMinutes, maxExamsPerDay);
+    }
+
+    public LocalTime getDayStart() {
+        return dayStart;
+    }
+
+    public LocalTime getDayEnd() {
+        return dayEnd;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public int getMinGapMinutes() {
+        return minGapMinutes;
+    }
+
+    public int getMaxExamsPerDay() {
+        return maxExamsPerDay;
+    }
+
+    /** Minutes since midnight of the window start. */
+    public int getDayStartMinutes() {
+        return dayStart.getHour() * 60 + dayStart.getMinute();
+    }
+
+    public int getWindowMinutes() {
+        return getDayEndMinutes() - getDayStartMinutes();
+    }
+
+    /**
+     * Grid cells per day; the last one may reach past the window end when the
+     * window is not a whole number of slots.
+     */
+    public int getSlotCount() {
+        return (getWindowMinutes() + slotMinutes - 1) / slotMinutes;
+    }
+
+    /** Start times on the grid, from the window start up to the last one inside the window. */
+    public List<LocalTime> getStartTimes() {
+        List<LocalTime> times = new ArrayList<>();
+        for (int slot = 0; slot < getSlotCount(); slot++) {
+            times.add(dayStart.plusMinutes((long) slot * slotMinutes));
+        }
+        return times;
+    }
+
+    /**
+     * Start times on the grid at which an exam of the given length still ends
+     * inside the window; empty if it is longer than the window.
+     */
+    public List<LocalTime> getStartTimes(int durationMinutes) {
+        List<LocalTime> times = new ArrayList<>();
+        if (durationMinutes > getWindowMinutes()) {
+            return times;
+        }
+        int count = Math.min(getSlotCount(), (getWindowMinutes() - durationMinutes) / slotMinutes + 1);
+        for (int slot = 0; slot < count; slot++) {
+            times.add(dayStart.plusMinutes((long) slot * slotMinutes));
+        }
+        return times;
+    }
+
+    public boolean isWithinWindow(ExamSlot slot) {
+        return !slot.getStartTime().isBefore(dayStart) && !slot.getEndTime().isAfter(dayEnd);
+    }
+
+    private int getDayEndMinutes() {
+        return dayEnd.getHour() * 60 + dayEnd.getMinute();
+    }
+
+    @Override
+    public String toString() {
+        return dayStart + "-" + dayEnd + " every " + slotMinutes + " min, gap " + minGapMinutes
+                + " min, max " + maxExamsPerDay + "/day";
+    }
+}
@@ -0,0 +1,435 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.Classroom;
+import com.examplanner.domain.Course;
+import com.examplanner.domain.Enrollment;
+import com.examplanner.domain.ExamSlot;
+import com.examplanner.domain.Student;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiled, integer-indexed view of one scheduling problem.
+ *
+ * Built once per generate call so that the search loops work on dense ids and
+ * flat arrays instead of hashing student IDs, course codes and dates:
+ * - courses are numbered in scheduling order (largest exam part first),
+ * - classrooms are numbered by descending capacity, and rooms of equal
+ * capacity form one equivalence class (interchangeable for the search),
+ * - days are offsets from the start date,
+ * - time slots are indices on the grid of the {@link SchedulingPolicy}
+ * (by default every 30 minutes from 09:00).
+ *
+ * Enrollments are stored in CSR form: the students of course {@code c} are
+ * {@code courseStudents[courseStudentOffsets[c] .. courseStudentOffsets[c + 1])}
+ * and the courses of student {@code s} are laid out the same way.
+ *
+ * Instances are immutable after construction and may be shared between
+ * scheduling attempts.
+ */
+public class SchedulingProblem {
+
+    private final LocalDate startDate;
+    private final LocalDate[] dates;
+    private final List<Enrollment> enrollments;
+
+    private final Course[] courses;
+    private final Student[] students;
+    private final Classroom[] classrooms;
+    // room -> capacity class, 0 for the largest capacity
+    private final int[] roomClasses;
+    private final int roomClassCount;
+
+    private final Map<String, Integer> courseIds;
+    private final Map<String, Integer> studentIds;
+    private final Map<String, Integer> classroomIds;
+
+    private final int[] courseStudentOffsets;
+    private final int[] courseStudents;
+    private final int[] studentCourseOffsets;
+    private final int[] studentCourses;
+
+    private final int[] durations;
+    private final int[] slotSpans;
+    private final int[] startSlotCounts;
+    private final int[][] partSizes;
+    private final int partCount;
+    private final SchedulingPolicy policy;
+    private final int dayStartMinutes;
+    private final int slotMinutes;
+    private final int slotCount;
+
+    public SchedulingProblem(List<Course> courseList, List<Classroom> classroomList,
+            List<Enrollment> enrollmentList, LocalDate startDate, int dayCount) {
+        this(courseList, classroomList, enrollmentList, startDate, dayCount, SchedulingPolicy.DEFAULT);
+    }
+
+    public SchedulingProblem(List<Course> courseList, List<Classroom> classroomList,
+            List<Enrollment> enrollmentList, LocalDate startDate, int dayCount, SchedulingPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Scheduling policy cannot be null");
+        }
+        if (startDate == null) {
+            throw new IllegalArgumentException("Start date cannot be null");
+        }
+        if (dayCount <= 0) {
+            throw new IllegalArgumentException("Day count must be positive, got: " + dayCount);
+        }
+        this.startDate = startDate;
+        this.enrollments = enrollmentList;
+        this.dates = new LocalDate[dayCount];
+        for (int d = 0; d < dayCount; d++) {
+            dates[d] = startDate.plusDays(d);
+        }
+        this.policy = policy;
+        this.dayStartMinutes = policy.getDayStartMinutes();
+        this.slotMinutes = policy.getSlotMinutes();
+        this.slotCount = policy.getSlotCount();
+
+        // Classrooms: largest first, ties keep input order
+        this.classrooms = classroomList.stream()
+                .sorted(Comparator.comparingInt(Classroom::getCapacity).reversed())
+                .toArray(Classroom[]::new);
+        this.classroomIds = new HashMap<>();
+        for (int r = 0; r < classrooms.length; r++) {
+            classroomIds.putIfAbsent(classrooms[r].getId(), r);
+        }
+        int[] capacities = new int[classrooms.length];
+        this.roomClasses = new int[classrooms.length];
+        int classCount = 0;
+        for (int r = 0; r < classrooms.length; r++) {
+            capacities[r] = classrooms[r].getCapacity();
+            if (r > 0 && capacities[r] != capacities[r - 1]) {
+                classCount++;
+            }
+            roomClasses[r] = classCount;
+        }
+        this.roomClassCount = classrooms.length == 0 ? 0 : classCount + 1;
+
+        // Unique courses by code (first occurrence wins)
+        Map<String, Course> uniqueCourses = new HashMap<>();
+        List<Course> courseOrder = new ArrayList<>();
+        for (Course course : courseList) {
+            if (uniqueCourses.putIfAbsent(course.getCode(), course) == null) {
+                courseOrder.add(course);
+            }
+        }
+
+        // Students per course, deduplicated, in enrollment order
+        Map<String, List<Student>> studentsByCourse = new HashMap<>();
+        Map<String, Set<String>> seen = new HashMap<>();
+        Map<String, Student> uniqueStudents = new HashMap<>();
+        List<Student> studentOrder = new ArrayList<>();
+        for (Enrollment e : enrollmentList) {
+            String code = e.getCourse().getCode();
+            if (!uniqueCourses.containsKey(code)) {
+                continue;
+            }
+            Student student = e.getStudent();
+            if (!seen.computeIfAbsent(code, k -> new HashSet<>()).add(student.getId())) {
+                continue;
+            }
+            studentsByCourse.computeIfAbsent(code, k -> new ArrayList<>()).add(student);
+            if (uniqueStudents.putIfAbsent(student.getId(), student) == null) {
+                studentOrder.add(student);
+            }
+        }
+
+        // Scheduling order: largest part first, then course code
+        Map<String, int[]> partsByCode = new HashMap<>();
+        for (Course course : courseOrder) {
+            int enrolled = studentsByCourse.getOrDefault(course.getCode(), List.of()).size();
+            partsByCode.put(course.getCode(), splitIntoParts(enrolled, capacities));
+        }
+        courseOrder.sort(Comparator
+                .comparingInt((Course c) -> partsByCode.get(c.getCode())[0]).reversed()
+                .thenComparing(Course::getCode));
+
+        int n = courseOrder.size();
+        this.courses = courseOrder.toArray(new Course[0]);
+        this.courseIds = new HashMap<>();
+        this.durations = new int[n];
+        this.slotSpans = new int[n];
+        this.startSlotCounts = new int[n];
+        this.partSizes = new int[n][];
+        int window = policy.getWindowMinutes();
+        int parts = 0;
+        for (int c = 0; c < n; c++) {
+            Course course = courses[c];
+            courseIds.put(course.getCode(), c);
+            durations[c] = course.getExamDurationMinutes();
+            slotSpans[c] = (durations[c] + slotMinutes - 1) / slotMinutes;
+            startSlotCounts[c] = durations[c] > window ? 0
+                    : Math.min(slotCount, (window - durations[c]) / slotMinutes + 1);
+            partSizes[c] = partsByCode.get(course.getCode());
+            parts += partSizes[c].length;
+        }
+        this.partCount = parts;
+
+        this.students = studentOrder.toArray(new Student[0]);
+        this.studentIds = new HashMap<>();
+        for (int s = 0; s < students.length; s++) {
+            studentIds.put(students[s].getId(), s);
+        }
+
+        // CSR: course -> students
+        this.courseStudentOffsets = new int[n + 1];
+        for (int c = 0; c < n; c++) {
+            courseStudentOffsets[c + 1] = courseStudentOffsets[c]
+                    + studentsByCourse.getOrDefault(courses[c].getCode(), List.of()).size();
+        }
+        this.courseStudents = new int[courseStudentOffsets[n]];
+        int[] studentDegree = new int[students.length];
+        for (int c = 0; c < n; c++) {
+            int i = courseStudentOffsets[c];
+            for (Student s : studentsByCourse.getOrDefault(courses[c].getCode(), List.of())) {
+                int sid = studentIds.get(s.getId());
+                courseStudents[i++] = sid;
+                studentDegree[sid]++;
+            }
+        }
+
+        // CSR: student -> courses (transpose)
+        this.studentCourseOffsets = new int[students.length + 1];
+        for (int s = 0; s < students.length; s++) {
+            studentCourseOffsets[s + 1] = studentCourseOffsets[s] + studentDegree[s];
+        }
+        this.studentCourses = new int[studentCourseOffsets[students.length]];
+        int[] fill = Arrays.copyOf(studentCourseOffsets, students.length);
+        for (int c = 0; c < n; c++) {
+            for (int i = courseStudentOffsets[c]; i < courseStudentOffsets[c + 1]; i++) {
+                studentCourses[fill[courseStudents[i]]++] = c;
+            }
+        }
+    }
+
+    /**
+     * Splits an enrollment over the fewest rooms that can hold it: as many
+     * parts as it takes of the largest rooms, sized in proportion to their
+     * capacities, so part 0 is always the largest. These sizes are nominal;
+     * {@link RoomMatcher} packs the course into any rooms of that count whose
+     * capacities add up. An enrollment beyond all rooms together falls back
+     * to equal parts of the largest room.
+     *
+     * @param capacities room capacities, largest first
+     */
+    static int[] splitIntoParts(int studentCount, int[] capacities) {
+        int maxCapacity = capacities.length == 0 ? 0 : capacities[0];
+        if (studentCount == 0 || maxCapacity <= 0 || studentCount <= maxCapacity) {
+            return new int[] { studentCount };
+        }
+        long total = 0;
+        int numParts = 0;
+        while (numParts < capacities.length && total < studentCount) {
+            total += capacities[numParts++];
+        }
+        if (total < studentCount) {
+            numParts = (studentCount + maxCapacity - 1) / maxCapacity;
+            int baseSize = studentCount / numParts;
+            int remainder = studentCount % numParts;
+            int[] sizes = new int[numParts];
+            for (int p = 0; p < numParts; p++) {
+                sizes[p] = baseSize + (p < remainder ? 1 : 0);
+            }
+            return sizes;
+        }
+
+        // Proportional shares, rounded down; the leftover goes to the largest rooms first
+        int[] sizes = new int[numParts];
+        int assigned = 0;
+        for (int p = 0; p < numParts; p++) {
+            sizes[p] = (int) ((long) studentCount * capacities[p] / total);
+            assigned += sizes[p];
+        }
+        for (int p = 0; assigned < studentCount; p = (p + 1) % numParts) {
+            sizes[p]++;
+            assigned++;
+        }
+        return sizes;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public List<Enrollment> getEnrollments() {
+        return enrollments;
+    }
+
+    public int getDayCount() {
+        return dates.length;
+    }
+
+    public LocalDate getDate(int day) {
+        return dates[day];
+    }
+
+    public int getCourseCount() {
+        return courses.length;
+    }
+
+    public int getStudentCount() {
+        return students.length;
+    }
+
+    public int getClassroomCount() {
+        return classrooms.length;
+    }
+
+    /** Number of grid cells in the daily window. */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public SchedulingPolicy getPolicy() {
+        return policy;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public int getPartCount() {
+        return partCount;
+    }
+
+    public Course getCourse(int course) {
+        return courses[course];
+    }
+
+    public Student getStudent(int student) {
+        return students[student];
+    }
+
+    public Classroom getClassroom(int classroom) {
+        return classrooms[classroom];
+    }
+
+    public int getCapacity(int classroom) {
+        return classrooms[classroom].getCapacity();
+    }
+
+    /** Capacity class of a room; rooms of one class differ only in identity. */
+    public int getRoomClass(int classroom) {
+        return roomClasses[classroom];
+    }
+
+    public int getRoomClassCount() {
+        return roomClassCount;
+    }
+
+    public int getMaxClassroomCapacity() {
+        return classrooms.length == 0 ? 0 : classrooms[0].getCapacity();
+    }
+
+    /** Returns the dense id of a course code, or -1 if it is not part of the problem. */
+    public int courseIndex(String courseCode) {
+        Integer id = courseIds.get(courseCode);
+        return id == null ? -1 : id;
+    }
+
+    /** Returns the dense id of a student, or -1 if the student has no enrollment here. */
+    public int studentIndex(String studentId) {
+        Integer id = studentIds.get(studentId);
+        return id == null ? -1 : id;
+    }
+
+    /** Returns the dense id of a classroom, or -1 if it is not part of the problem. */
+    public int classroomIndex(String classroomId) {
+        Integer id = classroomIds.get(classroomId);
+        return id == null ? -1 : id;
+    }
+
+    /** Returns the day offset of a date, or -1 if it is outside the range. */
+    public int dayIndex(LocalDate date) {
+        long offset = date.toEpochDay() - startDate.toEpochDay();
+        return offset < 0 || offset >= dates.length ? -1 : (int) offset;
+    }
+
+    /** CSR offsets into {@link #getCourseStudents()}; length is course count + 1. Read-only. */
+    public int[] getCourseStudentOffsets() {
+        return courseStudentOffsets;
+    }
+
+    /** Student ids grouped by course. Read-only. */
+    public int[] getCourseStudents() {
+        return courseStudents;
+    }
+
+    /** CSR offsets into {@link #getStudentCourses()}; length is student count + 1. Read-only. */
+    public int[] getStudentCourseOffsets() {
+        return studentCourseOffsets;
+    }
+
+    /** Course ids grouped by student. Read-only. */
+    public int[] getStudentCourses() {
+        return studentCourses;
+    }
+
+    public int getEnrollmentCount(int course) {
+        return courseStudentOffsets[course + 1] - courseStudentOffsets[course];
+    }
+
+    public int getDuration(int course) {
+        return durations[course];
+    }
+
+    /** Number of grid cells an exam of this course occupies in a room. */
+    public int getSlotSpan(int course) {
+        return slotSpans[course];
+    }
+
+    /**
+     * Number of valid start slots for a course; slots {@code 0 .. n-1} all end by
+     * the policy's day end.
+     */
+    public int getStartSlotCount(int course) {
+        return startSlotCounts[course];
+    }
+
+    /** Part sizes of a course after splitting. Read-only. */
+    public int[] getPartSizes(int course) {
+        return partSizes[course];
+    }
+
+    /** Minutes since midnight at which a slot starts. */
+    public int slotStartMinutes(int slot) {
+        return dayStartMinutes + slot * slotMinutes;
+    }
+
+    /** Slot starting at {@code time}, or -1 if the time is before the window or off the grid. */
+    public int slotOf(LocalTime time) {
+        int minutes = time.getHour() * 60 + time.getMinute() - dayStartMinutes;
+        if (minutes < 0 || minutes % slotMinutes != 0 || time.getSecond() != 0 || time.getNano() != 0) {
+            return -1;
+        }
+        return minutes / slotMinutes;
+    }
+
+    /** First and one-past-last grid cells a time range touches, clipped to the day. */
+    int firstCell(int startMinutes) {
+        return Math.max(0, Math.floorDiv(startMinutes - dayStartMinutes, slotMinutes));
+    }
+
+    int endCell(int endMinutes) {
+        return Math.min(slotCount, Math.floorDiv(endMinutes - dayStartMinutes + slotMinutes - 1, slotMinutes));
+    }
+
+    public static LocalTime toTime(int minutes) {
+        return LocalTime.of(minutes / 60, minutes % 60);
+    }
+
+    public ExamSlot createSlot(int course, int day, int slot) {
+        int start = slotStartMinutes(slot);
+        return new ExamSlot(dates[day], toTime(start), toTime(start + durations[course]));
+    }
+}
@@ -0,0 +1,73 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.ExamTimetable;
+
+/**
+ * Snapshot of a running schedule generation, passed to a
+ * {@link SchedulingProgressListener}.
+ */
+public class SchedulingProgress {
+
+    /** What the scheduler is doing at the time of the snapshot. */
+    public enum Phase {
+        DAY_SEARCH, FINAL_SCHEDULE, OPTIONS, FINISHED, CANCELLED
+    }
+
+    private final Phase phase;
+    private final int lowDays;
+    private final int highDays;
+    private final int bestDays;
+    private final ExamTimetable bestSchedule;
+    private final long nodes;
+    private final long elapsedMs;
+
+    public SchedulingProgress(Phase phase, int lowDays, int highDays, int bestDays, ExamTimetable bestSchedule,
+            long nodes, long elapsedMs) {
+        this.phase = phase;
+        this.lowDays = lowDays;
+        this.highDays = highDays;
+        this.bestDays = bestDays;
+        this.bestSchedule = bestSchedule;
+        this.nodes = nodes;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /** Smallest day count not yet ruled out. */
+    public int getLowDays() {
+        return lowDays;
+    }
+
+    /** Largest day count still searched; the optimum lies in [low, high] or is {@link #getBestDays()}. */
+    public int getHighDays() {
+        return highDays;
+    }
+
+    /** Days spanned by the best schedule so far, -1 if none yet. */
+    public int getBestDays() {
+        return bestDays;
+    }
+
+    /** Best schedule so far, null if none yet. */
+    public ExamTimetable getBestSchedule() {
+        return bestSchedule;
+    }
+
+    /** Backtracking nodes explored so far, over all threads. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+        return phase + " days=[" + lowDays + ", " + highDays + "] best=" + bestDays
+                + " nodes=" + nodes + " elapsed=" + elapsedMs + "ms";
+    }
+}
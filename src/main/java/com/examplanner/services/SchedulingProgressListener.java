@@ -0,0 +1,11 @@
+package com.examplanner.services;
+
+/**
+ * Receives progress of a schedule generation. Called on a scheduler thread,
+ * so UI code must hand the update over to its own thread.
+ */
+@FunctionalInterface
+public interface SchedulingProgressListener {
+
+    void onProgress(SchedulingProgress progress);
+}
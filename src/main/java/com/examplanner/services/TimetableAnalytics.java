@@ -0,0 +1,245 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.Classroom;
+import com.examplanner.domain.Enrollment;
+import com.examplanner.domain.Exam;
+import com.examplanner.domain.ExamSlot;
+import com.examplanner.domain.Student;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Load and usage figures of a timetable for the dashboard and the conflict
+ * report: exams per day, room usage, start-hour histogram, and every
+ * student's exams per day.
+ *
+ * One pass over the enrollments builds a course -> students index, one pass
+ * over the exams fills the per-day, per-room and per-hour counts, and one
+ * pass over the scheduled courses' students fills the daily loads. Parts of
+ * a split course (one course in several rooms at once) count once for a
+ * student.
+ *
+ * The report is cached: {@link #getReport} recomputes only if an exam was
+ * added, removed or moved (its slot or room replaced) or the enrollment list
+ * changed since the last call, which costs one identity comparison per exam.
+ * Enrollments are compared by list and size only, so callers that reload or
+ * edit them, or replace the timetable, call {@link #invalidate}.
+ *
+ * Not thread-safe; meant for the UI thread.
+ */
+public class TimetableAnalytics {
+
+    /** A student's exams on one day, one per course, in start order. */
+    public static final class StudentDay {
+        private final Student student;
+        private final LocalDate date;
+        private final List<Exam> exams;
+
+        StudentDay(Student student, LocalDate date, List<Exam> exams) {
+            this.student = student;
+            this.date = date;
+            this.exams = Collections.unmodifiableList(exams);
+        }
+
+        public Student getStudent() {
+            return student;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public List<Exam> getExams() {
+            return exams;
+        }
+    }
+
+    /** The figures of one timetable; immutable. */
+    public static final class Report {
+        private final int examCount;
+        private final int studentCount;
+        private final SortedMap<LocalDate, Integer> examsPerDay;
+        private final Map<String, Integer> roomUsage;
+        private final SortedMap<LocalTime, Integer> examsPerHour;
+        private final List<StudentDay> heavyDays;
+        private final SortedMap<Integer, Integer> maxDailyLoads;
+
+        Report(int examCount, int studentCount, SortedMap<LocalDate, Integer> examsPerDay,
+                Map<String, Integer> roomUsage, SortedMap<LocalTime, Integer> examsPerHour,
+                List<StudentDay> heavyDays, SortedMap<Integer, Integer> maxDailyLoads) {
+            this.examCount = examCount;
+            this.studentCount = studentCount;
+            this.examsPerDay = Collections.unmodifiableSortedMap(examsPerDay);
+            this.roomUsage = Collections.unmodifiableMap(roomUsage);
+            this.examsPerHour = Collections.unmodifiableSortedMap(examsPerHour);
+            this.heavyDays = Collections.unmodifiableList(heavyDays);
+            this.maxDailyLoads = Collections.unmodifiableSortedMap(maxDailyLoads);
+        }
+
+        public int getExamCount() {
+            return examCount;
+        }
+
+        /** Distinct enrolled students, scheduled or not. */
+        public int getStudentCount() {
+            return studentCount;
+        }
+
+        public int getDayCount() {
+            return examsPerDay.size();
+        }
+
+        /** Distinct classrooms (by name) with an exam. */
+        public int getRoomCount() {
+            return roomUsage.size();
+        }
+
+        public SortedMap<LocalDate, Integer> getExamsPerDay() {
+            return examsPerDay;
+        }
+
+        /** Exams per classroom name, in first-use order. */
+        public Map<String, Integer> getRoomUsage() {
+            return roomUsage;
+        }
+
+        /** Exams per start hour (minutes dropped). */
+        public SortedMap<LocalTime, Integer> getExamsPerHour() {
+            return examsPerHour;
+        }
+
+        /** Student-days with more than one exam, by student id and date. */
+        public List<StudentDay> getHeavyDays() {
+            return heavyDays;
+        }
+
+        /** Students per busiest day's exam count (1, 2, ..), for students with any exam. */
+        public SortedMap<Integer, Integer> getMaxDailyLoads() {
+            return maxDailyLoads;
+        }
+    }
+
+    private Report report;
+    private List<Enrollment> cachedEnrollments;
+    private int cachedEnrollmentCount = -1;
+    private Exam[] cachedExams = new Exam[0];
+    private ExamSlot[] cachedSlots = new ExamSlot[0];
+    private Classroom[] cachedClassrooms = new Classroom[0];
+
+    /** The report for the timetable's exams, recomputed only if they or the enrollments changed. */
+    public Report getReport(List<Exam> exams, List<Enrollment> enrollments) {
+        if (exams == null || enrollments == null) {
+            throw new IllegalArgumentException("Exams and enrollments cannot be null");
+        }
+        if (report == null || !isCached(exams, enrollments)) {
+            report = compute(exams, enrollments);
+            remember(exams, enrollments);
+        }
+        return report;
+    }
+
+    /** Drops the cached report, e.g. after the timetable was replaced. */
+    public void invalidate() {
+        report = null;
+    }
+
+    private boolean isCached(List<Exam> exams, List<Enrollment> enrollments) {
+        if (enrollments != cachedEnrollments || enrollments.size() != cachedEnrollmentCount
+                || exams.size() != cachedExams.length) {
+            return false;
+        }
+        for (int i = 0; i < cachedExams.length; i++) {
+            Exam exam = exams.get(i);
+            if (exam != cachedExams[i] || exam.getSlot() != cachedSlots[i]
+                    || exam.getClassroom() != cachedClassrooms[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void remember(List<Exam> exams, List<Enrollment> enrollments) {
+        cachedEnrollments = enrollments;
+        cachedEnrollmentCount = enrollments.size();
+        cachedExams = exams.toArray(new Exam[0]);
+        cachedSlots = new ExamSlot[cachedExams.length];
+        cachedClassrooms = new Classroom[cachedExams.length];
+        for (int i = 0; i < cachedExams.length; i++) {
+            cachedSlots[i] = cachedExams[i].getSlot();
+            cachedClassrooms[i] = cachedExams[i].getClassroom();
+        }
+    }
+
+    private static Report compute(List<Exam> exams, List<Enrollment> enrollments) {
+        Map<String, List<Student>> courseStudents = new HashMap<>();
+        Set<String> studentIds = new HashSet<>();
+        for (Enrollment enrollment : enrollments) {
+            courseStudents.computeIfAbsent(enrollment.getCourse().getCode(), k -> new ArrayList<>())
+                    .add(enrollment.getStudent());
+            studentIds.add(enrollment.getStudent().getId());
+        }
+
+        SortedMap<LocalDate, Integer> examsPerDay = new TreeMap<>();
+        Map<String, Integer> roomUsage = new LinkedHashMap<>();
+        SortedMap<LocalTime, Integer> examsPerHour = new TreeMap<>();
+        // One exam per course and day stands for the course's parts
+        Map<String, Map<LocalDate, Exam>> courseDayExams = new LinkedHashMap<>();
+        for (Exam exam : exams) {
+            LocalDate date = exam.getSlot().getDate();
+            examsPerDay.merge(date, 1, Integer::sum);
+            roomUsage.merge(exam.getClassroom().getName(), 1, Integer::sum);
+            examsPerHour.merge(exam.getSlot().getStartTime().withMinute(0), 1, Integer::sum);
+            courseDayExams.computeIfAbsent(exam.getCourse().getCode(), k -> new HashMap<>())
+                    .putIfAbsent(date, exam);
+        }
+
+        Map<String, Student> students = new HashMap<>();
+        Map<String, Map<LocalDate, List<Exam>>> studentDays = new HashMap<>();
+        for (Map.Entry<String, Map<LocalDate, Exam>> course : courseDayExams.entrySet()) {
+            for (Student student : courseStudents.getOrDefault(course.getKey(), Collections.emptyList())) {
+                students.putIfAbsent(student.getId(), student);
+                Map<LocalDate, List<Exam>> days = studentDays.computeIfAbsent(student.getId(),
+                        k -> new HashMap<>());
+                for (Map.Entry<LocalDate, Exam> day : course.getValue().entrySet()) {
+                    List<Exam> own = days.computeIfAbsent(day.getKey(), k -> new ArrayList<>());
+                    // A duplicate enrollment adds the course twice in a row
+                    if (own.isEmpty() || own.get(own.size() - 1) != day.getValue()) {
+                        own.add(day.getValue());
+                    }
+                }
+            }
+        }
+
+        List<StudentDay> heavyDays = new ArrayList<>();
+        SortedMap<Integer, Integer> maxDailyLoads = new TreeMap<>();
+        for (Map.Entry<String, Map<LocalDate, List<Exam>>> entry : studentDays.entrySet()) {
+            int max = 0;
+            for (Map.Entry<LocalDate, List<Exam>> day : entry.getValue().entrySet()) {
+                List<Exam> own = day.getValue();
+                max = Math.max(max, own.size());
+                if (own.size() > 1) {
+                    own.sort(Comparator.comparing((Exam e) -> e.getSlot().getStartTime()));
+                    heavyDays.add(new StudentDay(students.get(entry.getKey()), day.getKey(), own));
+                }
+            }
+            maxDailyLoads.merge(max, 1, Integer::sum);
+        }
+        heavyDays.sort(Comparator.comparing((StudentDay d) -> d.getStudent().getId())
+                .thenComparing(StudentDay::getDate));
+
+        return new Report(exams.size(), studentIds.size(), examsPerDay, roomUsage, examsPerHour, heavyDays,
+                maxDailyLoads);
+    }
+}
@@ -0,0 +1,68 @@
+package com.examplanner.services;
+
+import java.time.LocalDate;
+
+/**
+ * One change to repair a timetable around, see
+ * {@link SchedulerService#repairTimetable}.
+ */
+public class TimetableChange {
+
+    public enum Type {
+        /** A classroom cannot be used on one date, or on any date. */
+        ROOM_OUTAGE,
+        /** A course was moved by hand; its new day, time and rooms must be kept. */
+        EXAM_MOVED
+    }
+
+    private final Type type;
+    private final String classroomId;
+    private final LocalDate date;
+    private final String courseCode;
+
+    private TimetableChange(Type type, String classroomId, LocalDate date, String courseCode) {
+        this.type = type;
+        this.classroomId = classroomId;
+        this.date = date;
+        this.courseCode = courseCode;
+    }
+
+    /** The classroom is unavailable on {@code date}, or on every date if {@code date} is null. */
+    public static TimetableChange roomOutage(String classroomId, LocalDate date) {
+        if (classroomId == null) {
+            throw new IllegalArgumentException("Classroom id cannot be null");
+        }
+        return new TimetableChange(Type.ROOM_OUTAGE, classroomId, date, null);
+    }
+
+    public static TimetableChange examMoved(String courseCode) {
+        if (courseCode == null) {
+            throw new IllegalArgumentException("Course code cannot be null");
+        }
+        return new TimetableChange(Type.EXAM_MOVED, null, null, courseCode);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getClassroomId() {
+        return classroomId;
+    }
+
+    /** Date of a room outage, null for every date. */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public String getCourseCode() {
+        return courseCode;
+    }
+
+    @Override
+    public String toString() {
+        return type == Type.ROOM_OUTAGE
+                ? "Room outage " + classroomId + (date == null ? "" : " on " + date)
+                : "Exam moved " + courseCode;
+    }
+}
@@ -0,0 +1,184 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.Classroom;
+import com.examplanner.domain.Enrollment;
+import com.examplanner.domain.Exam;
+import com.examplanner.domain.ExamSlot;
+import com.examplanner.domain.Student;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lookup indexes over an edited timetable, for checking manual moves
+ * without scanning every exam and enrollment:
+ * - course code -> enrolled students, in enrollment order,
+ * - student id -> date -> the student's exams that day,
+ * - classroom id -> date -> the exams in that room that day.
+ *
+ * {@link #sync} keeps the indexes in step with the timetable. It remembers
+ * the slot and room each exam was indexed under, so exams that were moved in
+ * place (setSlot, setClassroom), added or removed since the last call are
+ * re-indexed on their own; the rest costs one identity comparison per exam.
+ * A different enrollment list rebuilds everything.
+ *
+ * Exams also keep their position in the timetable, so checks can report the
+ * same exam a scan in list order would find first.
+ *
+ * Not thread-safe; meant for the UI thread.
+ */
+public class TimetableIndex {
+
+    /** Where an exam was indexed, and its position in the timetable. */
+    private static final class Entry {
+        ExamSlot slot;
+        Classroom classroom;
+        int order;
+    }
+
+    private List<Enrollment> indexedEnrollments;
+    private int indexedEnrollmentCount = -1;
+
+    private final Map<String, List<Student>> courseStudents = new HashMap<>();
+    private final Map<String, Map<LocalDate, List<Exam>>> studentDayExams = new HashMap<>();
+    private final Map<String, Map<LocalDate, List<Exam>>> roomDayExams = new HashMap<>();
+    private final Map<Exam, Entry> entries = new IdentityHashMap<>();
+
+    /**
+     * Brings the indexes up to date with the timetable's exams and the
+     * enrollments, re-indexing only what changed since the last call.
+     */
+    public void sync(List<Exam> exams, List<Enrollment> enrollments) {
+        if (enrollments != indexedEnrollments || enrollments.size() != indexedEnrollmentCount) {
+            rebuildCourseStudents(enrollments);
+            studentDayExams.clear();
+            roomDayExams.clear();
+            entries.clear();
+        }
+
+        Map<Exam, Boolean> present = new IdentityHashMap<>();
+        for (int i = 0; i < exams.size(); i++) {
+            Exam exam = exams.get(i);
+            present.put(exam, Boolean.TRUE);
+            Entry entry = entries.get(exam);
+            if (entry != null && (entry.slot != exam.getSlot() || entry.classroom != exam.getClassroom())) {
+                unindex(exam, entry);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry();
+                index(exam, entry);
+                entries.put(exam, entry);
+            }
+            entry.order = i;
+        }
+        if (present.size() < entries.size()) {
+            List<Exam> removed = new ArrayList<>();
+            for (Exam exam : entries.keySet()) {
+                if (!present.containsKey(exam)) {
+                    removed.add(exam);
+                }
+            }
+            for (Exam exam : removed) {
+                unindex(exam, entries.remove(exam));
+            }
+        }
+    }
+
+    public List<Student> getStudentsForCourse(String courseCode) {
+        return courseStudents.getOrDefault(courseCode, Collections.emptyList());
+    }
+
+    /** The student's exams on the date, in timetable order. */
+    public List<Exam> getExamsForStudentDate(String studentId, LocalDate date) {
+        return sorted(studentDayExams.getOrDefault(studentId, Collections.emptyMap()).get(date));
+    }
+
+    /** The exams in the classroom on the date, in timetable order. */
+    public List<Exam> getExamsForClassroomDate(String classroomId, LocalDate date) {
+        return sorted(roomDayExams.getOrDefault(classroomId, Collections.emptyMap()).get(date));
+    }
+
+    public int getExamCount() {
+        return entries.size();
+    }
+
+    private void rebuildCourseStudents(List<Enrollment> enrollments) {
+        courseStudents.clear();
+        for (Enrollment enrollment : enrollments) {
+            courseStudents.computeIfAbsent(enrollment.getCourse().getCode(), k -> new ArrayList<>())
+                    .add(enrollment.getStudent());
+        }
+        indexedEnrollments = enrollments;
+        indexedEnrollmentCount = enrollments.size();
+    }
+
+    private void index(Exam exam, Entry entry) {
+        entry.slot = exam.getSlot();
+        entry.classroom = exam.getClassroom();
+        if (entry.slot == null) {
+            return;
+        }
+        LocalDate date = entry.slot.getDate();
+        for (Student student : getStudentsForCourse(exam.getCourse().getCode())) {
+            studentDayExams.computeIfAbsent(student.getId(), k -> new HashMap<>())
+                    .computeIfAbsent(date, k -> new ArrayList<>()).add(exam);
+        }
+        if (entry.classroom != null) {
+            roomDayExams.computeIfAbsent(entry.classroom.getId(), k -> new HashMap<>())
+                    .computeIfAbsent(date, k -> new ArrayList<>()).add(exam);
+        }
+    }
+
+    private void unindex(Exam exam, Entry entry) {
+        if (entry.slot == null) {
+            return;
+        }
+        LocalDate date = entry.slot.getDate();
+        for (Student student : getStudentsForCourse(exam.getCourse().getCode())) {
+            removeFrom(studentDayExams.get(student.getId()), date, exam);
+        }
+        if (entry.classroom != null) {
+            removeFrom(roomDayExams.get(entry.classroom.getId()), date, exam);
+        }
+    }
+
+    private static void removeFrom(Map<LocalDate, List<Exam>> byDate, LocalDate date, Exam exam) {
+        if (byDate == null) {
+            return;
+        }
+        List<Exam> exams = byDate.get(date);
+        if (exams == null) {
+            return;
+        }
+        for (int i = exams.size() - 1; i >= 0; i--) {
+            if (exams.get(i) == exam) {
+                exams.remove(i);
+                break; // one entry per enrollment; a duplicate enrollment removes the next one
+            }
+        }
+        if (exams.isEmpty()) {
+            byDate.remove(date);
+        }
+    }
+
+    private List<Exam> sorted(List<Exam> exams) {
+        if (exams == null || exams.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Exam> copy = new ArrayList<>(exams);
+        copy.sort((a, b) -> Integer.compare(entries.get(a).order, entries.get(b).order));
+        // A student enrolled twice in a course lists its exams twice
+        for (int i = copy.size() - 1; i > 0; i--) {
+            if (copy.get(i) == copy.get(i - 1)) {
+                copy.remove(i);
+            }
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,148 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.Exam;
+import com.examplanner.domain.ExamTimetable;
+
+import java.util.Arrays;
+
+/**
+ * Computes the {@link ScheduleScore} of timetables for one compiled problem.
+ *
+ * One pass over the exams fixes each course's day, start and end and the
+ * seats of its rooms; one pass over the student-course index then walks every
+ * student's few exams in day order. Scoring is linear in exams plus
+ * enrollments (times the log of a student's exam count), cheap enough to rank
+ * thousands of candidate timetables.
+ *
+ * Thread-safe; every call allocates its own buffers.
+ */
+public class TimetableScorer {
+
+    // Same-day gaps of this many hours and more share the last histogram bucket
+    static final int GAP_BUCKETS = 10;
+
+    private final SchedulingProblem problem;
+    private final int maxStudentCourses;
+
+    public TimetableScorer(SchedulingProblem problem) {
+        this.problem = problem;
+        int[] offsets = problem.getStudentCourseOffsets();
+        int max = 0;
+        for (int s = 0; s < problem.getStudentCount(); s++) {
+            max = Math.max(max, offsets[s + 1] - offsets[s]);
+        }
+        this.maxStudentCourses = max;
+    }
+
+    /**
+     * @throws IllegalArgumentException if an exam's course or room is not part
+     *                                  of the problem, or its date is outside it
+     */
+    public ScheduleScore score(ExamTimetable timetable) {
+        int courseCount = problem.getCourseCount();
+        int[] courseDay = new int[courseCount];
+        int[] courseStart = new int[courseCount];
+        int[] courseEnd = new int[courseCount];
+        Arrays.fill(courseDay, -1);
+        long assignedSeats = 0;
+        int days = 0;
+
+        for (Exam exam : timetable.getExams()) {
+            int course = problem.courseIndex(exam.getCourse().getCode());
+            if (course < 0 || exam.getClassroom() == null || exam.getSlot() == null) {
+                throw new IllegalArgumentException("Exam is not part of the problem: " + exam);
+            }
+            int room = problem.classroomIndex(exam.getClassroom().getId());
+            int day = problem.dayIndex(exam.getSlot().getDate());
+            if (room < 0 || day < 0 || day >= problem.getDayCount()) {
+                throw new IllegalArgumentException("Exam is outside the problem's rooms or days: " + exam);
+            }
+            assignedSeats += problem.getCapacity(room);
+            if (courseDay[course] < 0) {
+                // Parts of a split course share their slot; count the course once
+                courseDay[course] = day;
+                courseStart[course] = toMinutes(exam);
+                courseEnd[course] = courseStart[course] + problem.getDuration(course);
+                days = Math.max(days, day + 1);
+            }
+        }
+
+        long seated = 0;
+        long[] dayLoad = new long[Math.max(days, 1)];
+        for (int c = 0; c < courseCount; c++) {
+            if (courseDay[c] >= 0) {
+                seated += problem.getEnrollmentCount(c);
+                dayLoad[courseDay[c]] += problem.getEnrollmentCount(c);
+            }
+        }
+
+        int[] offsets = problem.getStudentCourseOffsets();
+        int[] courses = problem.getStudentCourses();
+        // Day in the high bits, start minute in the low bits: sorts a student's exams by time
+        long[] keys = new long[maxStudentCourses];
+        int[] gapHistogram = new int[GAP_BUCKETS];
+        int studentsWithTwo = 0;
+        int twoExamDays = 0;
+        int consecutive = 0;
+        int minGap = -1;
+        long gapSum = 0;
+        int gapCount = 0;
+
+        for (int s = 0; s < problem.getStudentCount(); s++) {
+            int count = 0;
+            for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+                int c = courses[i];
+                if (courseDay[c] >= 0) {
+                    keys[count++] = ((long) courseDay[c] << 32) | ((long) courseStart[c] << 16) | c;
+                }
+            }
+            Arrays.sort(keys, 0, count);
+
+            boolean hasTwo = false;
+            int runLength = 1;
+            for (int i = 1; i < count; i++) {
+                int previousDay = (int) (keys[i - 1] >>> 32);
+                int day = (int) (keys[i] >>> 32);
+                if (day == previousDay) {
+                    if (++runLength == 2) {
+                        twoExamDays++;
+                        hasTwo = true;
+                    }
+                    int gap = courseStart[(int) (keys[i] & 0xFFFF)] - courseEnd[(int) (keys[i - 1] & 0xFFFF)];
+                    gapHistogram[Math.min(GAP_BUCKETS - 1, Math.max(0, gap) / 60)]++;
+                    minGap = minGap < 0 ? gap : Math.min(minGap, gap);
+                    gapSum += gap;
+                    gapCount++;
+                } else {
+                    runLength = 1;
+                    if (day == previousDay + 1) {
+                        consecutive++;
+                    }
+                }
+            }
+            if (hasTwo) {
+                studentsWithTwo++;
+            }
+        }
+
+        return new ScheduleScore(days, studentsWithTwo, twoExamDays, consecutive, gapHistogram, minGap,
+                gapCount == 0 ? 0 : (double) gapSum / gapCount, seated, assignedSeats, variance(dayLoad));
+    }
+
+    private static double variance(long[] values) {
+        double mean = 0;
+        for (long value : values) {
+            mean += value;
+        }
+        mean /= values.length;
+        double sum = 0;
+        for (long value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return sum / values.length;
+    }
+
+    private static int toMinutes(Exam exam) {
+        return exam.getSlot().getStartTime().getHour() * 60 + exam.getSlot().getStartTime().getMinute();
+    }
+}
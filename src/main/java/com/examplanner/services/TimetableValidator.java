@@ -0,0 +1,315 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.Enrollment;
+import com.examplanner.domain.Exam;
+import com.examplanner.domain.Student;
+
+import java.text.MessageFormat;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Checks a whole timetable against a {@link SchedulingPolicy} and reports
+ * every violation, not just the first one per exam:
+ * - exams outside the daily window,
+ * - courses with more students than the seats of their rooms,
+ * - overlapping exams of different courses in one room,
+ * - students with more exams a day than allowed,
+ * - students with overlapping exams, or too short a gap between two.
+ *
+ * Exams are bucketed by day once; each day is then checked on its own,
+ * sweeping its room-day buckets in start order and its student-day buckets
+ * (built from a course -> students index) pair by pair. Days are independent,
+ * so they are split over a fork/join pool. The cost is linear in exams plus
+ * the enrollments of the scheduled courses, plus the pairs of a student's few
+ * exams on a day.
+ *
+ * Parts of a split course (exams of one course in several rooms) count as one
+ * exam for students and add up their seats for the capacity check.
+ *
+ * Thread-safe; every call allocates its own buckets.
+ */
+public class TimetableValidator {
+
+    public enum Kind {
+        TIME_WINDOW, CAPACITY, ROOM_OVERLAP, DAILY_LIMIT, STUDENT_OVERLAP, GAP
+    }
+
+    /**
+     * One violated rule. Depending on the kind:
+     * - TIME_WINDOW: the exam,
+     * - CAPACITY: the exam, its course's student count and seats,
+     * - ROOM_OVERLAP: the exam and the earlier-starting exam it overlaps,
+     * - DAILY_LIMIT: the student's first exam past the limit that day, the student, the exam
+     * count and the limit,
+     * - STUDENT_OVERLAP: the later exam, the earlier one and the student,
+     * - GAP: the later exam, the earlier one, the student and the gap in minutes.
+     */
+    public static final class Violation {
+        private final Kind kind;
+        private final Exam exam;
+        private final Exam other;
+        private final Student student;
+        private final long value;
+        private final long limit;
+
+        Violation(Kind kind, Exam exam, Exam other, Student student, long value, long limit) {
+            this.kind = kind;
+            this.exam = exam;
+            this.other = other;
+            this.student = student;
+            this.value = value;
+            this.limit = limit;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public Exam getExam() {
+            return exam;
+        }
+
+        /** The other exam involved, or null. */
+        public Exam getOther() {
+            return other;
+        }
+
+        /** The student involved, or null. */
+        public Student getStudent() {
+            return student;
+        }
+
+        public LocalDate getDate() {
+            return exam.getSlot().getDate();
+        }
+
+        /** Student count (CAPACITY), exam count (DAILY_LIMIT) or gap minutes (GAP); 0 otherwise. */
+        public long getValue() {
+            return value;
+        }
+
+        /** Seats (CAPACITY), the daily limit (DAILY_LIMIT) or the minimum gap (GAP); 0 otherwise. */
+        public long getLimit() {
+            return limit;
+        }
+
+        /** The violation worded like the manual-move checks of {@link ConstraintChecker}. */
+        public String toMessage(ResourceBundle bundle) {
+            switch (kind) {
+                case TIME_WINDOW:
+                    return bundle.getString("validation.error.timeWindow");
+                case CAPACITY:
+                    return MessageFormat.format(bundle.getString("validation.error.capacity"), value, limit);
+                case ROOM_OVERLAP:
+                    return MessageFormat.format(bundle.getString("validation.error.occupied"),
+                            exam.getClassroom().getName(), other.getCourse().getCode());
+                case DAILY_LIMIT:
+                    // Worded from the exam past the limit: the student already has the limit's worth
+                    return MessageFormat.format(bundle.getString("validation.error.studentLimit"),
+                            student.getName(), limit, getDate());
+                case STUDENT_OVERLAP:
+                    return MessageFormat.format(bundle.getString("validation.error.conflict"),
+                            student.getName(), other.getCourse().getCode());
+                default:
+                    return MessageFormat.format(bundle.getString("validation.error.gapAfter"),
+                            value, student.getName(), other.getCourse().getCode());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + exam.getCourse().getCode() + " on " + getDate()
+                    + (other != null ? " with " + other.getCourse().getCode() : "")
+                    + (student != null ? " for " + student.getId() : "")
+                    + (value != 0 || limit != 0 ? " (" + value + "/" + limit + ")" : "");
+        }
+    }
+
+    private final SchedulingPolicy policy;
+    private volatile boolean parallel = true;
+
+    public TimetableValidator(SchedulingPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Scheduling policy cannot be null");
+        }
+        this.policy = policy;
+    }
+
+    /** Whether days are checked on the common fork/join pool (default) or one after another. */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * All violations of the timetable, grouped by day in date order; within a
+     * day exam rules come first, then rooms, then students.
+     */
+    public List<Violation> validate(List<Exam> exams, List<Enrollment> enrollments) {
+        if (exams == null || enrollments == null) {
+            throw new IllegalArgumentException("Exams and enrollments cannot be null");
+        }
+        Map<String, List<Student>> courseStudents = new HashMap<>();
+        for (Enrollment enrollment : enrollments) {
+            courseStudents.computeIfAbsent(enrollment.getCourse().getCode(), k -> new ArrayList<>())
+                    .add(enrollment.getStudent());
+        }
+        TreeMap<LocalDate, List<Exam>> byDay = new TreeMap<>();
+        for (Exam exam : exams) {
+            if (exam.getSlot() == null || exam.getClassroom() == null) {
+                throw new IllegalArgumentException("Exam is not scheduled: " + exam);
+            }
+            byDay.computeIfAbsent(exam.getSlot().getDate(), k -> new ArrayList<>()).add(exam);
+        }
+
+        List<List<Exam>> days = new ArrayList<>(byDay.values());
+        boolean forked = parallel && days.size() > 1;
+        DaysTask task = new DaysTask(policy, forked, days, 0, days.size(), courseStudents);
+        return forked ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+    }
+
+    /**
+     * Checks days {@code [from, to)}, halving the range until one day is left.
+     * Serializable only through RecursiveTask; tasks never leave the pool, so
+     * the bucket fields are transient.
+     */
+    private static final class DaysTask extends RecursiveTask<List<Violation>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient SchedulingPolicy policy;
+        private final boolean parallel;
+        private final transient List<List<Exam>> days;
+        private final int from;
+        private final int to;
+        private final transient Map<String, List<Student>> courseStudents;
+
+        DaysTask(SchedulingPolicy policy, boolean parallel, List<List<Exam>> days, int from, int to,
+                Map<String, List<Student>> courseStudents) {
+            this.policy = policy;
+            this.parallel = parallel;
+            this.days = days;
+            this.from = from;
+            this.to = to;
+            this.courseStudents = courseStudents;
+        }
+
+        @Override
+        protected List<Violation> compute() {
+            if (to - from <= 1) {
+                return from < to ? validateDay(policy, days.get(from), courseStudents) : new ArrayList<>();
+            }
+            int mid = (from + to) >>> 1;
+            DaysTask left = new DaysTask(policy, parallel, days, from, mid, courseStudents);
+            DaysTask right = new DaysTask(policy, parallel, days, mid, to, courseStudents);
+            if (!parallel) {
+                List<Violation> result = left.compute();
+                result.addAll(right.compute());
+                return result;
+            }
+            right.fork();
+            List<Violation> result = left.compute();
+            result.addAll(right.join());
+            return result;
+        }
+    }
+
+    private static List<Violation> validateDay(SchedulingPolicy policy, List<Exam> exams,
+            Map<String, List<Student>> courseStudents) {
+        List<Violation> violations = new ArrayList<>();
+
+        // Exam rules; a course's first exam of the day stands for its parts
+        Map<String, Exam> courseExams = new LinkedHashMap<>();
+        Map<String, Integer> courseSeats = new HashMap<>();
+        for (Exam exam : exams) {
+            if (exam.getSlot().getStartTime().isBefore(policy.getDayStart())
+                    || exam.getSlot().getEndTime().isAfter(policy.getDayEnd())) {
+                violations.add(new Violation(Kind.TIME_WINDOW, exam, null, null, 0, 0));
+            }
+            courseExams.putIfAbsent(exam.getCourse().getCode(), exam);
+            courseSeats.merge(exam.getCourse().getCode(), exam.getClassroom().getCapacity(), Integer::sum);
+        }
+        for (Map.Entry<String, Exam> entry : courseExams.entrySet()) {
+            int students = courseStudents.getOrDefault(entry.getKey(), Collections.emptyList()).size();
+            int seats = courseSeats.get(entry.getKey());
+            if (students > seats) {
+                violations.add(new Violation(Kind.CAPACITY, entry.getValue(), null, null, students, seats));
+            }
+        }
+
+        // Rooms: sweep each room's exams by start, against those still running
+        Map<String, List<Exam>> roomExams = new LinkedHashMap<>();
+        for (Exam exam : exams) {
+            roomExams.computeIfAbsent(exam.getClassroom().getId(), k -> new ArrayList<>()).add(exam);
+        }
+        for (List<Exam> inRoom : roomExams.values()) {
+            inRoom.sort(Comparator.comparing((Exam e) -> e.getSlot().getStartTime()));
+            List<Exam> running = new ArrayList<>();
+            for (Exam exam : inRoom) {
+                LocalTime start = exam.getSlot().getStartTime();
+                running.removeIf(e -> !e.getSlot().getEndTime().isAfter(start));
+                for (Exam other : running) {
+                    if (!other.getCourse().getCode().equals(exam.getCourse().getCode())) {
+                        violations.add(new Violation(Kind.ROOM_OVERLAP, exam, other, null, 0, 0));
+                    }
+                }
+                running.add(exam);
+            }
+        }
+
+        // Students: each student's courses that day, in start order
+        Map<String, List<Exam>> studentExams = new LinkedHashMap<>();
+        Map<String, Student> students = new HashMap<>();
+        for (Exam exam : courseExams.values()) {
+            for (Student student : courseStudents.getOrDefault(exam.getCourse().getCode(),
+                    Collections.emptyList())) {
+                List<Exam> own = studentExams.computeIfAbsent(student.getId(), k -> new ArrayList<>());
+                // A duplicate enrollment lists the course twice in a row
+                if (own.isEmpty() || own.get(own.size() - 1) != exam) {
+                    own.add(exam);
+                    students.putIfAbsent(student.getId(), student);
+                }
+            }
+        }
+        long minGap = policy.getMinGapMinutes();
+        for (Map.Entry<String, List<Exam>> entry : studentExams.entrySet()) {
+            List<Exam> own = entry.getValue();
+            if (own.size() < 2) {
+                continue;
+            }
+            Student student = students.get(entry.getKey());
+            own.sort(Comparator.comparing((Exam e) -> e.getSlot().getStartTime()));
+            if (own.size() > policy.getMaxExamsPerDay()) {
+                violations.add(new Violation(Kind.DAILY_LIMIT, own.get(policy.getMaxExamsPerDay()), null, student,
+                        own.size(), policy.getMaxExamsPerDay()));
+            }
+            for (int j = 1; j < own.size(); j++) {
+                Exam later = own.get(j);
+                for (int i = 0; i < j; i++) {
+                    Exam earlier = own.get(i);
+                    if (earlier.getSlot().overlaps(later.getSlot())) {
+                        violations.add(new Violation(Kind.STUDENT_OVERLAP, later, earlier, student, 0, 0));
+                        continue;
+                    }
+                    long gap = ChronoUnit.MINUTES.between(earlier.getSlot().getEndTime(),
+                            later.getSlot().getStartTime());
+                    if (gap < minGap) {
+                        violations.add(new Violation(Kind.GAP, later, earlier, student, gap, minGap));
+                    }
+                }
+            }
+        }
+        return violations;
+    }
+}
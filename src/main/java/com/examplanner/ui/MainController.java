@@ -7,9 +7,15 @@ import com.examplanner.domain.Exam;
 import com.examplanner.domain.ExamSlot;
 import com.examplanner.domain.Student;
 import com.examplanner.domain.ExamTimetable;
+import com.examplanner.services.CancellationToken;
 import com.examplanner.services.DataImportService;
 import com.examplanner.services.SchedulerService;
 import com.examplanner.services.ScheduleOptions;
+import com.examplanner.services.SchedulingPolicy;
+import com.examplanner.services.SchedulingProgress;
+import com.examplanner.services.TimetableAnalytics;
+import com.examplanner.services.TimetableIndex;
+import com.examplanner.services.TimetableValidator;
 import javafx.concurrent.Task;
 import java.time.LocalTime;
 import java.util.prefs.Preferences;
@@ -259,6 +265,11 @@ public class MainController {
     private Label lblProgressStatus;
     @FXML
     private VBox progressContainer;
+    @FXML
+    private Button btnStopGeneration;
+
+    // Cancels the running timetable generation; null when none is running
+    private volatile CancellationToken generationToken;
 
     private List<Course> courses = new ArrayList<>();
     private List<Classroom> classrooms = new ArrayList<>();
@@ -610,6 +621,10 @@ public class MainController {
     private SchedulerService schedulerService = new SchedulerService();
     private com.examplanner.persistence.DataRepository repository = new com.examplanner.persistence.DataRepository();
     private com.examplanner.services.ConstraintChecker constraintChecker = new com.examplanner.services.ConstraintChecker();
+    // Room, student and enrollment lookups for manual-move checks, synced with currentTimetable on use
+    private final TimetableIndex timetableIndex = new TimetableIndex();
+    // Dashboard and conflict report figures, recomputed only when the timetable changes
+    private final TimetableAnalytics timetableAnalytics = new TimetableAnalytics();
 
     @FXML
     public void initialize() {
@@ -638,7 +653,7 @@ public class MainController {
         String lang = prefs.get("language_preference", "en");
         loadLanguage(lang); // Load user preference
 
-        constraintChecker.setMinGapMinutes(180); // Default to requirements
+        currentPolicy();
         showDataImport();
 
         // Setup advanced search
@@ -677,6 +692,7 @@ public class MainController {
                 List<Enrollment> loadedEnrollments = repository.loadEnrollments(students, courses);
                 if (!loadedEnrollments.isEmpty()) {
                     this.enrollments = loadedEnrollments;
+                    timetableAnalytics.invalidate();
                     lblAttendanceStatus
                             .setText(MessageFormat.format(bundle.getString("status.loadedFromDB"), enrollments.size()));
                     lblAttendanceStatus.getStyleClass().removeAll("text-success", "text-warning", "text-error");
@@ -686,6 +702,7 @@ public class MainController {
                     ExamTimetable loadedTimetable = repository.loadTimetable(courses, classrooms, enrollments);
                     if (loadedTimetable != null) {
                         this.currentTimetable = loadedTimetable;
+                        timetableAnalytics.invalidate();
                         refreshTimetable();
                     }
                 }
@@ -756,6 +773,8 @@ public class MainController {
             btnDeleteData.setText(bundle.getString("dataImport.deleteData"));
         if (btnGenerateDataImport != null)
             btnGenerateDataImport.setText(bundle.getString("dataImport.generateTimetable"));
+        if (btnStopGeneration != null)
+            btnStopGeneration.setText(bundle.getString("loading.stop"));
 
         // Dashboard View
         if (lblDashboardTitle != null)
@@ -1592,6 +1611,7 @@ public class MainController {
                 lblAttendanceStatus.getStyleClass().removeAll("text-success", "text-warning", "text-error");
 
                 enrollments = dataImportService.loadAttendance(file, courses, students);
+                timetableAnalytics.invalidate();
                 repository.saveEnrollments(enrollments);
 
                 java.util.Set<String> existingStudentIds = students.stream()
@@ -1706,6 +1726,8 @@ public class MainController {
         System.out.println("Selected start date: " + startDate);
         System.out.println("Max search range: " + startDate + " to " + endDate);
 
+        CancellationToken token = new CancellationToken();
+        generationToken = token;
         setLoadingState(true);
 
         // Use Task to generate schedule options in background
@@ -1715,7 +1737,8 @@ public class MainController {
                 System.out.println("Starting timetable generation with options...");
                 System.out.println("Start date: " + startDate);
                 return schedulerService.generateTimetableWithOptions(courses, classrooms, enrollments, startDate,
-                        endDate);
+                        endDate, progress -> Platform.runLater(() -> showGenerationProgress(progress, token)),
+                        token);
             }
         };
 
@@ -1729,6 +1752,12 @@ public class MainController {
 
         task.setOnFailed(e -> {
             Throwable ex = task.getException();
+            if (ex instanceof java.util.concurrent.CancellationException) {
+                setLoadingState(false);
+                showInfo(bundle.getString("info.generationCancelled"),
+                        bundle.getString("info.generationCancelledDetail"));
+                return;
+            }
             System.err.println("ERROR during timetable generation:");
             ex.printStackTrace();
             showError(bundle.getString("error.schedulingFailed"),
@@ -1739,6 +1768,36 @@ public class MainController {
         new Thread(task).start();
     }
 
+    /**
+     * Live status line while the scheduler runs: the day range still searched,
+     * the best schedule so far, nodes explored and elapsed time.
+     */
+    private void showGenerationProgress(SchedulingProgress progress, CancellationToken token) {
+        if (lblProgressStatus == null || token != generationToken || token.isCancelled()) {
+            return;
+        }
+        String best = progress.getBestDays() > 0 ? String.valueOf(progress.getBestDays())
+                : bundle.getString("loading.noBestYet");
+        lblProgressStatus.setText(MessageFormat.format(bundle.getString("loading.progress"),
+                progress.getLowDays(), progress.getHighDays(), best, progress.getNodes(),
+                progress.getElapsedMs() / 1000));
+    }
+
+    @FXML
+    private void handleStopGeneration() {
+        CancellationToken token = generationToken;
+        if (token == null) {
+            return;
+        }
+        token.cancel();
+        if (btnStopGeneration != null) {
+            btnStopGeneration.setDisable(true);
+        }
+        if (lblProgressStatus != null) {
+            lblProgressStatus.setText(bundle.getString("loading.stopping"));
+        }
+    }
+
     /**
      * Show a dialog for the user to select from multiple schedule options.
      * The optimal (minimum days) schedule is marked, but alternatives are
@@ -1759,7 +1818,7 @@ public class MainController {
         ListView<ScheduleOptions.ScheduleOption> listView = new ListView<>();
         listView.getItems().addAll(options.getAllOptions());
         listView.getSelectionModel().selectFirst(); // Select optimal by default
-        listView.setPrefWidth(400);
+        listView.setPrefWidth(560);
         listView.setPrefHeight(220);
 
         // Custom cell factory for better display with date ranges
@@ -1773,6 +1832,11 @@ public class MainController {
                 } else {
                     LocalDate endDate = startDate.plusDays(item.getDays() - 1);
                     String dateRange = startDate.format(dateFormatter) + " - " + endDate.format(dateFormatter);
+                    if (item.getScore() != null) {
+                        dateRange += "  " + MessageFormat.format(bundle.getString("dialog.options.score"),
+                                item.getScore().getStudentsWithTwoExamsDay(),
+                                Math.round(item.getScore().getRoomUtilization() * 100));
+                    }
 
                     if (item.isOptimal()) {
                         setText("✓ " + item.getDays() + " " + bundle.getString("dashboard.examsPerDay").split(" ")[0]
@@ -1848,6 +1912,7 @@ public class MainController {
             }
 
             this.currentTimetable = selected.getSchedule();
+            timetableAnalytics.invalidate();
             try {
                 repository.saveTimetable(currentTimetable);
                 System.out.println("Timetable saved! Exams: " + currentTimetable.getExams().size());
@@ -1936,6 +2001,7 @@ public class MainController {
 
         // Update timetable without regenerating
         this.currentTimetable = selected.getSchedule();
+        timetableAnalytics.invalidate();
         repository.saveTimetable(currentTimetable);
 
         // Clear edit history since this is a different schedule
@@ -1987,6 +2053,7 @@ public class MainController {
             enrollments.clear();
 
             currentTimetable = null;
+            timetableAnalytics.invalidate();
 
             lblCoursesStatus.setText("Cleared");
             lblCoursesStatus.getStyleClass().removeAll("text-success", "text-error");
@@ -2031,6 +2098,13 @@ public class MainController {
         if (lblProgressStatus != null && loading) {
             lblProgressStatus.setText(bundle.getString("loading.status"));
         }
+        if (btnStopGeneration != null) {
+            btnStopGeneration.setDisable(!loading);
+            btnStopGeneration.setText(bundle.getString("loading.stop"));
+        }
+        if (!loading) {
+            generationToken = null;
+        }
 
         if (viewDataImport.getScene() != null) {
             viewDataImport.getScene().setCursor(loading ? javafx.scene.Cursor.WAIT : javafx.scene.Cursor.DEFAULT);
@@ -3031,43 +3105,13 @@ public class MainController {
         // exams on the same day
         // to warn the user about heavy load, OR checking for < 30 min gap if we allowed
         // it (but we didn't).
-
-        // Group exams by student -> date
-        // Note: This is computationally expensive O(N_students * M_exams), but for the
-        // UI button it's okay?
-        // Better: Iterate exams, and for each exam find enrolled students.
-
-        Map<Student, Map<LocalDate, List<Exam>>> studentDailyLoad = new HashMap<>();
-
-        for (Exam exam : currentTimetable.getExams()) {
-            List<Student> enrolled = enrollments.stream()
-                    .filter(e -> e.getCourse().getCode().equals(exam.getCourse().getCode()))
-                    .map(Enrollment::getStudent)
-                    .collect(Collectors.toList());
-
-            for (Student s : enrolled) {
-                studentDailyLoad.putIfAbsent(s, new HashMap<>());
-                Map<LocalDate, List<Exam>> days = studentDailyLoad.get(s);
-                LocalDate d = exam.getSlot().getDate();
-                days.putIfAbsent(d, new ArrayList<>());
-                days.get(d).add(exam);
-            }
-        }
-
-        // Filter those with > 1 exam
         List<String> reportLines = new ArrayList<>();
 
-        for (Map.Entry<Student, Map<LocalDate, List<Exam>>> entry : studentDailyLoad.entrySet()) {
-            Student s = entry.getKey();
-            for (Map.Entry<LocalDate, List<Exam>> dayEntry : entry.getValue().entrySet()) {
-                if (dayEntry.getValue().size() > 1) {
-                    reportLines.add("[!] " + s.getName() + " has " + dayEntry.getValue().size() + " exams on "
-                            + dayEntry.getKey());
-                    // Maybe list the exams?
-                    reportLines.add("   " + dayEntry.getValue().stream().map(e -> e.getCourse().getCode())
-                            .collect(Collectors.joining(", ")));
-                }
-            }
+        for (TimetableAnalytics.StudentDay day : analyticsReport().getHeavyDays()) {
+            reportLines.add("[!] " + day.getStudent().getName() + " has " + day.getExams().size() + " exams on "
+                    + day.getDate());
+            reportLines.add("   " + day.getExams().stream().map(e -> e.getCourse().getCode())
+                    .collect(Collectors.joining(", ")));
         }
 
         if (reportLines.isEmpty()) {
@@ -3084,23 +3128,38 @@ public class MainController {
             return;
         }
 
-        List<String> issues = new ArrayList<>();
-        int validCount = 0;
-        int totalExams = currentTimetable.getExams().size();
+        // Snapshot on the FX thread; the sweep itself runs in the background
+        List<Exam> exams = new ArrayList<>(currentTimetable.getExams());
+        List<Enrollment> snapshotEnrollments = new ArrayList<>(enrollments);
+        TimetableValidator validator = new TimetableValidator(currentPolicy());
 
-        for (Exam exam : currentTimetable.getExams()) {
-            List<Exam> others = currentTimetable.getExams().stream()
-                    .filter(e -> !e.getCourse().getCode().equals(exam.getCourse().getCode()))
-                    .collect(Collectors.toList());
+        Task<List<TimetableValidator.Violation>> task = new Task<>() {
+            @Override
+            protected List<TimetableValidator.Violation> call() {
+                return validator.validate(exams, snapshotEnrollments);
+            }
+        };
 
-            String error = constraintChecker.checkManualMove(exam, others, enrollments, bundle);
+        task.setOnSucceeded(e -> showValidationResults(exams.size(), task.getValue()));
+        task.setOnFailed(e -> {
+            Throwable ex = task.getException();
+            ex.printStackTrace();
+            showError(bundle.getString("dialog.error"), ex.getMessage());
+        });
 
-            if (error != null) {
-                issues.add("❌ " + exam.getCourse().getCode() + ": " + error);
-            } else {
-                validCount++;
-            }
+        Thread thread = new Thread(task, "timetable-validation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void showValidationResults(int totalExams, List<TimetableValidator.Violation> violations) {
+        List<String> issues = new ArrayList<>();
+        java.util.Set<Exam> invalidExams = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+        for (TimetableValidator.Violation violation : violations) {
+            issues.add("❌ " + violation.getExam().getCourse().getCode() + ": " + violation.toMessage(bundle));
+            invalidExams.add(violation.getExam());
         }
+        int validCount = totalExams - invalidExams.size();
 
         if (issues.isEmpty()) {
             String msg = MessageFormat.format(bundle.getString("validation.passed"), validCount);
@@ -3109,7 +3168,7 @@ public class MainController {
             List<String> reportLines = new ArrayList<>();
             reportLines.add(MessageFormat.format(bundle.getString("validation.summary"), totalExams));
             reportLines.add(MessageFormat.format(bundle.getString("validation.validCount"), validCount));
-            reportLines.add(MessageFormat.format(bundle.getString("validation.issuesCount"), issues.size()));
+            reportLines.add(MessageFormat.format(bundle.getString("validation.issuesCount"), invalidExams.size()));
             reportLines.add("");
             reportLines.add("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
             reportLines.addAll(issues);
@@ -3624,10 +3683,7 @@ public class MainController {
             if (newDate != null) {
                 ExamSlot newSlot = new ExamSlot(newDate, exam.getSlot().getStartTime(), exam.getSlot().getEndTime());
                 Exam tempExam = new Exam(exam.getCourse(), exam.getClassroom(), newSlot);
-                List<Exam> others = currentTimetable.getExams().stream()
-                        .filter(e -> !e.getCourse().getCode().equals(exam.getCourse().getCode()))
-                        .collect(Collectors.toList());
-                String error = constraintChecker.checkManualMove(tempExam, others, enrollments, bundle);
+                String error = checkManualMove(tempExam);
 
                 if (error == null) {
                     validationLabel.setText(bundle.getString("validation.valid"));
@@ -3736,10 +3792,7 @@ public class MainController {
         classroomCombo.valueProperty().addListener((obs, old, newRoom) -> {
             if (newRoom != null) {
                 Exam tempExam = new Exam(exam.getCourse(), newRoom, exam.getSlot());
-                List<Exam> others = currentTimetable.getExams().stream()
-                        .filter(e -> !e.getCourse().getCode().equals(exam.getCourse().getCode()))
-                        .collect(Collectors.toList());
-                String error = constraintChecker.checkManualMove(tempExam, others, enrollments, bundle);
+                String error = checkManualMove(tempExam);
 
                 if (error == null) {
                     validationLabel.setText(bundle.getString("validation.validChange"));
@@ -3799,10 +3852,9 @@ public class MainController {
         timeBox.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
 
         javafx.scene.control.ComboBox<String> timeCombo = new javafx.scene.control.ComboBox<>();
-        for (int hour = 9; hour <= 17; hour++) {
-            for (int min = 0; min < 60; min += 30) {
-                timeCombo.getItems().add(String.format("%02d:%02d", hour, min));
-            }
+        // Only starts at which the exam still ends inside the window
+        for (LocalTime time : currentPolicy().getStartTimes(exam.getCourse().getExamDurationMinutes())) {
+            timeCombo.getItems().add(time.format(timeFmt));
         }
         timeCombo.setValue(exam.getSlot().getStartTime().format(timeFmt));
 
@@ -3831,10 +3883,7 @@ public class MainController {
                 LocalTime newEnd = newStart.plusMinutes(exam.getCourse().getExamDurationMinutes());
                 ExamSlot newSlot = new ExamSlot(exam.getSlot().getDate(), newStart, newEnd);
                 Exam tempExam = new Exam(exam.getCourse(), exam.getClassroom(), newSlot);
-                List<Exam> others = currentTimetable.getExams().stream()
-                        .filter(e -> !e.getCourse().getCode().equals(exam.getCourse().getCode()))
-                        .collect(Collectors.toList());
-                String error = constraintChecker.checkManualMove(tempExam, others, enrollments, bundle);
+                String error = checkManualMove(tempExam);
 
                 if (error == null) {
                     validationLabel.setText("✓ Valid change");
@@ -3874,12 +3923,26 @@ public class MainController {
         });
     }
 
-    private void validateSingleExam(Exam exam) {
-        List<Exam> others = currentTimetable.getExams().stream()
-                .filter(e -> !e.getCourse().getCode().equals(exam.getCourse().getCode()))
-                .collect(Collectors.toList());
+    /**
+     * Checks {@code candidate} as the new placement of its course against the
+     * rest of the current timetable. The index only re-reads exams that
+     * changed since the last check.
+     */
+    private String checkManualMove(Exam candidate) {
+        currentPolicy();
+        timetableIndex.sync(currentTimetable.getExams(), enrollments);
+        return constraintChecker.checkManualMove(candidate, timetableIndex, bundle);
+    }
 
-        String error = constraintChecker.checkManualMove(exam, others, enrollments, bundle);
+    /** The scheduler's policy, also applied to the constraint checker so manual checks use the same rules. */
+    private SchedulingPolicy currentPolicy() {
+        SchedulingPolicy policy = schedulerService.getPolicy();
+        constraintChecker.setPolicy(policy);
+        return policy;
+    }
+
+    private void validateSingleExam(Exam exam) {
+        String error = checkManualMove(exam);
 
         if (error == null) {
             showInformation("Validation Passed", "✓ This exam has no constraint violations.\n\n" +
@@ -3930,7 +3993,7 @@ public class MainController {
             return;
         }
 
-        List<Exam> exams = currentTimetable.getExams();
+        TimetableAnalytics.Report report = analyticsReport();
 
         // ==========================================
         // 1. SUMMARY STATISTICS CARDS
@@ -3938,66 +4001,28 @@ public class MainController {
 
         // Total Exams
         if (lblStatExamsValue != null) {
-            lblStatExamsValue.setText(String.valueOf(exams.size()));
+            lblStatExamsValue.setText(String.valueOf(report.getExamCount()));
         }
 
         // Unique Students (Real count from Enrollments)
         if (lblStatStudentsValue != null) {
-            long uniqueStudents = enrollments.stream()
-                    .map(e -> e.getStudent().getId())
-                    .distinct()
-                    .count();
-            lblStatStudentsValue.setText(String.valueOf(uniqueStudents));
+            lblStatStudentsValue.setText(String.valueOf(report.getStudentCount()));
         }
 
         // Unique Classrooms
         if (lblStatClassroomsValue != null) {
-            long uniqueRooms = exams.stream()
-                    .map(e -> e.getClassroom().getName())
-                    .distinct()
-                    .count();
-            lblStatClassroomsValue.setText(String.valueOf(uniqueRooms));
+            lblStatClassroomsValue.setText(String.valueOf(report.getRoomCount()));
         }
 
         // Exam Days
         if (lblStatDaysValue != null) {
-            long examDays = exams.stream()
-                    .map(e -> e.getSlot().getDate())
-                    .distinct()
-                    .count();
-            lblStatDaysValue.setText(String.valueOf(examDays));
+            lblStatDaysValue.setText(String.valueOf(report.getDayCount()));
         }
 
         // ==========================================
         // 2. CONFLICT WARNING (Students with >1 Exam/Day)
         // ==========================================
-        int conflictCount = 0;
-
-        // Map: Student -> Date -> Count
-        Map<Student, Map<LocalDate, Long>> studentDailyExams = new HashMap<>();
-
-        // Pre-group exams by course for faster lookup
-        Map<String, List<Exam>> examsByCourse = exams.stream()
-                .collect(Collectors.groupingBy(e -> e.getCourse().getCode()));
-
-        for (Enrollment enroll : enrollments) {
-            List<Exam> courseExams = examsByCourse.get(enroll.getCourse().getCode());
-            if (courseExams != null) {
-                for (Exam ex : courseExams) {
-                    studentDailyExams.computeIfAbsent(enroll.getStudent(), k -> new HashMap<>())
-                            .merge(ex.getSlot().getDate(), 1L, Long::sum);
-                }
-            }
-        }
-
-        // Count conflicts (Soft constraint: >1 exam per day)
-        for (Map<LocalDate, Long> dayCounts : studentDailyExams.values()) {
-            for (Long count : dayCounts.values()) {
-                if (count > 1) {
-                    conflictCount++;
-                }
-            }
-        }
+        int conflictCount = report.getHeavyDays().size();
 
         if (conflictWarningBox != null) {
             if (conflictCount > 0) {
@@ -4024,22 +4049,17 @@ public class MainController {
             xAxis.setTickLabelGap(5);
         }
 
-        Map<LocalDate, Long> examsByDate = exams.stream()
-                .collect(Collectors.groupingBy(e -> e.getSlot().getDate(), Collectors.counting()));
-
         javafx.scene.chart.XYChart.Series<String, Number> datesSeries = new javafx.scene.chart.XYChart.Series<>();
         datesSeries.setName("Exams");
 
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd/MM");
         Map<String, LocalDate> dateMap = new HashMap<>();
 
-        examsByDate.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .forEach(entry -> {
-                    String dateStr = entry.getKey().format(fmt);
-                    dateMap.put(dateStr, entry.getKey());
-                    datesSeries.getData().add(new javafx.scene.chart.XYChart.Data<>(dateStr, entry.getValue()));
-                });
+        report.getExamsPerDay().forEach((date, count) -> {
+            String dateStr = date.format(fmt);
+            dateMap.put(dateStr, date);
+            datesSeries.getData().add(new javafx.scene.chart.XYChart.Data<>(dateStr, count));
+        });
 
         chartExamsPerDay.getData().add(datesSeries);
 
@@ -4047,10 +4067,7 @@ public class MainController {
         // 4. ROOM UTILIZATION (Pie Chart)
         // ==========================================
         chartRoomUsage.getData().clear();
-        Map<String, Long> roomUsage = exams.stream()
-                .collect(Collectors.groupingBy(e -> e.getClassroom().getName(), Collectors.counting()));
-
-        roomUsage.forEach((room, count) -> {
+        report.getRoomUsage().forEach((room, count) -> {
             javafx.scene.chart.PieChart.Data pieData = new javafx.scene.chart.PieChart.Data(room, count);
             chartRoomUsage.getData().add(pieData);
         });
@@ -4062,20 +4079,13 @@ public class MainController {
             chartTimeSlots.getData().clear();
             chartTimeSlots.setAnimated(false);
 
-            Map<String, Long> slotUsage = exams.stream()
-                    .collect(Collectors.groupingBy(
-                            e -> e.getSlot().getStartTime().format(DateTimeFormatter.ofPattern("HH:00")),
-                            Collectors.counting()));
-
             javafx.scene.chart.XYChart.Series<String, Number> slotSeries = new javafx.scene.chart.XYChart.Series<>();
             slotSeries.setName("Exams");
 
-            slotUsage.entrySet().stream()
-                    .sorted(Map.Entry.comparingByKey())
-                    .forEach(entry -> {
-                        slotSeries.getData()
-                                .add(new javafx.scene.chart.XYChart.Data<>(entry.getKey(), entry.getValue()));
-                    });
+            DateTimeFormatter hourFmt = DateTimeFormatter.ofPattern("HH:00");
+            report.getExamsPerHour().forEach((hour, count) -> {
+                slotSeries.getData().add(new javafx.scene.chart.XYChart.Data<>(hour.format(hourFmt), count));
+            });
 
             chartTimeSlots.getData().add(slotSeries);
         }
@@ -4087,26 +4097,14 @@ public class MainController {
             chartStudentLoad.getData().clear();
             chartStudentLoad.setAnimated(false);
 
-            // Calculate max exams per day for each student
-            // We already have studentDailyExams populated in step 2
-            Map<Long, Long> workloadDist = new HashMap<>(); // MaxExamsPerDay -> StudentCount
-
-            for (Map<LocalDate, Long> daily : studentDailyExams.values()) {
-                long maxDaily = daily.values().stream().mapToLong(l -> l).max().orElse(0);
-                if (maxDaily > 0) {
-                    workloadDist.merge(maxDaily, 1L, Long::sum);
-                }
-            }
-
             javafx.scene.chart.XYChart.Series<String, Number> loadSeries = new javafx.scene.chart.XYChart.Series<>();
             loadSeries.setName("Students");
 
-            workloadDist.entrySet().stream()
-                    .sorted(Map.Entry.comparingByKey())
-                    .forEach(entry -> {
-                        String label = entry.getKey() + (entry.getKey() == 1 ? " Exam/Day" : " Exams/Day");
-                        loadSeries.getData().add(new javafx.scene.chart.XYChart.Data<>(label, entry.getValue()));
-                    });
+            // Students per their busiest day's exam count
+            report.getMaxDailyLoads().forEach((maxDaily, students) -> {
+                String label = maxDaily + (maxDaily == 1 ? " Exam/Day" : " Exams/Day");
+                loadSeries.getData().add(new javafx.scene.chart.XYChart.Data<>(label, students));
+            });
 
             chartStudentLoad.getData().add(loadSeries);
         }
@@ -4151,6 +4149,10 @@ public class MainController {
 
     }
 
+    private TimetableAnalytics.Report analyticsReport() {
+        return timetableAnalytics.getReport(currentTimetable.getExams(), enrollments);
+    }
+
     private void showExamsForDate(LocalDate date) {
         List<Exam> exams = currentTimetable.getExams().stream()
                 .filter(e -> e.getSlot().getDate().equals(date))
@@ -4357,11 +4359,9 @@ public class MainController {
         startTimeCombo.setStyle("-fx-font-size: 14px;");
         startTimeCombo.setPrefWidth(120);
 
-        // Populate time slots (09:00 - 18:00)
-        for (int hour = 9; hour <= 17; hour++) {
-            for (int min = 0; min < 60; min += 30) {
-                startTimeCombo.getItems().add(String.format("%02d:%02d", hour, min));
-            }
+        // Populate time slots from the scheduling grid, up to the last start the exam still fits after
+        for (LocalTime time : currentPolicy().getStartTimes(exam.getCourse().getExamDurationMinutes())) {
+            startTimeCombo.getItems().add(time.format(DateTimeFormatter.ofPattern("HH:mm")));
         }
         startTimeCombo.setValue(exam.getSlot().getStartTime().format(DateTimeFormatter.ofPattern("HH:mm")));
 
@@ -4454,12 +4454,7 @@ public class MainController {
             // Create a temporary exam for validation
             Exam tempExam = new Exam(exam.getCourse(), newClassroom, newSlot);
 
-            // Create list without original exam for checking
-            List<Exam> otherExams = currentTimetable.getExams().stream()
-                    .filter(e -> !e.getCourse().getCode().equals(exam.getCourse().getCode()))
-                    .collect(Collectors.toList());
-
-            String error = constraintChecker.checkManualMove(tempExam, otherExams, enrollments, bundle);
+            String error = checkManualMove(tempExam);
 
             validationBox.setVisible(true);
             validationBox.setManaged(true);
@@ -4568,11 +4563,7 @@ public class MainController {
 
             // Create temp exam for final validation
             Exam tempExam = new Exam(exam.getCourse(), newClassroom, newSlot);
-            List<Exam> otherExams = currentTimetable.getExams().stream()
-                    .filter(ex -> !ex.getCourse().getCode().equals(exam.getCourse().getCode()))
-                    .collect(Collectors.toList());
-
-            String error = constraintChecker.checkManualMove(tempExam, otherExams, enrollments, bundle);
+            String error = checkManualMove(tempExam);
 
             if (error != null) {
                 // Show confirmation dialog for conflict override
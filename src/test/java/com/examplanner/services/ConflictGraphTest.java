@@ -0,0 +1,86 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the course conflict graph.
+ */
+class ConflictGraphTest {
+
+    private SchedulingProblem problem;
+    private ConflictGraph graph;
+    private int math;
+    private int physics;
+    private int chemistry;
+    private int history;
+
+    @BeforeEach
+    void setUp() {
+        Course mathCourse = new Course("MATH", "Math", 60);
+        Course physicsCourse = new Course("PHYS", "Physics", 60);
+        Course chemistryCourse = new Course("CHEM", "Chemistry", 60);
+        Course historyCourse = new Course("HIST", "History", 60);
+        Student ali = new Student("S1", "Ali");
+        Student ayse = new Student("S2", "Ayse");
+        Student mehmet = new Student("S3", "Mehmet");
+
+        // Ali: MATH, PHYS, CHEM  -  Ayse: MATH, PHYS  -  Mehmet: HIST
+        List<Enrollment> enrollments = List.of(
+                new Enrollment(ali, mathCourse),
+                new Enrollment(ali, physicsCourse),
+                new Enrollment(ali, chemistryCourse),
+                new Enrollment(ayse, mathCourse),
+                new Enrollment(ayse, physicsCourse),
+                new Enrollment(mehmet, historyCourse));
+
+        problem = new SchedulingProblem(List.of(mathCourse, physicsCourse, chemistryCourse, historyCourse),
+                List.of(new Classroom("R1", "Room", 50)), enrollments, LocalDate.of(2025, 1, 6), 3);
+        graph = new ConflictGraph(problem);
+
+        math = problem.courseIndex("MATH");
+        physics = problem.courseIndex("PHYS");
+        chemistry = problem.courseIndex("CHEM");
+        history = problem.courseIndex("HIST");
+    }
+
+    @Test
+    @DisplayName("Should connect courses that share students")
+    void shouldConnectCoursesSharingStudents() {
+        assertTrue(graph.conflicts(math, physics));
+        assertTrue(graph.conflicts(physics, math));
+        assertTrue(graph.conflicts(math, chemistry));
+        assertFalse(graph.conflicts(math, history));
+        assertFalse(graph.conflicts(history, history));
+
+        assertEquals(2, graph.getDegree(math));
+        assertEquals(0, graph.getDegree(history));
+    }
+
+    @Test
+    @DisplayName("Should count shared students per edge")
+    void shouldCountSharedStudents() {
+        assertEquals(2, graph.getSharedStudents(math, physics));
+        assertEquals(1, graph.getSharedStudents(math, chemistry));
+        assertEquals(0, graph.getSharedStudents(math, history));
+    }
+
+    @Test
+    @DisplayName("Should block courses whose students already sit both ends of an edge")
+    void shouldBuildPairBlocks() {
+        int words = graph.getWordCount();
+        int edge = graph.edgeIndex(math, physics);
+
+        // Ali takes MATH and PHYS, so a same-day pair blocks CHEM for him
+        assertTrue(Bits.test(graph.getPairBlocks(), edge * words, chemistry));
+        assertFalse(Bits.test(graph.getPairBlocks(), edge * words, history));
+        assertEquals(-1, graph.edgeIndex(math, history));
+    }
+}
@@ -0,0 +1,102 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the forward-checking course domains.
+ */
+class CourseDomainsTest {
+
+    private SchedulingProblem problem;
+    private ConflictGraph graph;
+    private IndexedScheduleState state;
+    private CourseDomains domains;
+    private int twoHours;
+    private int oneHour;
+    private int third;
+    private int room;
+
+    @BeforeEach
+    void setUp() {
+        Course a = new Course("A", "Two hours", 120);
+        Course b = new Course("B", "One hour", 60);
+        Course c = new Course("C", "Also one hour", 60);
+        Student ali = new Student("S1", "Ali");
+
+        // Ali takes all three courses
+        problem = new SchedulingProblem(List.of(a, b, c), List.of(new Classroom("R1", "Room", 50)),
+                List.of(new Enrollment(ali, a), new Enrollment(ali, b), new Enrollment(ali, c)),
+                LocalDate.of(2025, 1, 6), 2);
+        graph = new ConflictGraph(problem);
+        state = new IndexedScheduleState(problem, graph, 2);
+        domains = new CourseDomains(problem, graph, 2, 180);
+
+        twoHours = problem.courseIndex("A");
+        oneHour = problem.courseIndex("B");
+        third = problem.courseIndex("C");
+        room = problem.classroomIndex("R1");
+    }
+
+    @Test
+    @DisplayName("Should compute the start window ruled out by the minimum gap")
+    void shouldComputeExcludedWindow() {
+        // A at 09:00-11:00: B may not start before 14:00 (slots 0..9)
+        assertEquals(0, CourseDomains.firstExcludedStart(problem, 0, oneHour, 180));
+        assertEquals(9, CourseDomains.lastExcludedStart(problem, twoHours, 0, oneHour, 180));
+
+        // A at 12:00-14:00: B cannot end by 09:00 nor start before 17:00 (slots 0..15)
+        assertEquals(0, CourseDomains.firstExcludedStart(problem, 6, oneHour, 180));
+        assertEquals(15, CourseDomains.lastExcludedStart(problem, twoHours, 6, oneHour, 180));
+    }
+
+    @Test
+    @DisplayName("Should prune neighbours on placement and restore them on undo")
+    void shouldPruneAndRestore() {
+        int sizeBefore = domains.size(oneHour);
+
+        state.place(twoHours, 0, 0, new int[] { room }, 1);
+        assertTrue(domains.propagate(state, twoHours, 0, 0));
+        assertEquals(sizeBefore - 10, domains.size(oneHour));
+        assertFalse(domains.contains(oneHour, 0, 9));
+        assertTrue(domains.contains(oneHour, 0, 10));
+        assertTrue(domains.contains(oneHour, 1, 0));
+
+        domains.undo();
+        state.undo();
+        assertEquals(sizeBefore, domains.size(oneHour));
+        assertTrue(domains.contains(oneHour, 0, 9));
+    }
+
+    @Test
+    @DisplayName("Should clear the whole day once the daily limit is reached")
+    void shouldClearDayAtDailyLimit() {
+        state.place(twoHours, 0, 0, new int[] { room }, 1);
+        domains.propagate(state, twoHours, 0, 0);
+        state.place(oneHour, 0, 12, new int[] { room }, 1);
+        domains.propagate(state, oneHour, 0, 12);
+
+        assertEquals(0, domains.countRange(third, 0, 0, problem.getSlotCount() - 1));
+        assertEquals(problem.getStartSlotCount(third), domains.size(third));
+    }
+
+    @Test
+    @DisplayName("Should report a neighbour without options")
+    void shouldDetectWipeout() {
+        CourseDomains oneDay = new CourseDomains(problem, graph, 1, 180);
+        IndexedScheduleState oneDayState = new IndexedScheduleState(problem, graph, 1);
+
+        oneDayState.place(twoHours, 0, 0, new int[] { room }, 1);
+        assertTrue(oneDay.propagate(oneDayState, twoHours, 0, 0));
+        oneDayState.place(oneHour, 0, 12, new int[] { room }, 1);
+        assertFalse(oneDay.propagate(oneDayState, oneHour, 0, 12));
+        assertEquals(0, oneDay.size(third));
+    }
+}
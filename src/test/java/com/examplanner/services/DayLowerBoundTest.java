@@ -0,0 +1,107 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the day-count lower bounds.
+ */
+class DayLowerBoundTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 6);
+
+    private DayLowerBound compute(List<Course> courses, List<Classroom> classrooms, List<Enrollment> enrollments) {
+        SchedulingProblem problem = new SchedulingProblem(courses, classrooms, enrollments, START, 7);
+        return DayLowerBound.compute(problem, new ConflictGraph(problem), 180, 2);
+    }
+
+    @Test
+    @DisplayName("Should bound by the busiest student")
+    void shouldUseStudentBound() {
+        Student ali = new Student("S1", "Ali");
+        List<Course> courses = new ArrayList<>();
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Course course = new Course("C" + i, "Course " + i, 60);
+            courses.add(course);
+            enrollments.add(new Enrollment(ali, course));
+        }
+
+        DayLowerBound bound = compute(courses, List.of(new Classroom("R1", "Room", 10)), enrollments);
+
+        // Five exams, at most two a day
+        assertEquals(3, bound.getStudentDays());
+        assertEquals(3, bound.getDays());
+    }
+
+    @Test
+    @DisplayName("Should bound by a clique of pairwise conflicting courses")
+    void shouldUseCliqueBound() {
+        // Four 3-hour courses, every pair shares a different student
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            courses.add(new Course("C" + i, "Course " + i, 180));
+        }
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            for (int j = i + 1; j < 4; j++) {
+                Student student = new Student("S" + i + j, "Student " + i + j);
+                enrollments.add(new Enrollment(student, courses.get(i)));
+                enrollments.add(new Enrollment(student, courses.get(j)));
+            }
+        }
+
+        DayLowerBound bound = compute(courses, List.of(new Classroom("R1", "Room", 10)), enrollments);
+
+        // Nobody takes more than two exams, but only two 3-hour exams fit a day 3 hours apart
+        assertEquals(1, bound.getStudentDays());
+        assertEquals(4, bound.getClique().length);
+        assertEquals(2, bound.getCliqueDays());
+        assertEquals(DayLowerBound.Bound.CLIQUE, bound.getBindingBound());
+    }
+
+    @Test
+    @DisplayName("Should bound by room time of the large capacity class")
+    void shouldUseRoomTimeBound() {
+        // Twenty 3-hour exams of 60 students, only one room holds them
+        List<Course> courses = new ArrayList<>();
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Course course = new Course("C" + i, "Course " + i, 180);
+            courses.add(course);
+            for (int s = 0; s < 60; s++) {
+                enrollments.add(new Enrollment(new Student("S" + i + "_" + s, "Student"), course));
+            }
+        }
+        List<Classroom> classrooms = List.of(new Classroom("BIG", "Hall", 60), new Classroom("R1", "Room", 10),
+                new Classroom("R2", "Room", 10));
+
+        DayLowerBound bound = compute(courses, classrooms, enrollments);
+
+        // 20 exams * 6 cells over 19 cells per day in the big hall
+        assertEquals(7, bound.getRoomTimeDays());
+        assertEquals(60, bound.getRoomTimeThreshold());
+        assertEquals(DayLowerBound.Bound.ROOM_TIME, bound.getBindingBound());
+    }
+
+    @Test
+    @DisplayName("Should fit the shortest exams into one window")
+    void shouldCountExamsPerWindow() {
+        List<Course> courses = List.of(new Course("A", "A", 60), new Course("B", "B", 60),
+                new Course("C", "C", 60), new Course("D", "D", 240));
+        SchedulingProblem problem = new SchedulingProblem(courses, List.of(new Classroom("R1", "Room", 10)),
+                List.of(), START, 1);
+        int[] all = { 0, 1, 2, 3 };
+
+        // 60 + 180 + 60 + 180 + 60 = 540 minutes of the 570-minute window
+        assertEquals(3, DayLowerBound.examsPerWindow(problem, all, 180));
+        assertEquals(1, DayLowerBound.examsPerWindow(problem, new int[] { problem.courseIndex("D") }, 180));
+    }
+}
@@ -0,0 +1,144 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the array-backed IndexedScheduleState.
+ */
+class IndexedScheduleStateTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2025, 1, 6);
+
+    private Course course1;
+    private Course course2;
+    private Course course3;
+    private Student student1;
+    private Classroom classroom1;
+    private Classroom classroom2;
+    private SchedulingProblem problem;
+    private IndexedScheduleState state;
+
+    @BeforeEach
+    void setUp() {
+        course1 = new Course("CS101", "Intro", 120);
+        course2 = new Course("CS102", "Data Structures", 90);
+        course3 = new Course("CS103", "Discrete Math", 60);
+        student1 = new Student("S1", "Ali");
+        classroom1 = new Classroom("A101", "Hall", 50);
+        classroom2 = new Classroom("A102", "Room", 30);
+
+        List<Enrollment> enrollments = List.of(
+                new Enrollment(student1, course1),
+                new Enrollment(student1, course2),
+                new Enrollment(student1, course3));
+        problem = new SchedulingProblem(List.of(course1, course2, course3), List.of(classroom1, classroom2),
+                enrollments, DAY_1, 3);
+        state = new IndexedScheduleState(problem, new ConflictGraph(problem), 3);
+    }
+
+    private Exam exam(Course course, Classroom classroom, int hour, int minute) {
+        LocalTime start = LocalTime.of(hour, minute);
+        return new Exam(course, classroom,
+                new ExamSlot(DAY_1, start, start.plusMinutes(course.getExamDurationMinutes())));
+    }
+
+    @Test
+    @DisplayName("Should track student exam counts through add and removeLast")
+    void shouldTrackStudentExamCounts() {
+        assertEquals(0, state.getExamsCountForStudentDate("S1", DAY_1));
+
+        state.add(exam(course1, classroom1, 9, 0));
+        assertEquals(1, state.getExamsCountForStudentDate("S1", DAY_1));
+        assertEquals(1, state.getExamsForStudentDate("S1", DAY_1).size());
+
+        state.removeLast();
+        assertEquals(0, state.getExamsCountForStudentDate("S1", DAY_1));
+        assertTrue(state.getExams().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should check classroom availability against exact exam times")
+    void shouldTrackClassroomAvailability() {
+        state.add(exam(course1, classroom1, 10, 0));
+
+        assertFalse(state.isClassroomAvailable("A101",
+                new ExamSlot(DAY_1, LocalTime.of(11, 0), LocalTime.of(13, 0))));
+        assertTrue(state.isClassroomAvailable("A101",
+                new ExamSlot(DAY_1, LocalTime.of(12, 0), LocalTime.of(14, 0))));
+        assertTrue(state.isClassroomAvailable("A102",
+                new ExamSlot(DAY_1, LocalTime.of(11, 0), LocalTime.of(13, 0))));
+        assertTrue(state.isClassroomAvailable("UNKNOWN",
+                new ExamSlot(DAY_1, LocalTime.of(11, 0), LocalTime.of(13, 0))));
+    }
+
+    @Test
+    @DisplayName("Should work with ConstraintChecker.checkAll")
+    void shouldSupportConstraintChecker() {
+        ConstraintChecker checker = new ConstraintChecker();
+        state.add(exam(course1, classroom1, 9, 0)); // ends 11:00
+
+        // 12:00 is only one hour after the first exam
+        assertFalse(checker.checkAll(exam(course2, classroom2, 12, 0), state));
+        // 14:00 leaves the required three hours
+        assertTrue(checker.checkAll(exam(course2, classroom2, 14, 0), state));
+
+        state.add(exam(course2, classroom2, 14, 0));
+        // Third exam on the same day breaks the daily limit
+        assertFalse(checker.checkAll(exam(course3, classroom2, 17, 30), state));
+    }
+
+    @Test
+    @DisplayName("Should restore every index on undo")
+    void shouldRestoreStateOnUndo() {
+        int c1 = problem.courseIndex("CS101");
+        int c2 = problem.courseIndex("CS102");
+        int c3 = problem.courseIndex("CS103");
+        int room = problem.classroomIndex("A101");
+
+        state.place(c1, 0, 0, new int[] { room }, 1);
+        state.place(c2, 0, 10, new int[] { problem.classroomIndex("A102") }, 1);
+        assertTrue(state.exceedsDailyLimit(c3, 0));
+        assertFalse(state.isRoomFree(room, 0, 2, 1));
+        assertFalse(state.respectsMinimumGap(c3, 0, 6, 180));
+
+        state.undo();
+        assertFalse(state.exceedsDailyLimit(c3, 0));
+        assertEquals(1, state.getPlacedCourseCount());
+
+        state.undo();
+        assertTrue(state.isRoomFree(room, 0, 0, 4));
+        assertFalse(state.isPlaced(c1));
+        assertEquals(0, state.getRoomUsage(room));
+        assertEquals(0, state.getExamsOnDay(0));
+    }
+
+    @Test
+    @DisplayName("Should reject exams off the slot grid")
+    void shouldRejectOffGridExams() {
+        assertThrows(IllegalArgumentException.class, () -> state.add(exam(course1, classroom1, 9, 15)));
+    }
+
+    @Test
+    @DisplayName("Should keep a blocked room unavailable for the whole day")
+    void shouldBlockRoom() {
+        int room = problem.classroomIndex("A101");
+        state.blockRoom(room, 0);
+
+        assertFalse(state.isRoomFree(room, 0, 0, 1));
+        assertFalse(state.isRoomFree(room, 0, problem.getSlotCount() - 1, 1));
+        assertTrue(state.isRoomFree(room, 1, 0, 1));
+        assertFalse(state.isClassroomAvailable("A101",
+                new ExamSlot(DAY_1, LocalTime.of(15, 0), LocalTime.of(16, 0))));
+        assertTrue(state.isClassroomAvailable("A102",
+                new ExamSlot(DAY_1, LocalTime.of(15, 0), LocalTime.of(16, 0))));
+    }
+}
@@ -0,0 +1,133 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the infeasibility diagnosis.
+ */
+class InfeasibilityDiagnosisTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 6);
+
+    private static InfeasibilityDiagnosis diagnose(List<Course> courses, List<Classroom> classrooms,
+            List<Enrollment> enrollments, int days) {
+        SchedulingProblem problem = new SchedulingProblem(courses, classrooms, enrollments, START, days);
+        return InfeasibilityDiagnosis.analyze(problem, new ConflictGraph(problem), 180, 2, days);
+    }
+
+    /** Courses that pairwise share a student, but no student takes more than two of them. */
+    private static List<Enrollment> pairwiseConflicts(List<Course> courses) {
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int i = 0; i < courses.size(); i++) {
+            for (int j = i + 1; j < courses.size(); j++) {
+                Student student = new Student("S" + i + "_" + j, "Student");
+                enrollments.add(new Enrollment(student, courses.get(i)));
+                enrollments.add(new Enrollment(student, courses.get(j)));
+            }
+        }
+        return enrollments;
+    }
+
+    @Test
+    @DisplayName("Should report a conflict clique trimmed to the days it exceeds")
+    void shouldReportClique() {
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            courses.add(new Course("C" + i, "Course " + i, 60));
+        }
+
+        InfeasibilityDiagnosis diagnosis = diagnose(courses, List.of(new Classroom("R1", "Room", 50)),
+                pairwiseConflicts(courses), 2);
+
+        assertTrue(diagnosis.isProven());
+        assertEquals(1, diagnosis.getCores().size());
+        InfeasibilityDiagnosis.Core core = diagnosis.getCores().get(0);
+        assertEquals(InfeasibilityDiagnosis.Kind.CONFLICT_CLIQUE, core.getKind());
+        // Three 60-minute exams fit into 09:00-18:30 with 180-minute gaps, so 2 days take 6
+        assertEquals(7, core.getCourses().size());
+        assertEquals(3, diagnosis.getDaysNeeded());
+        assertFalse(diagnosis.needsRooms());
+    }
+
+    @Test
+    @DisplayName("Should report a course larger than the rooms")
+    void shouldReportCapacityShortfall() {
+        Course course = new Course("BIG", "Big", 60);
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int s = 0; s < 20; s++) {
+            enrollments.add(new Enrollment(new Student("S" + s, "Student"), course));
+        }
+
+        InfeasibilityDiagnosis diagnosis = diagnose(List.of(course), List.of(new Classroom("R1", "Room", 10)),
+                enrollments, 5);
+
+        InfeasibilityDiagnosis.Core core = diagnosis.getCores().get(0);
+        assertEquals(InfeasibilityDiagnosis.Kind.ROOM_CAPACITY, core.getKind());
+        assertEquals(List.of(course), core.getCourses());
+        assertEquals("R1", core.getClassrooms().get(0).getId());
+        assertTrue(diagnosis.needsRooms());
+        assertEquals(-1, diagnosis.getDaysNeeded(), "More days do not help");
+    }
+
+    @Test
+    @DisplayName("Should report large parts that overfill their rooms' slots")
+    void shouldReportRoomTimeShortfall() {
+        List<Course> courses = new ArrayList<>();
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Course course = new Course("C" + i, "Course " + i, 240);
+            courses.add(course);
+            enrollments.add(new Enrollment(new Student("S" + i, "Student"), course));
+        }
+
+        // Three 4-hour exams in one room need 24 of the 19 half-hour cells of a day
+        InfeasibilityDiagnosis diagnosis = diagnose(courses, List.of(new Classroom("R1", "Room", 10)),
+                enrollments, 1);
+
+        InfeasibilityDiagnosis.Core core = diagnosis.getCores().get(0);
+        assertEquals(InfeasibilityDiagnosis.Kind.ROOM_TIME, core.getKind());
+        assertEquals(3, core.getCourses().size());
+        assertEquals(2, diagnosis.getDaysNeeded());
+    }
+
+    @Test
+    @DisplayName("Should prove nothing for a feasible problem")
+    void shouldStayEmptyWhenFeasible() {
+        List<Course> courses = List.of(new Course("A", "A", 60), new Course("B", "B", 60));
+
+        InfeasibilityDiagnosis diagnosis = diagnose(courses, List.of(new Classroom("R1", "Room", 50)),
+                pairwiseConflicts(courses), 1);
+
+        assertFalse(diagnosis.isProven());
+        assertEquals(-1, diagnosis.getDaysNeeded());
+    }
+
+    @Test
+    @DisplayName("Should fail fast with the diagnosis instead of probing")
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void shouldFailFastFromScheduler() {
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            courses.add(new Course("C" + i, "Course " + i, 60));
+        }
+        SchedulerService service = new SchedulerService();
+
+        InfeasibleScheduleException exception = assertThrows(InfeasibleScheduleException.class,
+                () -> service.generateTimetable(courses, List.of(new Classroom("R1", "Room", 50)),
+                        pairwiseConflicts(courses), START, START.plusDays(1)));
+
+        assertTrue(exception.getMessage().contains("Could not find a valid schedule"));
+        assertEquals(InfeasibilityDiagnosis.Kind.CONFLICT_CLIQUE,
+                exception.getDiagnosis().getCores().get(0).getKind());
+    }
+}
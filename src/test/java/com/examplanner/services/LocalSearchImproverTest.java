@@ -0,0 +1,166 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the local-search timetable improver.
+ */
+class LocalSearchImproverTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 6);
+
+    private Exam exam(Course course, Classroom classroom, int day, int hour) {
+        LocalTime start = LocalTime.of(hour, 0);
+        return new Exam(course, classroom,
+                new ExamSlot(START.plusDays(day), start, start.plusMinutes(course.getExamDurationMinutes())));
+    }
+
+    private LocalSearchImprover improver(List<Course> courses, List<Classroom> classrooms,
+            List<Enrollment> enrollments, int days) {
+        SchedulingProblem problem = new SchedulingProblem(courses, classrooms, enrollments, START, days);
+        return new LocalSearchImprover(problem, new ConflictGraph(problem), 180, 2, 42L);
+    }
+
+    @Test
+    @DisplayName("Should spread a student's exams away from the same and adjacent days")
+    void shouldSpreadStudentExams() {
+        Course a = new Course("A", "A", 60);
+        Course b = new Course("B", "B", 60);
+        Course filler = new Course("F", "Filler", 60);
+        Student ali = new Student("S1", "Ali");
+        Classroom room = new Classroom("R1", "Room", 1);
+        List<Enrollment> enrollments = List.of(new Enrollment(ali, a), new Enrollment(ali, b));
+
+        // Both on the first day; the filler only fixes the three-day span
+        ExamTimetable timetable = new ExamTimetable(
+                List.of(exam(a, room, 0, 9), exam(b, room, 0, 13), exam(filler, room, 2, 9)), enrollments);
+        LocalSearchImprover improver = improver(List.of(a, b, filler), List.of(room), enrollments, 3);
+
+        ExamTimetable improved = improver.improve(timetable, 200);
+
+        assertEquals(LocalSearchImprover.TWO_EXAMS_DAY_WEIGHT + 1, improver.getInitialCost());
+        assertEquals(1, improver.getBestCost());
+        LocalDate dayA = findExam(improved, "A").getSlot().getDate();
+        LocalDate dayB = findExam(improved, "B").getSlot().getDate();
+        assertEquals(2, Math.abs(dayA.toEpochDay() - dayB.toEpochDay()));
+    }
+
+    @Test
+    @DisplayName("Should move an exam to the best fitting free room")
+    void shouldReduceWastedSeats() {
+        Course a = new Course("A", "A", 60);
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int s = 0; s < 10; s++) {
+            enrollments.add(new Enrollment(new Student("S" + s, "Student"), a));
+        }
+        Classroom hall = new Classroom("HALL", "Hall", 100);
+        Classroom small = new Classroom("SMALL", "Small", 12);
+
+        ExamTimetable timetable = new ExamTimetable(List.of(exam(a, hall, 0, 9)), enrollments);
+        LocalSearchImprover improver = improver(List.of(a), List.of(hall, small), enrollments, 1);
+
+        ExamTimetable improved = improver.improve(timetable, 100);
+
+        assertEquals(90, improver.getInitialCost());
+        assertEquals(2, improver.getBestCost());
+        assertEquals("SMALL", improved.getExams().get(0).getClassroom().getId());
+    }
+
+    @Test
+    @DisplayName("Should keep every hard constraint while improving")
+    void shouldStayFeasible() {
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            courses.add(new Course("C" + i, "Course " + i, 60 + (i % 3) * 30));
+        }
+        Random random = new Random(7);
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int s = 0; s < 40; s++) {
+            Student student = new Student("S" + s, "Student " + s);
+            for (int k = 0; k < 3; k++) {
+                Course course = courses.get(random.nextInt(courses.size()));
+                if (enrollments.stream().noneMatch(e -> e.getStudent() == student && e.getCourse() == course)) {
+                    enrollments.add(new Enrollment(student, course));
+                }
+            }
+        }
+        List<Classroom> classrooms = List.of(new Classroom("R1", "Room", 40), new Classroom("R2", "Room", 30),
+                new Classroom("R3", "Room", 20));
+
+        SchedulerService service = new SchedulerService();
+        service.setRandomSeed(3L);
+        ExamTimetable initial = service.generateTimetable(courses, classrooms, enrollments, START,
+                START.plusDays(9));
+        int days = (int) (lastDate(initial).toEpochDay() - START.toEpochDay()) + 1;
+
+        LocalSearchImprover improver = improver(courses, classrooms, enrollments, days);
+        ExamTimetable improved = improver.improve(initial, 300);
+
+        assertTrue(improver.getBestCost() <= improver.getInitialCost());
+        assertEquals(initial.getExams().size(), improved.getExams().size());
+        assertFalse(lastDate(improved).isAfter(lastDate(initial)));
+
+        // Replaying into the indexed state checks rooms, gaps and daily limits
+        SchedulingProblem problem = new SchedulingProblem(courses, classrooms, enrollments, START, days);
+        IndexedScheduleState state = new IndexedScheduleState(problem, new ConflictGraph(problem), days);
+        ConstraintChecker checker = new ConstraintChecker();
+        for (Exam exam : improved.getExams()) {
+            assertTrue(checker.checkAll(exam, state), "Violation at " + exam);
+            state.add(exam);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject exams off the scheduling grid")
+    void shouldRejectOffGridExam() {
+        Course a = new Course("A", "A", 60);
+        Classroom room = new Classroom("R1", "Room", 10);
+        LocalTime start = LocalTime.of(9, 15);
+        ExamTimetable timetable = new ExamTimetable(List.of(new Exam(a, room,
+                new ExamSlot(START, start, start.plusMinutes(60)))), List.of());
+
+        LocalSearchImprover improver = improver(List.of(a), List.of(room), List.of(), 1);
+
+        assertThrows(IllegalArgumentException.class, () -> improver.improve(timetable, 10));
+    }
+
+    @Test
+    @DisplayName("Should improve through the scheduler service entry point")
+    void shouldImproveThroughService() {
+        Course a = new Course("A", "A", 60);
+        Classroom hall = new Classroom("HALL", "Hall", 100);
+        Classroom small = new Classroom("SMALL", "Small", 5);
+        List<Enrollment> enrollments = List.of(new Enrollment(new Student("S1", "Ali"), a));
+        ExamTimetable timetable = new ExamTimetable(List.of(exam(a, hall, 0, 9)), enrollments);
+
+        ExamTimetable improved = new SchedulerService().improveTimetable(timetable, List.of(hall, small), 50);
+
+        assertEquals("SMALL", improved.getExams().get(0).getClassroom().getId());
+        assertThrows(IllegalArgumentException.class,
+                () -> new SchedulerService().improveTimetable(timetable, List.of(hall), -1));
+    }
+
+    private static Exam findExam(ExamTimetable timetable, String code) {
+        return timetable.getExams().stream()
+                .filter(e -> e.getCourse().getCode().equals(code))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static LocalDate lastDate(ExamTimetable timetable) {
+        return timetable.getExams().stream()
+                .map(e -> e.getSlot().getDate())
+                .max(LocalDate::compareTo)
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,46 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.ExamTimetable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the per-run probe cache.
+ */
+class ProbeCacheTest {
+
+    @Test
+    @DisplayName("Should answer larger day counts with the shortest cached schedule")
+    void shouldReuseShortestSolution() {
+        ProbeCache cache = new ProbeCache();
+        ExamTimetable fiveDays = new ExamTimetable(List.of(), List.of());
+        ExamTimetable threeDays = new ExamTimetable(List.of(), List.of());
+
+        assertNull(cache.findSolution(10));
+        cache.recordSolution(5, fiveDays);
+        cache.recordSolution(3, threeDays);
+
+        assertSame(threeDays, cache.findSolution(10));
+        assertSame(threeDays, cache.findSolution(3));
+        assertNull(cache.findSolution(2));
+        assertEquals(3, cache.getShortestSolutionDays());
+    }
+
+    @Test
+    @DisplayName("Should treat every smaller day count as infeasible")
+    void shouldExtendInfeasibilityDownwards() {
+        ProbeCache cache = new ProbeCache();
+        assertFalse(cache.isProvenInfeasible(1));
+
+        cache.recordInfeasible(6);
+        cache.recordInfeasible(4);
+
+        assertTrue(cache.isProvenInfeasible(6));
+        assertTrue(cache.isProvenInfeasible(2));
+        assertFalse(cache.isProvenInfeasible(7));
+    }
+}
@@ -0,0 +1,204 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for room packing and the Hall-condition check.
+ */
+class RoomMatcherTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 6);
+
+    private SchedulingProblem problem(List<Classroom> classrooms) {
+        return new SchedulingProblem(List.of(new Course("A", "A", 60)), classrooms, List.of(), START, 1);
+    }
+
+    private static int[] rooms(SchedulingProblem problem, String... ids) {
+        int[] rooms = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            rooms[i] = problem.classroomIndex(ids[i]);
+        }
+        return rooms;
+    }
+
+    private static String[] ids(SchedulingProblem problem, int[] assigned, int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = problem.getClassroom(assigned[i]).getId();
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Should give a single part the smallest room that fits")
+    void shouldBestFitSinglePart() {
+        SchedulingProblem problem = problem(List.of(new Classroom("HALL", "Hall", 200),
+                new Classroom("MID", "Mid", 60), new Classroom("SMALL", "Small", 30)));
+        RoomMatcher matcher = new RoomMatcher(problem);
+        int[] assigned = new int[1];
+
+        assertTrue(matcher.assign(45, 1, rooms(problem, "HALL", "MID", "SMALL"), 3, null, null, assigned));
+        assertEquals("MID", problem.getClassroom(assigned[0]).getId());
+    }
+
+    @Test
+    @DisplayName("Should pack a large course into rooms of different sizes")
+    void shouldPackMixedRooms() {
+        SchedulingProblem problem = problem(List.of(new Classroom("R120", "Room", 120),
+                new Classroom("R100", "Room", 100), new Classroom("R80", "Room", 80),
+                new Classroom("R20", "Room", 20)));
+        RoomMatcher matcher = new RoomMatcher(problem);
+        int[] free = rooms(problem, "R120", "R100", "R80", "R20");
+        int[] assigned = new int[3];
+
+        assertTrue(matcher.assign(300, 3, free, 4, null, null, assigned));
+        assertArrayEquals(new String[] { "R100", "R120", "R80" }, ids(problem, assigned, 3));
+
+        // 120 + 80 wastes 5 seats, 120 + 100 would waste 25
+        assertTrue(matcher.assign(195, 2, free, 4, null, null, assigned));
+        assertArrayEquals(new String[] { "R120", "R80" }, ids(problem, assigned, 2));
+    }
+
+    @Test
+    @DisplayName("Should prefer the less used room among equal capacities")
+    void shouldBalanceUsage() {
+        Course a = new Course("A", "A", 60);
+        Course b = new Course("B", "B", 60);
+        List<Classroom> classrooms = List.of(new Classroom("R1", "Room", 30), new Classroom("R2", "Room", 30));
+        SchedulingProblem problem = new SchedulingProblem(List.of(a, b), classrooms, List.of(), START, 1);
+        IndexedScheduleState state = new IndexedScheduleState(problem, new ConflictGraph(problem), 1);
+        state.place(problem.courseIndex("A"), 0, 0, new int[] { problem.classroomIndex("R1") }, 1);
+
+        RoomMatcher matcher = new RoomMatcher(problem);
+        int[] assigned = new int[1];
+        assertTrue(matcher.assign(10, 1, rooms(problem, "R1", "R2"), 2, state, null, assigned));
+        assertEquals("R2", problem.getClassroom(assigned[0]).getId());
+    }
+
+    @Test
+    @DisplayName("Should decide feasibility by the largest free rooms")
+    void shouldCheckHallCondition() {
+        SchedulingProblem problem = problem(List.of(new Classroom("R100", "Room", 100),
+                new Classroom("R50", "Room", 50), new Classroom("R40", "Room", 40)));
+        int[] free = rooms(problem, "R100", "R50", "R40");
+
+        assertTrue(RoomMatcher.canHold(problem, 150, 2, free, 3));
+        assertFalse(RoomMatcher.canHold(problem, 151, 2, free, 3));
+        assertFalse(RoomMatcher.canHold(problem, 10, 2, free, 1));
+        assertFalse(new RoomMatcher(problem).assign(151, 2, free, 3, null, null, new int[2]));
+    }
+
+    @Test
+    @DisplayName("Should check free rooms in the schedule state")
+    void shouldCheckFreeRoomsInState() {
+        Course big = new Course("BIG", "Big", 60);
+        Course other = new Course("O", "Other", 60);
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int s = 0; s < 150; s++) {
+            enrollments.add(new Enrollment(new Student("S" + s, "Student"), big));
+        }
+        List<Classroom> classrooms = List.of(new Classroom("R100", "Room", 100), new Classroom("R60", "Room", 60),
+                new Classroom("R50", "Room", 50));
+        SchedulingProblem problem = new SchedulingProblem(List.of(big, other), classrooms, enrollments, START, 1);
+        IndexedScheduleState state = new IndexedScheduleState(problem, new ConflictGraph(problem), 1);
+        int course = problem.courseIndex("BIG");
+        int span = problem.getSlotSpan(course);
+
+        assertEquals(2, problem.getPartSizes(course).length);
+        assertTrue(RoomMatcher.fits(problem, state, course, 0, 0, span));
+
+        // Without the 60-seat room, 100 + 50 still holds 150 students
+        state.place(problem.courseIndex("O"), 0, 0, rooms(problem, "R60"), 1);
+        assertTrue(RoomMatcher.fits(problem, state, course, 0, 0, span));
+        state.undo();
+
+        state.place(problem.courseIndex("O"), 0, 0, rooms(problem, "R100"), 1);
+        assertFalse(RoomMatcher.fits(problem, state, course, 0, 0, span));
+    }
+
+    @Test
+    @DisplayName("Should take the least used rooms of a capacity class")
+    void shouldPickCheapestInClass() {
+        List<Classroom> classrooms = new ArrayList<>();
+        for (int r = 0; r < 12; r++) {
+            classrooms.add(new Classroom("R" + r, "Room", 40));
+        }
+        List<Course> courses = List.of(new Course("A", "A", 60), new Course("B", "B", 60));
+        SchedulingProblem problem = new SchedulingProblem(courses, classrooms, List.of(), START, 2);
+        IndexedScheduleState state = new IndexedScheduleState(problem, new ConflictGraph(problem), 2);
+        // Rooms R0 .. R5 were used once already, on another day
+        state.place(problem.courseIndex("A"), 1, 0, rooms(problem, "R0", "R1", "R2", "R3", "R4", "R5"), 6);
+        int[] free = new int[12];
+        for (int r = 0; r < 12; r++) {
+            free[r] = r;
+        }
+
+        int[] assigned = new int[5];
+        assertTrue(new RoomMatcher(problem).assign(190, 5, free, 12, state, null, assigned));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, state.getRoomUsage(assigned[i]), "Used room " + assigned[i]);
+        }
+        assertEquals(5, Arrays.stream(assigned).distinct().count());
+    }
+
+    @Test
+    @DisplayName("Should agree with an exhaustive search on random instances")
+    void shouldMatchBruteForce() {
+        Random random = new Random(11);
+        for (int round = 0; round < 300; round++) {
+            List<Classroom> classrooms = new ArrayList<>();
+            int roomCount = 2 + random.nextInt(7);
+            for (int r = 0; r < roomCount; r++) {
+                classrooms.add(new Classroom("R" + r, "Room", 10 + random.nextInt(90)));
+            }
+            SchedulingProblem problem = problem(classrooms);
+            int[] free = new int[roomCount];
+            for (int r = 0; r < roomCount; r++) {
+                free[r] = r; // problem order is largest first
+            }
+            int needed = 1 + random.nextInt(Math.min(4, roomCount));
+            int enrolled = 5 + random.nextInt(80 * needed);
+
+            int[] assigned = new int[needed];
+            boolean packed = new RoomMatcher(problem).assign(enrolled, needed, free, roomCount, null, null,
+                    assigned);
+            long best = bruteForce(problem, enrolled, needed, 0, 0);
+
+            assertEquals(best >= 0, packed, "Round " + round);
+            if (packed) {
+                long seats = 0;
+                for (int i = 0; i < needed; i++) {
+                    seats += problem.getCapacity(assigned[i]);
+                }
+                assertEquals(needed, Arrays.stream(assigned).distinct().count(), "Round " + round);
+                assertEquals(best, seats - enrolled, "Round " + round);
+            }
+        }
+    }
+
+    /** Fewest empty seats over all sets of {@code left} rooms from {@code from} on; -1 if none holds everyone. */
+    private static long bruteForce(SchedulingProblem problem, int enrolled, int left, int from, long seats) {
+        if (left == 0) {
+            return seats >= enrolled ? seats - enrolled : -1;
+        }
+        long best = -1;
+        for (int r = from; r < problem.getClassroomCount(); r++) {
+            long waste = bruteForce(problem, enrolled, left - 1, r + 1, seats + problem.getCapacity(r));
+            if (waste >= 0 && (best < 0 || waste < best)) {
+                best = waste;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,99 @@
+package com.examplanner.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the room occupancy bitsets.
+ */
+class RoomOccupancyIndexTest {
+
+    @Test
+    @DisplayName("Should answer availability, first free slot and free rooms")
+    void shouldAnswerRoomQueries() {
+        RoomOccupancyIndex index = new RoomOccupancyIndex(3, 2, 19);
+        index.occupy(0, 0, 2, 4); // cells 2..5
+        index.occupy(1, 0, 4, 2); // cells 4..5
+
+        assertTrue(index.isFree(0, 0, 0, 2));
+        assertFalse(index.isFree(0, 0, 1, 2));
+        assertTrue(index.isFree(0, 1, 2, 4), "Other day");
+        assertEquals(6, index.firstFreeSlot(0, 0, 3, 1, 19));
+        assertEquals(0, index.firstFreeSlot(0, 0, 2, 0, 19));
+        assertEquals(-1, index.firstFreeSlot(0, 0, 14, 0, 19));
+        assertEquals(6, index.firstFreeSlot(0, 0, 13, 0, 19));
+
+        long[] free = new long[index.getRoomWordCount()];
+        assertEquals(1, index.freeRooms(0, 3, 2, free, 0));
+        assertEquals(0b100L, free[0]);
+        assertEquals(2, index.freeRooms(0, 2, 2, free, 0));
+        assertEquals(0b110L, free[0]);
+
+        index.release(0, 0, 2, 4);
+        assertTrue(index.isFree(0, 0, 1, 6));
+        index.occupyDay(2, 1);
+        assertEquals(-1, index.firstFreeSlot(2, 1, 1, 0, 19));
+    }
+
+    @Test
+    @DisplayName("Should agree with a cell-by-cell scan on small and wide grids")
+    void shouldMatchScan() {
+        Random random = new Random(5);
+        for (int slots : new int[] { 19, 64, 130 }) {
+            int rooms = 70;
+            RoomOccupancyIndex index = new RoomOccupancyIndex(rooms, 1, slots);
+            boolean[][] occupied = new boolean[rooms][slots];
+            for (int i = 0; i < 400; i++) {
+                int room = random.nextInt(rooms);
+                int slot = random.nextInt(slots);
+                int span = 1 + random.nextInt(Math.min(6, slots - slot));
+                index.occupy(room, 0, slot, span);
+                for (int cell = slot; cell < slot + span; cell++) {
+                    occupied[room][cell] = true;
+                }
+            }
+
+            long[] free = new long[index.getRoomWordCount()];
+            for (int i = 0; i < 500; i++) {
+                int room = random.nextInt(rooms);
+                int span = 1 + random.nextInt(8);
+                int from = random.nextInt(slots);
+                int limit = from + random.nextInt(slots - from + 1);
+
+                int expected = -1;
+                for (int slot = from; slot < limit && expected < 0; slot++) {
+                    if (slot + span <= slots && freeScan(occupied[room], slot, span)) {
+                        expected = slot;
+                    }
+                }
+                assertEquals(expected, index.firstFreeSlot(room, 0, span, from, limit),
+                        "Grid " + slots + ", room " + room + ", span " + span + ", from " + from);
+
+                int slot = random.nextInt(slots);
+                int count = index.freeRooms(0, slot, span, free, 0);
+                int expectedCount = 0;
+                for (int r = 0; r < rooms; r++) {
+                    boolean isFree = freeScan(occupied[r], slot, span);
+                    expectedCount += isFree ? 1 : 0;
+                    assertEquals(isFree, Bits.test(free, 0, r), "Room " + r);
+                    assertEquals(isFree, index.isFree(r, 0, slot, span), "Room " + r);
+                }
+                assertEquals(expectedCount, count);
+            }
+        }
+    }
+
+    /** Cells {@code slot .. slot + span - 1} on the grid are all free. */
+    private static boolean freeScan(boolean[] cells, int slot, int span) {
+        for (int cell = slot; cell < Math.min(slot + span, cells.length); cell++) {
+            if (cells[cell]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
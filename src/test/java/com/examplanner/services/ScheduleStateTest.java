@@ -65,6 +65,28 @@ class ScheduleStateTest {
         assertTrue(scheduleState.isClassroomAvailable(classroom1.getId(), nonOverlappingSlot));
     }
 
+    @Test
+    @DisplayName("Should find overlaps with long exams that start much earlier")
+    void shouldFindOverlapWithEarlierLongExam() {
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        Course shortCourse = new Course("CS102", "Short", 30);
+        scheduleState.add(new Exam(shortCourse, classroom1,
+                new ExamSlot(date, LocalTime.of(15, 0), LocalTime.of(15, 30))));
+        scheduleState.add(new Exam(course1, classroom1,
+                new ExamSlot(date, LocalTime.of(9, 0), LocalTime.of(13, 0))));
+
+        assertFalse(scheduleState.isClassroomAvailable(classroom1.getId(),
+                new ExamSlot(date, LocalTime.of(12, 30), LocalTime.of(13, 0))));
+        assertTrue(scheduleState.isClassroomAvailable(classroom1.getId(),
+                new ExamSlot(date, LocalTime.of(13, 0), LocalTime.of(15, 0))));
+
+        scheduleState.removeLast();
+        assertTrue(scheduleState.isClassroomAvailable(classroom1.getId(),
+                new ExamSlot(date, LocalTime.of(12, 30), LocalTime.of(13, 0))));
+        assertFalse(scheduleState.isClassroomAvailable(classroom1.getId(),
+                new ExamSlot(date, LocalTime.of(14, 0), LocalTime.of(15, 10))));
+    }
+
     @Test
     @DisplayName("Should return empty lists for unknown lookups")
     void shouldReturnEmptyListsForUnknownLookups() {
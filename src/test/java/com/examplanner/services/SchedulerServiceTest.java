@@ -8,8 +8,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -275,10 +282,380 @@ class SchedulerServiceTest {
 
             assertTrue(exception.getMessage().contains("Could not find a valid schedule"));
         }
+
+        @Test
+        @DisplayName("Should find a schedule the best-fit room pick misses")
+        @Timeout(value = 10, unit = TimeUnit.SECONDS)
+        void shouldBranchOverRoomsBeforeGivingUp() {
+            // One 4-hour day, rooms of 60 and 90 seats, no shared students. The only schedule puts
+            // A (3h, 58) with C (1h, 69) in the large room and B, D (2h each) in the small one;
+            // best fit puts A into the small room.
+            Course a = new Course("A", "A", 180);
+            Course b = new Course("B", "B", 120);
+            Course c = new Course("C", "C", 60);
+            Course d = new Course("D", "D", 120);
+            List<Enrollment> enrollments = new ArrayList<>();
+            int[] sizes = {58, 28, 69, 33};
+            List<Course> courses = List.of(a, b, c, d);
+            for (int i = 0; i < courses.size(); i++) {
+                for (int s = 0; s < sizes[i]; s++) {
+                    enrollments.add(new Enrollment(new Student(i + "-" + s, "Student " + s), courses.get(i)));
+                }
+            }
+            List<Classroom> classrooms = List.of(new Classroom("R1", "Small", 60), new Classroom("R2", "Large", 90));
+            schedulerService.setPolicy(new SchedulingPolicy(LocalTime.of(9, 0), LocalTime.of(13, 0), 60, 60, 3));
+            schedulerService.setUseRandomization(false);
+            LocalDate startDate = LocalDate.of(2025, 1, 6);
+
+            ExamTimetable result = schedulerService.generateTimetable(courses, classrooms, enrollments, startDate,
+                    startDate);
+
+            assertEquals(4, result.getExams().size());
+            assertTrue(result.getExams().stream()
+                    .filter(e -> e.getCourse() == a || e.getCourse() == c)
+                    .allMatch(e -> e.getClassroom().getCapacity() == 90));
+        }
+    }
+
+    @Nested
+    @DisplayName("Parallel Search Tests")
+    class ParallelSearchTests {
+
+        @Test
+        @DisplayName("Should find the same day count with parallel probes")
+        @Timeout(value = 60, unit = TimeUnit.SECONDS)
+        void shouldMatchSequentialSearch() {
+            List<Course> courses = createCourses(5);
+            List<Classroom> classrooms = createClassrooms(3);
+            List<Enrollment> enrollments = createEnrollments(courses, createStudents(20));
+            LocalDate startDate = LocalDate.now().plusDays(1);
+
+            schedulerService.setParallelism(1);
+            ExamTimetable sequential = schedulerService.generateTimetable(courses, classrooms, enrollments, startDate);
+
+            SchedulerService parallelService = new SchedulerService();
+            parallelService.setParallelism(4);
+            ExamTimetable parallel = parallelService.generateTimetable(courses, classrooms, enrollments, startDate);
+
+            // Every student takes all five courses, so at most two fit per day
+            assertEquals(3, countDays(sequential));
+            assertEquals(countDays(sequential), countDays(parallel));
+            assertEquals(5, parallel.getExams().size());
+        }
+
+        @Test
+        @DisplayName("Should build optimal and alternative options from one parallel batch")
+        @Timeout(value = 60, unit = TimeUnit.SECONDS)
+        void shouldGenerateOptionsInParallel() {
+            List<Course> courses = createCourses(5);
+            List<Classroom> classrooms = createClassrooms(3);
+            List<Enrollment> enrollments = createEnrollments(courses, createStudents(20));
+            LocalDate startDate = LocalDate.now().plusDays(1);
+
+            schedulerService.setParallelism(4);
+            schedulerService.setRandomSeed(42);
+            ScheduleOptions options = schedulerService.generateTimetableWithOptions(courses, classrooms,
+                    enrollments, startDate, startDate.plusDays(9));
+
+            assertEquals(3, options.getOptimalDays());
+            assertNotNull(options.getOptimalSchedule());
+            List<ScheduleOptions.ScheduleOption> all = options.getAllOptions();
+            assertTrue(all.get(0).isOptimal());
+            for (int i = 0; i < all.size(); i++) {
+                assertEquals(5, all.get(i).getSchedule().getExams().size());
+                if (i > 0) {
+                    // Fewest days first, lowest penalty first within a day count
+                    ScheduleOptions.ScheduleOption previous = all.get(i - 1);
+                    ScheduleOptions.ScheduleOption option = all.get(i);
+                    assertTrue(option.getDays() >= previous.getDays());
+                    if (option.getDays() == previous.getDays()) {
+                        assertTrue(option.getScore().getPenalty() >= previous.getScore().getPenalty());
+                        assertEquals(previous.getVariant() + 1, option.getVariant());
+                        assertNotEquals(previous.toString(), option.toString());
+                    }
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should run several schedules concurrently on one instance")
+        @Timeout(value = 120, unit = TimeUnit.SECONDS)
+        void shouldRunConcurrentSchedules() throws Exception {
+            List<Course> courses = createCourses(5);
+            List<Enrollment> enrollments = createEnrollments(courses, createStudents(20));
+            LocalDate startDate = LocalDate.now().plusDays(1);
+            schedulerService.setParallelism(2);
+
+            ExecutorService executor = Executors.newFixedThreadPool(3);
+            try {
+                List<Future<ExamTimetable>> futures = new ArrayList<>();
+                for (int rooms = 1; rooms <= 3; rooms++) {
+                    List<Classroom> classrooms = createClassrooms(rooms);
+                    futures.add(executor.submit(() -> schedulerService.generateTimetable(courses, classrooms,
+                            enrollments, startDate, startDate.plusDays(9))));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    ExamTimetable result = futures.get(i).get();
+                    assertEquals(5, result.getExams().size());
+                    for (Exam exam : result.getExams()) {
+                        assertTrue(exam.getClassroom().getId().compareTo("R" + (100 + i)) <= 0,
+                                "Run " + i + " must only use its own rooms");
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject non-positive parallelism")
+        void shouldRejectInvalidParallelism() {
+            assertThrows(IllegalArgumentException.class, () -> schedulerService.setParallelism(0));
+        }
+
+        private long countDays(ExamTimetable timetable) {
+            return timetable.getExams().stream().map(e -> e.getSlot().getDate()).distinct().count();
+        }
+    }
+
+    @Nested
+    @DisplayName("Search Ordering Tests")
+    class SearchOrderingTests {
+
+        @Test
+        @DisplayName("Should find the same day count with static and dynamic ordering")
+        @Timeout(value = 60, unit = TimeUnit.SECONDS)
+        void shouldMatchStaticOrdering() {
+            List<Course> courses = createCourses(5);
+            List<Classroom> classrooms = createClassrooms(3);
+            List<Enrollment> enrollments = createEnrollments(courses, createStudents(20));
+            LocalDate startDate = LocalDate.now().plusDays(1);
+
+            schedulerService.setDynamicOrdering(false);
+            ExamTimetable fixed = schedulerService.generateTimetable(courses, classrooms, enrollments, startDate);
+
+            SchedulerService dynamicService = new SchedulerService();
+            dynamicService.setDynamicOrdering(true);
+            ExamTimetable dynamic = dynamicService.generateTimetable(courses, classrooms, enrollments, startDate);
+
+            assertEquals(5, dynamic.getExams().size());
+            assertEquals(fixed.getExams().stream().map(e -> e.getSlot().getDate()).distinct().count(),
+                    dynamic.getExams().stream().map(e -> e.getSlot().getDate()).distinct().count());
+        }
+
     }
 
     // Helper methods
 
+    @Nested
+    @DisplayName("Large Neighbourhood Search Tests")
+    class LargeNeighbourhoodSearchTests {
+
+        @Test
+        @DisplayName("Should find the same day count with and without LNS")
+        @Timeout(value = 60, unit = TimeUnit.SECONDS)
+        void shouldMatchPlainBacktracking() {
+            List<Course> courses = createCourses(6);
+            List<Classroom> classrooms = createClassrooms(2);
+            List<Enrollment> enrollments = createEnrollments(courses, createStudents(20));
+            LocalDate startDate = LocalDate.now().plusDays(1);
+
+            schedulerService.setLargeNeighbourhoodSearch(false);
+            ExamTimetable plain = schedulerService.generateTimetable(courses, classrooms, enrollments, startDate);
+
+            SchedulerService lnsService = new SchedulerService();
+            lnsService.setLargeNeighbourhoodSearch(true);
+            lnsService.setDynamicOrdering(false);
+            ExamTimetable lns = lnsService.generateTimetable(courses, classrooms, enrollments, startDate);
+
+            assertEquals(6, lns.getExams().size());
+            assertEquals(plain.getExams().stream().map(e -> e.getSlot().getDate()).distinct().count(),
+                    lns.getExams().stream().map(e -> e.getSlot().getDate()).distinct().count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Restart Tests")
+    class RestartTests {
+
+        @Test
+        @DisplayName("Should follow the Luby sequence")
+        void shouldFollowLubySequence() {
+            long[] expected = { 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, 1 };
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], SchedulerService.luby(i + 1), "term " + (i + 1));
+            }
+        }
+
+        @Test
+        @DisplayName("Should schedule with sequential and parallel restarts")
+        @Timeout(value = 60, unit = TimeUnit.SECONDS)
+        void shouldScheduleWithRestarts() {
+            List<Course> courses = createCourses(6);
+            List<Classroom> classrooms = createClassrooms(2);
+            List<Enrollment> enrollments = createEnrollments(courses, createStudents(20));
+            LocalDate startDate = LocalDate.now().plusDays(1);
+
+            schedulerService.setParallelRestarts(false);
+            ExamTimetable sequential = schedulerService.generateTimetable(courses, classrooms, enrollments,
+                    startDate);
+
+            SchedulerService parallelService = new SchedulerService();
+            parallelService.setParallelRestarts(true);
+            parallelService.setParallelism(4);
+            ExamTimetable parallel = parallelService.generateTimetable(courses, classrooms, enrollments, startDate);
+
+            assertEquals(6, parallel.getExams().size());
+            assertEquals(sequential.getExams().stream().map(e -> e.getSlot().getDate()).distinct().count(),
+                    parallel.getExams().stream().map(e -> e.getSlot().getDate()).distinct().count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Anytime Tests")
+    class AnytimeTests {
+
+        @Test
+        @DisplayName("Should report bounds and the final schedule to the listener")
+        @Timeout(value = 60, unit = TimeUnit.SECONDS)
+        void shouldReportProgress() {
+            List<Course> courses = createCourses(5);
+            List<Enrollment> enrollments = createEnrollments(courses, createStudents(20));
+            LocalDate startDate = LocalDate.now().plusDays(1);
+            List<SchedulingProgress> events = Collections.synchronizedList(new ArrayList<>());
+
+            ExamTimetable result = schedulerService.generateTimetable(courses, createClassrooms(3), enrollments,
+                    startDate, startDate.plusDays(6), events::add, new CancellationToken());
+
+            assertFalse(events.isEmpty());
+            assertEquals(SchedulingProgress.Phase.DAY_SEARCH, events.get(0).getPhase());
+            SchedulingProgress last = events.get(events.size() - 1);
+            assertEquals(SchedulingProgress.Phase.FINISHED, last.getPhase());
+            assertEquals(result.getExams().stream().map(e -> e.getSlot().getDate()).distinct().count(),
+                    last.getBestDays());
+            assertNotNull(last.getBestSchedule());
+            assertTrue(last.getElapsedMs() >= 0);
+        }
+
+        @Test
+        @DisplayName("Should throw when cancelled before any schedule exists")
+        void shouldThrowWhenCancelledEarly() {
+            List<Course> courses = createCourses(3);
+            List<Enrollment> enrollments = createEnrollments(courses, createStudents(10));
+            LocalDate startDate = LocalDate.now().plusDays(1);
+            CancellationToken token = new CancellationToken();
+            token.cancel();
+
+            assertThrows(CancellationException.class, () -> schedulerService.generateTimetable(courses,
+                    createClassrooms(2), enrollments, startDate, startDate.plusDays(6), null, token));
+        }
+
+        @Test
+        @DisplayName("Should return the best schedule when the listener stops at a quality threshold")
+        @Timeout(value = 60, unit = TimeUnit.SECONDS)
+        void shouldStopAtThreshold() {
+            List<Course> courses = createCourses(6);
+            List<Enrollment> enrollments = createEnrollments(courses, createStudents(20));
+            LocalDate startDate = LocalDate.now().plusDays(1);
+            CancellationToken token = new CancellationToken();
+
+            // Any schedule within the week is good enough
+            ScheduleOptions options = schedulerService.generateTimetableWithOptions(courses, createClassrooms(2),
+                    enrollments, startDate, startDate.plusDays(6), progress -> {
+                        if (progress.getBestDays() > 0 && progress.getBestDays() <= 7) {
+                            token.cancel();
+                        }
+                    }, token);
+
+            assertNotNull(options.getOptimalSchedule());
+            assertEquals(6, options.getOptimalSchedule().getExams().size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Repair Tests")
+    class RepairTests {
+
+        private final LocalDate day1 = LocalDate.of(2025, 1, 6);
+        private final Student ali = new Student("S1", "Ali");
+        private final Course math = new Course("MATH", "Math", 60);
+        private final Course physics = new Course("PHYS", "Physics", 60);
+        private final Course art = new Course("ART", "Art", 60);
+        private final Classroom hall = new Classroom("HALL", "Hall", 30);
+        private final Classroom room = new Classroom("ROOM", "Room", 30);
+
+        private Exam exam(Course course, Classroom classroom, LocalDate date, int hour) {
+            LocalTime start = LocalTime.of(hour, 0);
+            return new Exam(course, classroom, new ExamSlot(date, start, start.plusMinutes(60)));
+        }
+
+        private ExamTimetable timetable(Exam... exams) {
+            // Ali takes math and physics
+            return new ExamTimetable(List.of(exams), List.of(new Enrollment(ali, math), new Enrollment(ali, physics),
+                    new Enrollment(new Student("S2", "Ayse"), art)));
+        }
+
+        private Exam find(ExamTimetable timetable, String code) {
+            return timetable.getExams().stream().filter(e -> e.getCourse().getCode().equals(code)).findFirst()
+                    .orElseThrow();
+        }
+
+        @Test
+        @DisplayName("Should move only the exams in an unavailable room")
+        void shouldRepairRoomOutage() {
+            ExamTimetable original = timetable(exam(math, hall, day1, 9), exam(physics, hall, day1.plusDays(1), 9),
+                    exam(art, room, day1, 9));
+
+            ExamTimetable repaired = schedulerService.repairTimetable(original, List.of(hall, room), Set.of(),
+                    List.of(TimetableChange.roomOutage("HALL", day1)));
+
+            Exam movedMath = find(repaired, "MATH");
+            assertNotEquals("HALL", movedMath.getClassroom().getId());
+            assertEquals(day1, movedMath.getSlot().getDate());
+            assertEquals(find(original, "PHYS").getSlot().toString(), find(repaired, "PHYS").getSlot().toString());
+            assertEquals("HALL", find(repaired, "PHYS").getClassroom().getId());
+            assertEquals("ROOM", find(repaired, "ART").getClassroom().getId());
+            assertEquals(LocalTime.of(9, 0), find(repaired, "ART").getSlot().getStartTime());
+        }
+
+        @Test
+        @DisplayName("Should keep a manually moved exam and move its conflicting neighbour")
+        void shouldKeepMovedExam() {
+            // Physics was dragged next to math, one hour apart
+            ExamTimetable edited = timetable(exam(math, hall, day1, 9), exam(physics, room, day1, 11),
+                    exam(art, room, day1.plusDays(1), 9));
+
+            ExamTimetable repaired = schedulerService.repairTimetable(edited, List.of(hall, room), Set.of(),
+                    List.of(TimetableChange.examMoved("PHYS")));
+
+            assertEquals(LocalTime.of(11, 0), find(repaired, "PHYS").getSlot().getStartTime());
+            // Physics runs 11:00-12:00: on the same day math must end by 08:00 (impossible) or start from 15:00
+            ExamSlot mathSlot = find(repaired, "MATH").getSlot();
+            assertTrue(!mathSlot.getDate().equals(day1) || !mathSlot.getStartTime().isBefore(LocalTime.of(15, 0)));
+            assertEquals(find(edited, "ART").getSlot().toString(), find(repaired, "ART").getSlot().toString());
+        }
+
+        @Test
+        @DisplayName("Should return a valid timetable unchanged")
+        void shouldKeepValidTimetable() {
+            ExamTimetable original = timetable(exam(math, hall, day1, 9), exam(physics, hall, day1, 13),
+                    exam(art, room, day1, 9));
+
+            assertSame(original, schedulerService.repairTimetable(original, List.of(hall, room), Set.of("ART"),
+                    List.of()));
+        }
+
+        @Test
+        @DisplayName("Should reject a pinned exam in an unavailable room")
+        void shouldRejectPinnedOutage() {
+            ExamTimetable original = timetable(exam(math, hall, day1, 9), exam(physics, hall, day1, 13),
+                    exam(art, room, day1, 9));
+
+            assertThrows(IllegalArgumentException.class, () -> schedulerService.repairTimetable(original,
+                    List.of(hall, room), Set.of("MATH"), List.of(TimetableChange.roomOutage("HALL", null))));
+        }
+    }
+
     private List<Course> createCourses(int count) {
         List<Course> courses = new ArrayList<>();
         for (int i = 0; i < count; i++) {
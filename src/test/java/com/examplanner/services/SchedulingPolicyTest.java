@@ -0,0 +1,127 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the configurable scheduling policy.
+ */
+class SchedulingPolicyTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 6);
+
+    @Test
+    @DisplayName("Should describe the default 09:00-18:30 grid")
+    void shouldHaveDefaultGrid() {
+        SchedulingPolicy policy = SchedulingPolicy.DEFAULT;
+
+        assertEquals(19, policy.getSlotCount());
+        assertEquals(LocalTime.of(9, 0), policy.getStartTimes().get(0));
+        assertEquals(LocalTime.of(18, 0), policy.getStartTimes().get(18));
+        assertEquals(180, policy.getMinGapMinutes());
+        assertEquals(2, policy.getMaxExamsPerDay());
+    }
+
+    @Test
+    @DisplayName("Should build coarser grids and reject invalid values")
+    void shouldBuildCoarserGrid() {
+        SchedulingPolicy hourly = SchedulingPolicy.DEFAULT.withSlotMinutes(60);
+        SchedulingPolicy ninety = SchedulingPolicy.DEFAULT.withSlotMinutes(90);
+
+        assertEquals(10, hourly.getSlotCount());
+        // 570 minutes are not a whole number of 90-minute slots; the last cell reaches past 18:30
+        assertEquals(7, ninety.getSlotCount());
+        assertEquals(LocalTime.of(18, 0), ninety.getStartTimes().get(6));
+        assertEquals(30, SchedulingPolicy.DEFAULT.getSlotMinutes(), "withers must not modify the original");
+
+        // Starts an exam still fits after: 120 minutes end by 18:30 only up to 16:30
+        List<LocalTime> twoHours = SchedulingPolicy.DEFAULT.getStartTimes(120);
+        assertEquals(LocalTime.of(16, 30), twoHours.get(twoHours.size() - 1));
+        assertEquals(LocalTime.of(16, 30), ninety.getStartTimes(90).get(ninety.getStartTimes(90).size() - 1));
+        assertEquals(19, SchedulingPolicy.DEFAULT.getStartTimes(30).size());
+        assertTrue(SchedulingPolicy.DEFAULT.getStartTimes(600).isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> SchedulingPolicy.DEFAULT.withSlotMinutes(0));
+        assertThrows(IllegalArgumentException.class, () -> SchedulingPolicy.DEFAULT.withMaxExamsPerDay(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> SchedulingPolicy.DEFAULT.withWindow(LocalTime.of(18, 0), LocalTime.of(9, 0)));
+    }
+
+    @Test
+    @DisplayName("Should build the problem's slot tables from the policy")
+    void shouldDriveProblemSlotTables() {
+        Course exam = new Course("A", "A", 120);
+        SchedulingProblem problem = new SchedulingProblem(List.of(exam), List.of(new Classroom("R1", "Room", 10)),
+                List.of(), START, 1, SchedulingPolicy.DEFAULT.withSlotMinutes(90));
+
+        assertEquals(7, problem.getSlotCount());
+        assertEquals(2, problem.getSlotSpan(0));
+        // Starts 09:00 .. 16:30 end by 18:30
+        assertEquals(6, problem.getStartSlotCount(0));
+        assertEquals(3, problem.slotOf(LocalTime.of(13, 30)));
+        assertEquals(-1, problem.slotOf(LocalTime.of(10, 0)));
+    }
+
+    @Test
+    @DisplayName("Should schedule on a coarser grid")
+    void shouldScheduleOnCoarserGrid() {
+        List<Course> courses = new ArrayList<>();
+        List<Enrollment> enrollments = new ArrayList<>();
+        Student ali = new Student("S1", "Ali");
+        for (int i = 0; i < 6; i++) {
+            Course course = new Course("C" + i, "Course " + i, 60 + (i % 2) * 30);
+            courses.add(course);
+            enrollments.add(new Enrollment(i < 3 ? ali : new Student("S" + (i + 10), "Other"), course));
+        }
+        SchedulerService service = new SchedulerService();
+        service.setRandomSeed(1L);
+        service.setPolicy(SchedulingPolicy.DEFAULT.withSlotMinutes(60));
+
+        ExamTimetable timetable = service.generateTimetable(courses,
+                List.of(new Classroom("R1", "Room", 5), new Classroom("R2", "Room", 5)), enrollments, START,
+                START.plusDays(4));
+
+        assertEquals(6, timetable.getExams().size());
+        for (Exam exam : timetable.getExams()) {
+            assertEquals(0, exam.getSlot().getStartTime().getMinute(), "Off the hourly grid: " + exam);
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply a daily limit other than two")
+    void shouldApplyOtherDailyLimit() {
+        Student ali = new Student("S1", "Ali");
+        List<Course> courses = new ArrayList<>();
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Course course = new Course("C" + i, "Course " + i, 60);
+            courses.add(course);
+            enrollments.add(new Enrollment(ali, course));
+        }
+        SchedulingPolicy policy = SchedulingPolicy.DEFAULT.withMinGapMinutes(60).withMaxExamsPerDay(3);
+        SchedulingProblem problem = new SchedulingProblem(courses, List.of(new Classroom("R1", "Room", 5)),
+                enrollments, START, 1, policy);
+        IndexedScheduleState state = new IndexedScheduleState(problem, new ConflictGraph(problem), 1);
+        int[] room = { 0 };
+
+        state.place(0, 0, 0, room, 1);
+        state.place(1, 0, 4, room, 1);
+        assertFalse(state.exceedsDailyLimit(2, 0), "Third exam is allowed with a limit of three");
+        state.place(2, 0, 8, room, 1);
+
+        ConstraintChecker checker = new ConstraintChecker(policy);
+        ExamSlot late = new ExamSlot(START, LocalTime.of(17, 30), LocalTime.of(18, 30));
+        assertTrue(checker.violatesDailyLimit(ali, late, state));
+        assertTrue(checker.isWithinTimeWindow(late));
+        checker.setPolicy(policy.withWindow(LocalTime.of(9, 0), LocalTime.of(17, 0)));
+        assertFalse(checker.isWithinTimeWindow(late));
+    }
+}
@@ -0,0 +1,141 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the compiled SchedulingProblem model.
+ */
+class SchedulingProblemTest {
+
+    private Course small;
+    private Course big;
+    private Course empty;
+    private Student ali;
+    private Student ayse;
+    private List<Enrollment> enrollments;
+    private SchedulingProblem problem;
+
+    @BeforeEach
+    void setUp() {
+        small = new Course("CS101", "Intro", 120);
+        big = new Course("CS201", "Algorithms", 90);
+        empty = new Course("CS301", "Seminar", 60);
+        ali = new Student("S1", "Ali");
+        ayse = new Student("S2", "Ayse");
+
+        enrollments = new ArrayList<>();
+        enrollments.add(new Enrollment(ali, small));
+        enrollments.add(new Enrollment(ali, big));
+        enrollments.add(new Enrollment(ayse, big));
+        enrollments.add(new Enrollment(ayse, big)); // duplicate row
+
+        List<Classroom> classrooms = List.of(
+                new Classroom("R1", "Small", 1),
+                new Classroom("R2", "Large", 40));
+
+        problem = new SchedulingProblem(List.of(small, big, empty), classrooms, enrollments,
+                LocalDate.of(2025, 1, 6), 5);
+    }
+
+    @Test
+    @DisplayName("Should number courses by scheduling order and classrooms by capacity")
+    void shouldAssignDenseIds() {
+        assertEquals(3, problem.getCourseCount());
+        assertEquals(0, problem.courseIndex("CS201"));
+        assertEquals(1, problem.courseIndex("CS101"));
+        assertEquals(2, problem.courseIndex("CS301"));
+        assertEquals(-1, problem.courseIndex("UNKNOWN"));
+
+        assertEquals(0, problem.classroomIndex("R2"));
+        assertEquals(1, problem.classroomIndex("R1"));
+        assertEquals(40, problem.getMaxClassroomCapacity());
+
+        assertEquals(2, problem.getStudentCount());
+        assertEquals(4, problem.dayIndex(LocalDate.of(2025, 1, 10)));
+        assertEquals(-1, problem.dayIndex(LocalDate.of(2025, 1, 11)));
+    }
+
+    @Test
+    @DisplayName("Should build consistent CSR enrollment arrays without duplicates")
+    void shouldBuildCsrArrays() {
+        int bigId = problem.courseIndex("CS201");
+        int aliId = problem.studentIndex("S1");
+
+        assertEquals(2, problem.getEnrollmentCount(bigId));
+        assertEquals(0, problem.getEnrollmentCount(problem.courseIndex("CS301")));
+
+        int[] offsets = problem.getStudentCourseOffsets();
+        assertEquals(2, offsets[aliId + 1] - offsets[aliId]);
+        assertEquals(problem.getCourseStudents().length, problem.getStudentCourses().length);
+    }
+
+    @Test
+    @DisplayName("Should compute slot spans and valid start slots on the 30-minute grid")
+    void shouldComputeSlotGrid() {
+        int smallId = problem.courseIndex("CS101");
+
+        assertEquals(19, problem.getSlotCount());
+        assertEquals(4, problem.getSlotSpan(smallId));
+        // 120 min exam: last start is 16:30
+        assertEquals(16, problem.getStartSlotCount(smallId));
+
+        ExamSlot slot = problem.createSlot(smallId, 1, 15);
+        assertEquals(LocalDate.of(2025, 1, 7), slot.getDate());
+        assertEquals(LocalTime.of(16, 30), slot.getStartTime());
+        assertEquals(LocalTime.of(18, 30), slot.getEndTime());
+    }
+
+    @Test
+    @DisplayName("Should split courses larger than the biggest room into balanced parts")
+    void shouldSplitLargeCourses() {
+        Course huge = new Course("HUGE", "Huge", 60);
+        List<Enrollment> many = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            many.add(new Enrollment(new Student("S" + i, "Student " + i), huge));
+        }
+
+        SchedulingProblem split = new SchedulingProblem(List.of(huge),
+                List.of(new Classroom("R1", "Room", 10)), many, LocalDate.of(2025, 1, 6), 1);
+
+        assertArrayEquals(new int[] { 9, 8, 8 }, split.getPartSizes(0));
+        assertEquals(3, split.getPartCount());
+    }
+
+    @Test
+    @DisplayName("Should split by the room capacity distribution")
+    void shouldSplitByRoomCapacities() {
+        int[] capacities = { 120, 100, 80, 40 };
+
+        // Equal parts of 100 would need three rooms of at least 100 seats
+        assertArrayEquals(new int[] { 120, 100, 80 }, SchedulingProblem.splitIntoParts(300, capacities));
+        assertArrayEquals(new int[] { 107, 88 }, SchedulingProblem.splitIntoParts(195, capacities));
+        assertArrayEquals(new int[] { 90 }, SchedulingProblem.splitIntoParts(90, capacities));
+        // More students than all rooms together: equal parts of the largest room
+        assertArrayEquals(new int[] { 100, 100, 100, 100 }, SchedulingProblem.splitIntoParts(400, capacities));
+    }
+
+    @Test
+    @DisplayName("Should group rooms of equal capacity into classes")
+    void shouldGroupRoomClasses() {
+        SchedulingProblem problem = new SchedulingProblem(List.of(new Course("A", "A", 60)),
+                List.of(new Classroom("R1", "Room", 30), new Classroom("R2", "Room", 50),
+                        new Classroom("R3", "Room", 30), new Classroom("R4", "Room", 50)),
+                List.of(), LocalDate.of(2025, 1, 6), 1);
+
+        assertEquals(2, problem.getRoomClassCount());
+        assertEquals(0, problem.getRoomClass(problem.classroomIndex("R2")));
+        assertEquals(0, problem.getRoomClass(problem.classroomIndex("R4")));
+        assertEquals(1, problem.getRoomClass(problem.classroomIndex("R1")));
+        assertEquals(1, problem.getRoomClass(problem.classroomIndex("R3")));
+    }
+}
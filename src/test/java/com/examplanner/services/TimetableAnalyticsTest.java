@@ -0,0 +1,95 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the cached timetable load report.
+ */
+class TimetableAnalyticsTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 6);
+
+    private static ExamSlot slot(int day, int hour, int minute) {
+        LocalTime start = LocalTime.of(hour, minute);
+        return new ExamSlot(START.plusDays(day), start, start.plusMinutes(60));
+    }
+
+    @Test
+    @DisplayName("Should compute daily loads, day, room and hour counts")
+    void shouldComputeReport() {
+        Course a = new Course("A", "A", 60);
+        Course b = new Course("B", "B", 60);
+        Course c = new Course("C", "C", 60);
+        Classroom r1 = new Classroom("R1", "Room 1", 10);
+        Classroom r2 = new Classroom("R2", "Room 2", 10);
+        Student ali = new Student("S1", "Ali");
+        Student ayse = new Student("S2", "Ayse");
+        Student can = new Student("S3", "Can");
+        List<Enrollment> enrollments = List.of(new Enrollment(ali, a), new Enrollment(ali, b),
+                new Enrollment(ali, b), new Enrollment(ayse, a), new Enrollment(ayse, c), new Enrollment(can, c));
+        // A is split over two rooms; Ali has A and B on day 0, Ayse A on day 0 and C on day 1
+        List<Exam> exams = List.of(new Exam(a, r1, slot(0, 9, 0)), new Exam(a, r2, slot(0, 9, 0)),
+                new Exam(b, r1, slot(0, 13, 30)), new Exam(c, r1, slot(1, 9, 30)));
+
+        TimetableAnalytics.Report report = new TimetableAnalytics().getReport(exams, enrollments);
+
+        assertEquals(4, report.getExamCount());
+        assertEquals(3, report.getStudentCount());
+        assertEquals(2, report.getDayCount());
+        assertEquals(2, report.getRoomCount());
+        assertEquals(Map.of(START, 3, START.plusDays(1), 1), report.getExamsPerDay());
+        assertEquals(Map.of("Room 1", 3, "Room 2", 1), report.getRoomUsage());
+        assertEquals(Map.of(LocalTime.of(9, 0), 3, LocalTime.of(13, 0), 1), report.getExamsPerHour());
+
+        assertEquals(1, report.getHeavyDays().size());
+        TimetableAnalytics.StudentDay heavy = report.getHeavyDays().get(0);
+        assertSame(ali, heavy.getStudent());
+        assertEquals(START, heavy.getDate());
+        assertEquals(List.of("A", "B"), heavy.getExams().stream().map(e -> e.getCourse().getCode()).toList());
+        // Ali's busiest day has 2 exams, Ayse's and Can's 1
+        assertEquals(Map.of(1, 2, 2, 1), report.getMaxDailyLoads());
+    }
+
+    @Test
+    @DisplayName("Should reuse the report until the timetable changes")
+    void shouldCacheUntilChanged() {
+        Course a = new Course("A", "A", 60);
+        Course b = new Course("B", "B", 60);
+        Classroom room = new Classroom("R1", "Room", 10);
+        Student ali = new Student("S1", "Ali");
+        List<Enrollment> enrollments = new ArrayList<>(List.of(new Enrollment(ali, a), new Enrollment(ali, b)));
+        Exam examA = new Exam(a, room, slot(0, 9, 0));
+        Exam examB = new Exam(b, room, slot(1, 9, 0));
+        List<Exam> exams = new ArrayList<>(List.of(examA, examB));
+        TimetableAnalytics analytics = new TimetableAnalytics();
+
+        TimetableAnalytics.Report first = analytics.getReport(exams, enrollments);
+        assertSame(first, analytics.getReport(exams, enrollments));
+        assertTrue(first.getHeavyDays().isEmpty());
+
+        examB.setSlot(slot(0, 14, 0));
+        TimetableAnalytics.Report moved = analytics.getReport(exams, enrollments);
+        assertNotSame(first, moved);
+        assertEquals(1, moved.getHeavyDays().size());
+
+        exams.remove(examB);
+        assertEquals(1, analytics.getReport(exams, enrollments).getExamCount());
+
+        enrollments.add(new Enrollment(new Student("S2", "Ayse"), a));
+        assertEquals(2, analytics.getReport(exams, enrollments).getStudentCount());
+
+        TimetableAnalytics.Report cached = analytics.getReport(exams, enrollments);
+        analytics.invalidate();
+        assertNotSame(cached, analytics.getReport(exams, enrollments));
+    }
+}
@@ -0,0 +1,109 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.ResourceBundle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the timetable index behind manual-move checks.
+ */
+class TimetableIndexTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 6);
+    private static final ResourceBundle BUNDLE = ResourceBundle.getBundle("com.examplanner.ui.messages",
+            Locale.ENGLISH);
+
+    private static ExamSlot slot(int day, int hour, int minutes) {
+        LocalTime start = LocalTime.of(hour, 0);
+        return new ExamSlot(START.plusDays(day), start, start.plusMinutes(minutes));
+    }
+
+    @Test
+    @DisplayName("Should re-index moved, added and removed exams and new enrollments")
+    void shouldSyncChanges() {
+        Course a = new Course("A", "A", 60);
+        Course b = new Course("B", "B", 60);
+        Classroom room = new Classroom("R1", "Room", 10);
+        Student ali = new Student("S1", "Ali");
+        List<Enrollment> enrollments = new ArrayList<>(List.of(new Enrollment(ali, a), new Enrollment(ali, b)));
+        Exam examA = new Exam(a, room, slot(0, 9, 60));
+        Exam examB = new Exam(b, room, slot(0, 13, 60));
+        List<Exam> exams = new ArrayList<>(List.of(examA, examB));
+
+        TimetableIndex index = new TimetableIndex();
+        index.sync(exams, enrollments);
+        assertEquals(List.of(examA, examB), index.getExamsForStudentDate("S1", START));
+        assertEquals(List.of(examA, examB), index.getExamsForClassroomDate("R1", START));
+
+        examB.setSlot(slot(1, 9, 60));
+        index.sync(exams, enrollments);
+        assertEquals(List.of(examA), index.getExamsForStudentDate("S1", START));
+        assertEquals(List.of(examB), index.getExamsForClassroomDate("R1", START.plusDays(1)));
+
+        exams.remove(examA);
+        index.sync(exams, enrollments);
+        assertEquals(1, index.getExamCount());
+        assertTrue(index.getExamsForClassroomDate("R1", START).isEmpty());
+
+        enrollments.add(new Enrollment(new Student("S2", "Ayse"), b));
+        index.sync(exams, enrollments);
+        assertEquals(2, index.getStudentsForCourse("B").size());
+        assertEquals(List.of(examB), index.getExamsForStudentDate("S2", START.plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("Should give the same messages as the list scan on random moves")
+    void shouldMatchListCheck() {
+        Random random = new Random(11);
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            courses.add(new Course("C" + i, "Course " + i, 60 + 30 * random.nextInt(3)));
+        }
+        List<Classroom> rooms = List.of(new Classroom("R1", "Room 1", 8), new Classroom("R2", "Room 2", 30));
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int s = 0; s < 25; s++) {
+            Student student = new Student("S" + s, "Student " + s);
+            for (int k = 0; k < 3; k++) {
+                enrollments.add(new Enrollment(student, courses.get(random.nextInt(courses.size()))));
+            }
+        }
+        List<Exam> exams = new ArrayList<>();
+        for (Course course : courses) {
+            exams.add(new Exam(course, rooms.get(random.nextInt(2)),
+                    slot(random.nextInt(3), 8 + random.nextInt(9), course.getExamDurationMinutes())));
+        }
+
+        ConstraintChecker checker = new ConstraintChecker();
+        TimetableIndex index = new TimetableIndex();
+        int errors = 0;
+        for (int i = 0; i < 300; i++) {
+            Exam moved = exams.get(random.nextInt(exams.size()));
+            Exam candidate = new Exam(moved.getCourse(), rooms.get(random.nextInt(2)),
+                    slot(random.nextInt(3), 8 + random.nextInt(9), moved.getCourse().getExamDurationMinutes()));
+            List<Exam> others = new ArrayList<>(exams);
+            others.remove(moved);
+
+            index.sync(exams, enrollments);
+            String expected = checker.checkManualMove(candidate, others, enrollments, BUNDLE);
+            assertEquals(expected, checker.checkManualMove(candidate, index, BUNDLE), "Move " + i);
+            errors += expected == null ? 0 : 1;
+
+            // Apply some moves in place so later checks run on incremental syncs
+            if (random.nextBoolean()) {
+                moved.setSlot(candidate.getSlot());
+                moved.setClassroom(candidate.getClassroom());
+            }
+        }
+        assertTrue(errors > 0 && errors < 300, "Moves should be both accepted and rejected");
+    }
+}
@@ -0,0 +1,109 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for timetable scoring and the Pareto front of schedule options.
+ */
+class TimetableScorerTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 6);
+
+    private static Exam exam(Course course, Classroom room, int day, int hour) {
+        LocalTime start = LocalTime.of(hour, 0);
+        return new Exam(course, room, new ExamSlot(START.plusDays(day), start,
+                start.plusMinutes(course.getExamDurationMinutes())));
+    }
+
+    @Test
+    @DisplayName("Should count same-day exams, gaps, consecutive days and seats")
+    void shouldScoreTimetable() {
+        Course a = new Course("A", "A", 60);
+        Course b = new Course("B", "B", 60);
+        Course c = new Course("C", "C", 120);
+        Classroom room = new Classroom("R1", "Room", 10);
+        Student ali = new Student("S1", "Ali");
+        Student ayse = new Student("S2", "Ayse");
+        List<Enrollment> enrollments = List.of(new Enrollment(ali, a), new Enrollment(ali, b),
+                new Enrollment(ali, c), new Enrollment(ayse, c));
+        SchedulingProblem problem = new SchedulingProblem(List.of(a, b, c), List.of(room), enrollments, START, 5);
+
+        // Ali: A 09:00-10:00 and B 13:00-14:00 on day 0, C on day 1
+        ExamTimetable timetable = new ExamTimetable(List.of(exam(a, room, 0, 9), exam(b, room, 0, 13),
+                exam(c, room, 1, 9)));
+        ScheduleScore score = new TimetableScorer(problem).score(timetable);
+
+        assertEquals(2, score.getDays());
+        assertEquals(1, score.getStudentsWithTwoExamsDay());
+        assertEquals(1, score.getTwoExamDays());
+        assertEquals(1, score.getConsecutiveDays());
+        assertEquals(180, score.getMinGapMinutes());
+        assertEquals(1, score.getGapHistogram()[3]);
+        // 4 students seated in 30 seats
+        assertEquals(26, score.getWastedSeats());
+        assertEquals(4.0 / 30, score.getRoomUtilization(), 1e-9);
+        // Two students sit exams on each day
+        assertEquals(0.0, score.getLoadVariance(), 1e-9);
+        assertEquals(LocalSearchImprover.TWO_EXAMS_DAY_WEIGHT + LocalSearchImprover.CONSECUTIVE_DAYS_WEIGHT + 26,
+                score.getPenalty());
+    }
+
+    @Test
+    @DisplayName("Should keep only non-dominated scores")
+    void shouldBuildParetoFront() {
+        ScheduleScore fast = new ScheduleScore(3, 5, 5, 4, new int[10], 180, 180, 10, 20, 1.0);
+        ScheduleScore spread = new ScheduleScore(5, 0, 0, 2, new int[10], -1, 0, 10, 20, 1.0);
+        ScheduleScore worse = new ScheduleScore(5, 1, 1, 3, new int[10], 180, 180, 10, 20, 2.0);
+        ScheduleScore copy = new ScheduleScore(3, 5, 5, 4, new int[10], 180, 180, 10, 20, 1.0);
+
+        assertTrue(spread.dominates(worse));
+        assertFalse(fast.dominates(spread));
+        assertFalse(fast.dominates(copy));
+        assertEquals(List.of(0, 1), ScheduleScore.paretoFront(List.of(fast, spread, worse, copy)));
+    }
+
+    @Test
+    @DisplayName("Should offer a scored Pareto front of schedules")
+    @Timeout(value = 60, unit = TimeUnit.SECONDS)
+    void shouldOfferParetoOptions() {
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            courses.add(new Course("C" + i, "Course " + i, 60));
+        }
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int s = 0; s < 12; s++) {
+            Student student = new Student("S" + s, "Student");
+            enrollments.add(new Enrollment(student, courses.get(s % 6)));
+            enrollments.add(new Enrollment(student, courses.get((s + 1) % 6)));
+        }
+        SchedulerService service = new SchedulerService();
+        service.setRandomSeed(3L);
+
+        ScheduleOptions options = service.generateTimetableWithOptions(courses,
+                List.of(new Classroom("R1", "Room", 20), new Classroom("R2", "Room", 20)), enrollments, START,
+                START.plusDays(6));
+
+        List<ScheduleOptions.ScheduleOption> all = options.getAllOptions();
+        assertFalse(all.isEmpty());
+        assertEquals(options.getOptimalDays(), all.get(0).getDays());
+        assertTrue(all.get(0).isOptimal());
+        assertSame(options.getOptimalSchedule(), all.get(0).getSchedule());
+        for (ScheduleOptions.ScheduleOption option : all) {
+            assertNotNull(option.getScore());
+            for (ScheduleOptions.ScheduleOption other : all) {
+                assertFalse(other.getScore().dominates(option.getScore()), "Dominated option: " + option);
+            }
+        }
+    }
+}
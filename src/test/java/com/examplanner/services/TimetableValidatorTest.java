@@ -0,0 +1,150 @@
+package com.examplanner.services;
+
+import com.examplanner.domain.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for whole-timetable validation.
+ */
+class TimetableValidatorTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 6);
+
+    private static Exam exam(Course course, Classroom room, int day, int hour) {
+        LocalTime start = LocalTime.of(hour, 0);
+        return new Exam(course, room, new ExamSlot(START.plusDays(day), start,
+                start.plusMinutes(course.getExamDurationMinutes())));
+    }
+
+    @Test
+    @DisplayName("Should report every kind of violation")
+    void shouldReportEveryViolation() {
+        Course a = new Course("A", "A", 60);
+        Course b = new Course("B", "B", 60);
+        Course c = new Course("C", "C", 60);
+        Course d = new Course("D", "D", 120);
+        Classroom small = new Classroom("R1", "Small", 1);
+        Classroom large = new Classroom("R2", "Large", 10);
+        Student ali = new Student("S1", "Ali");
+        Student ayse = new Student("S2", "Ayse");
+        List<Enrollment> enrollments = List.of(new Enrollment(ali, a), new Enrollment(ali, b),
+                new Enrollment(ali, c), new Enrollment(ayse, c), new Enrollment(ayse, d));
+
+        // Day 0: Ali sits A 09-10, B 11-12 (gap 60) and C 13-14 (gap 60, three exams),
+        // Ayse D 11-13 and C (gap 0); C holds 2 students in 1 seat and B overlaps D in the large room.
+        // Day 1: D runs 18:00-20:00, past the window.
+        Exam examA = exam(a, large, 0, 9);
+        Exam examB = exam(b, large, 0, 11);
+        Exam examC = exam(c, small, 0, 13);
+        Exam examD = exam(d, large, 0, 11);
+        Exam lateD = exam(d, large, 1, 18);
+        List<Exam> exams = List.of(examA, examB, examC, examD, lateD);
+
+        List<TimetableValidator.Violation> violations = new TimetableValidator(SchedulingPolicy.DEFAULT)
+                .validate(exams, enrollments);
+        List<String> found = violations.stream().map(TimetableValidator.Violation::toString)
+                .collect(Collectors.toList());
+
+        assertTrue(found.contains("CAPACITY C on 2025-01-06 (2/1)"), found.toString());
+        assertTrue(found.contains("ROOM_OVERLAP D on 2025-01-06 with B"), found.toString());
+        assertTrue(found.contains("DAILY_LIMIT C on 2025-01-06 for S1 (3/2)"), found.toString());
+        assertTrue(found.contains("GAP B on 2025-01-06 with A for S1 (60/180)"), found.toString());
+        assertTrue(found.contains("GAP C on 2025-01-06 with B for S1 (60/180)"), found.toString());
+        assertTrue(found.contains("GAP C on 2025-01-06 with D for S2 (0/180)"), found.toString());
+        assertTrue(found.contains("TIME_WINDOW D on 2025-01-07"), found.toString());
+        // A and C are exactly 180 minutes apart
+        assertEquals(7, violations.size(), found.toString());
+
+        ResourceBundle bundle = ResourceBundle.getBundle("com.examplanner.ui.messages", Locale.ENGLISH);
+        for (TimetableValidator.Violation violation : violations) {
+            assertFalse(violation.toMessage(bundle).isEmpty());
+        }
+        // C is the third exam of the day for Ali, who already has two before it
+        TimetableValidator.Violation limit = violations.stream()
+                .filter(v -> v.getKind() == TimetableValidator.Kind.DAILY_LIMIT).findFirst().orElseThrow();
+        assertEquals("Student Ali already has 2 exams on 2025-01-06.", limit.toMessage(bundle));
+    }
+
+    @Test
+    @DisplayName("Should count split course parts once and add up their seats")
+    void shouldHandleSplitCourses() {
+        Course a = new Course("A", "A", 60);
+        Course b = new Course("B", "B", 60);
+        Classroom r1 = new Classroom("R1", "Room 1", 1);
+        Classroom r2 = new Classroom("R2", "Room 2", 1);
+        Student ali = new Student("S1", "Ali");
+        Student ayse = new Student("S2", "Ayse");
+        List<Enrollment> enrollments = List.of(new Enrollment(ali, a), new Enrollment(ayse, a),
+                new Enrollment(ali, b));
+        List<Exam> exams = List.of(exam(a, r1, 0, 9), exam(a, r2, 0, 9), exam(b, r1, 0, 13));
+
+        assertTrue(new TimetableValidator(SchedulingPolicy.DEFAULT).validate(exams, enrollments).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should flag the same exams as the manual-move check, in parallel and not")
+    void shouldMatchManualMoveCheck() {
+        Random random = new Random(17);
+        // A high daily limit: the manual check flags every exam of a crowded day, the sweep one per student
+        SchedulingPolicy policy = SchedulingPolicy.DEFAULT.withMaxExamsPerDay(10);
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            courses.add(new Course("C" + i, "Course " + i, 60 + 30 * random.nextInt(3)));
+        }
+        List<Classroom> rooms = List.of(new Classroom("R1", "Room 1", 6), new Classroom("R2", "Room 2", 40),
+                new Classroom("R3", "Room 3", 40));
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (int s = 0; s < 60; s++) {
+            Student student = new Student("S" + s, "Student " + s);
+            for (int k = 0; k < 3; k++) {
+                enrollments.add(new Enrollment(student, courses.get(random.nextInt(courses.size()))));
+            }
+        }
+        List<Exam> exams = new ArrayList<>();
+        for (Course course : courses) {
+            exams.add(exam(course, rooms.get(random.nextInt(rooms.size())), random.nextInt(6),
+                    8 + random.nextInt(10)));
+        }
+
+        ConstraintChecker checker = new ConstraintChecker(policy);
+        ResourceBundle bundle = ResourceBundle.getBundle("com.examplanner.ui.messages", Locale.ENGLISH);
+        Set<Exam> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Exam exam : exams) {
+            List<Exam> others = new ArrayList<>(exams);
+            others.remove(exam);
+            if (checker.checkManualMove(exam, others, enrollments, bundle) != null) {
+                expected.add(exam);
+            }
+        }
+
+        TimetableValidator validator = new TimetableValidator(policy);
+        List<TimetableValidator.Violation> violations = validator.validate(exams, enrollments);
+        Set<Exam> flagged = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (TimetableValidator.Violation violation : violations) {
+            flagged.add(violation.getExam());
+            if (violation.getOther() != null) {
+                flagged.add(violation.getOther());
+            }
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, flagged);
+
+        validator.setParallel(false);
+        assertEquals(violations.toString(), validator.validate(exams, enrollments).toString());
+    }
+}